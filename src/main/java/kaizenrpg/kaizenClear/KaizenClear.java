@@ -3,10 +3,25 @@ package kaizenrpg.kaizenClear;
 import kaizenrpg.kaizenClear.commands.KaizenClearCommand;
 import kaizenrpg.kaizenClear.database.DatabaseManager;
 import kaizenrpg.kaizenClear.database.StatisticsManager;
+import kaizenrpg.kaizenClear.database.StatisticsRollup;
 import kaizenrpg.kaizenClear.gui.GUIManager;
+import kaizenrpg.kaizenClear.managers.ChunkCapManager;
 import kaizenrpg.kaizenClear.managers.CleanupManager;
 import kaizenrpg.kaizenClear.managers.ConfigManager;
 import kaizenrpg.kaizenClear.managers.TPSMonitor;
+import kaizenrpg.kaizenClear.metrics.MetricsRegistry;
+import kaizenrpg.kaizenClear.metrics.MetricsServer;
+import kaizenrpg.kaizenClear.monitoring.ConditionEngine;
+import kaizenrpg.kaizenClear.monitoring.GcMonitor;
+import kaizenrpg.kaizenClear.monitoring.LagProfiler;
+import kaizenrpg.kaizenClear.monitoring.TickRecorder;
+import kaizenrpg.kaizenClear.scheduler.TaskScheduler;
+import kaizenrpg.kaizenClear.tracking.BypassCache;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
+import kaizenrpg.kaizenClear.tracking.EntityCensus;
+import kaizenrpg.kaizenClear.tracking.EntityTracker;
+import kaizenrpg.kaizenClear.tracking.ItemExpiryManager;
+import kaizenrpg.kaizenClear.tracking.ItemRegistry;
 import lombok.Getter;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
@@ -17,12 +32,25 @@ import java.io.File;
 public class KaizenClear extends JavaPlugin {
 
     // Managers
+    private TaskScheduler taskScheduler;
     private ConfigManager configManager;
     private DatabaseManager databaseManager;
     private StatisticsManager statisticsManager;
+    private StatisticsRollup statisticsRollup;
     private TPSMonitor tpsMonitor;
+    private EntityCensus entityCensus;
+    private ItemRegistry itemRegistry;
+    private BypassCache bypassCache;
+    private ChunkDensityIndex densityIndex;
+    private LagProfiler lagProfiler;
+    private GcMonitor gcMonitor;
     private CleanupManager cleanupManager;
+    private ConditionEngine conditionEngine;
+    private ItemExpiryManager itemExpiryManager;
+    private ChunkCapManager chunkCapManager;
     private GUIManager guiManager;
+    private MetricsRegistry metrics;
+    private MetricsServer metricsServer;
 
     // Custom data folder for Kaizen plugin suite
     private File customDataFolder;
@@ -69,6 +97,24 @@ public class KaizenClear extends JavaPlugin {
             return;
         }
 
+        // Pick the Folia or Bukkit scheduler
+        taskScheduler = TaskScheduler.create(this);
+        if (taskScheduler.isFolia()) {
+            getLogger().info("Folia detected, using region schedulers");
+        }
+
+        // Counters and histograms are recorded even while the endpoint is off
+        metrics = new MetricsRegistry();
+
+        // Track dropped items and entity density from one set of entity events,
+        // so scans and monitoring never walk a world
+        getLogger().info("Starting item registry...");
+        itemRegistry = new ItemRegistry(this);
+        densityIndex = new ChunkDensityIndex(this);
+        new EntityTracker(this);
+        entityCensus = new EntityCensus(this);
+        bypassCache = new BypassCache(this);
+
         // Initialize TPS monitor
         if (configManager.isTpsMonitoring()) {
             getLogger().info("Starting TPS monitor...");
@@ -76,6 +122,15 @@ public class KaizenClear extends JavaPlugin {
             tpsMonitor.startMonitoring();
         }
 
+        // Attribute tick time to entity types and chunks (no single server tick on Folia)
+        if (configManager.isProfilerEnabled() && !taskScheduler.isFolia()) {
+            TickRecorder tickRecorder = tpsMonitor != null ? tpsMonitor.getTickRecorder() : new TickRecorder(this);
+            lagProfiler = new LagProfiler(this, tickRecorder);
+        }
+
+        // Watch GC pauses and heap occupancy after collections
+        gcMonitor = new GcMonitor(this);
+
         // Initialize cleanup manager
         getLogger().info("Initializing cleanup manager...");
         cleanupManager = new CleanupManager(this);
@@ -83,6 +138,15 @@ public class KaizenClear extends JavaPlugin {
             cleanupManager.startScheduler();
         }
 
+        // Run cleanups from cleanup.conditions
+        conditionEngine = new ConditionEngine(this);
+
+        // Expire items on the tick their lifetime ends
+        refreshItemExpiry();
+
+        // Trim chunks that cross their entity caps
+        refreshChunkCaps();
+
         // Initialize GUI manager
         if (configManager.isGuiEnabled()) {
             getLogger().info("Initializing GUI manager...");
@@ -101,10 +165,26 @@ public class KaizenClear extends JavaPlugin {
             databaseManager = new DatabaseManager(this);
             if (databaseManager.connect()) {
                 databaseManager.createSchema();
-                statisticsManager = new StatisticsManager(this);
-                getLogger().info("Statistics manager initialized");
             } else {
-                getLogger().warning("Failed to connect to database, continuing without database support");
+                getLogger().warning("Failed to connect to database, statistics will be "
+                        + (configManager.isDatabaseSpoolEnabled() ? "spooled" : "dropped") + " until it is reachable");
+            }
+            // The writer keeps retrying the connection
+            statisticsManager = new StatisticsManager(this);
+            getLogger().info("Statistics manager initialized");
+            if (databaseManager.getType() == DatabaseManager.DatabaseType.MYSQL && configManager.isRollupEnabled()) {
+                statisticsRollup = new StatisticsRollup(this);
+            }
+        } else if (configManager.isHistoryEnabled()) {
+            statisticsManager = new StatisticsManager(this);
+            getLogger().info("Statistics history kept in the data folder");
+        }
+
+        // Serve metrics to Prometheus-compatible scrapers
+        if (configManager.isMetricsEnabled()) {
+            metricsServer = new MetricsServer(this, metrics);
+            if (!metricsServer.start()) {
+                metricsServer = null;
             }
         }
 
@@ -123,8 +203,36 @@ public class KaizenClear extends JavaPlugin {
             guiManager.cancelAllRefreshTasks();
         }
 
+        if (chunkCapManager != null) {
+            chunkCapManager.shutdown();
+        }
+
+        if (gcMonitor != null) {
+            gcMonitor.shutdown();
+        }
+
+        if (metricsServer != null) {
+            metricsServer.stop();
+        }
+
+        // Record items expired since the last flush
+        if (itemExpiryManager != null) {
+            itemExpiryManager.shutdown();
+        }
+
         // Cancel any running tasks
-        getServer().getScheduler().cancelTasks(this);
+        if (taskScheduler != null) {
+            taskScheduler.cancelAll();
+        }
+
+        if (statisticsRollup != null) {
+            statisticsRollup.stop();
+        }
+
+        // Write queued statistics while the connection is still open
+        if (statisticsManager != null) {
+            statisticsManager.shutdown();
+        }
 
         // Close database connections
         if (databaseManager != null && databaseManager.isConnected()) {
@@ -135,6 +243,46 @@ public class KaizenClear extends JavaPlugin {
         getLogger().info("KaizenClear disabled successfully");
     }
 
+    /**
+     * Start, stop or re-file the item expiry wheel to match the current config
+     */
+    public void refreshItemExpiry() {
+        boolean wanted = configManager.isItemsEnabled() && configManager.isWheelExpiry();
+        if (wanted && taskScheduler.isFolia()) {
+            getLogger().info("Item expiry wheel is not supported on Folia, using scheduled scans");
+            wanted = false;
+        }
+
+        if (!wanted) {
+            if (itemExpiryManager != null) {
+                itemExpiryManager.shutdown();
+                itemExpiryManager = null;
+            }
+        } else if (itemExpiryManager == null) {
+            getLogger().info("Starting item expiry wheel...");
+            itemExpiryManager = new ItemExpiryManager(this);
+        } else {
+            itemExpiryManager.rescheduleAll();
+        }
+    }
+
+    /**
+     * Start, stop or update chunk cap enforcement to match the current config
+     */
+    public void refreshChunkCaps() {
+        if (!configManager.isChunkCapsActive()) {
+            if (chunkCapManager != null) {
+                chunkCapManager.shutdown();
+                chunkCapManager = null;
+            }
+        } else if (chunkCapManager == null) {
+            getLogger().info("Starting chunk cap enforcement...");
+            chunkCapManager = new ChunkCapManager(this);
+        } else {
+            chunkCapManager.reload();
+        }
+    }
+
     public static KaizenClear getInstance() {
         return instance;
     }
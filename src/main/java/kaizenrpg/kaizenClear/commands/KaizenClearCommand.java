@@ -1,9 +1,21 @@
 package kaizenrpg.kaizenClear.commands;
 
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.database.LocalStatisticsStore;
+import kaizenrpg.kaizenClear.database.StatisticsManager;
 import kaizenrpg.kaizenClear.managers.CleanupManager;
 import kaizenrpg.kaizenClear.managers.TPSMonitor;
+import kaizenrpg.kaizenClear.monitoring.GcMonitor;
+import kaizenrpg.kaizenClear.monitoring.LagProfiler;
+import kaizenrpg.kaizenClear.monitoring.ResponseLadder;
+import kaizenrpg.kaizenClear.monitoring.ResponseTier;
+import kaizenrpg.kaizenClear.monitoring.TickDurationHistogram;
+import kaizenrpg.kaizenClear.monitoring.TickRecorder;
+import kaizenrpg.kaizenClear.monitoring.TrendForecaster;
 import kaizenrpg.kaizenClear.scanners.EntityScanner;
+import kaizenrpg.kaizenClear.tracking.BypassCache;
+import kaizenrpg.kaizenClear.tracking.ItemExpiryManager;
+import kaizenrpg.kaizenClear.util.DoubleRingBuffer;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.command.Command;
@@ -14,9 +26,12 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class KaizenClearCommand implements CommandExecutor, TabCompleter {
@@ -78,12 +93,33 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
                 return handleTPS(sender);
             }
 
+            case "profile" -> {
+                if (!sender.hasPermission("kaizenclear.commands")) {
+                    sender.sendMessage("§cYou don't have permission to use this command!");
+                    return true;
+                }
+                return handleProfile(sender);
+            }
+
+            case "history" -> {
+                if (!sender.hasPermission("kaizenclear.commands")) {
+                    sender.sendMessage("§cYou don't have permission to use this command!");
+                    return true;
+                }
+                return handleHistory(sender, args);
+            }
+
             case "reload" -> {
                 if (!sender.hasPermission("kaizenclear.admin")) {
                     sender.sendMessage("§cYou don't have permission to use this command!");
                     return true;
                 }
                 plugin.getConfigManager().reloadConfig();
+                if (plugin.getBypassCache() != null) {
+                    plugin.getBypassCache().reload();
+                }
+                plugin.refreshItemExpiry();
+                plugin.refreshChunkCaps();
                 sender.sendMessage("§a[KaizenClear] Configuration reloaded successfully!");
                 return true;
             }
@@ -121,38 +157,32 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
 
         sender.sendMessage("§e[KaizenClear] Starting cleanup...");
 
-        int removed = 0;
+        List<World> worlds = targetWorld != null ? List.of(targetWorld) : Bukkit.getWorlds();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
         switch (type) {
             case "items" -> {
                 // Manual clear = force clear (ignores age check)
-                if (targetWorld != null) {
-                    removed = cleanupManager.forceCleanupItems(targetWorld);
-                } else {
-                    for (World world : Bukkit.getWorlds()) {
-                        removed += cleanupManager.forceCleanupItems(world);
-                    }
+                for (World world : worlds) {
+                    results.add(cleanupManager.forceCleanupItems(world));
                 }
             }
             case "clusters" -> {
-                if (targetWorld != null) {
-                    removed = cleanupManager.cleanupItemClusters(targetWorld);
-                } else {
-                    for (World world : Bukkit.getWorlds()) {
-                        removed += cleanupManager.cleanupItemClusters(world);
-                    }
+                for (World world : worlds) {
+                    results.add(cleanupManager.cleanupItemClusters(world));
                 }
             }
-            case "all" -> {
-                cleanupManager.emergencyCleanup();
-                removed = cleanupManager.getLastCleanupCount();
-            }
+            case "all" -> results.add(cleanupManager.emergencyCleanup());
             default -> {
                 sender.sendMessage("§cInvalid cleanup type. Use: items, clusters, or all");
                 return true;
             }
         }
 
-        sender.sendMessage("§a[KaizenClear] Cleanup complete! Removed " + removed + " entities.");
+        // On Folia the regions finish on their own threads, report once all are done
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).thenRun(() -> {
+            int removed = results.stream().mapToInt(CompletableFuture::join).sum();
+            sender.sendMessage("§a[KaizenClear] Cleanup complete! Removed " + removed + " entities.");
+        });
         return true;
     }
 
@@ -175,6 +205,18 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage("§6║ §eCleanup: §f" + cleanupManager.getCleanupStats());
         }
 
+        ItemExpiryManager expiryManager = plugin.getItemExpiryManager();
+        if (expiryManager != null) {
+            sender.sendMessage("§6║ §eExpiry: §f" + expiryManager.getScheduledCount() + " scheduled, "
+                    + expiryManager.getDueCount() + " due, " + expiryManager.getTotalExpired() + " expired");
+        }
+
+        BypassCache bypassCache = plugin.getBypassCache();
+        if (bypassCache != null) {
+            sender.sendMessage("§6║ §eBypass: §f" + bypassCache.size() + " players, "
+                    + bypassCache.getHits() + " hits / " + bypassCache.getMisses() + " misses");
+        }
+
         sender.sendMessage("§6╚══════════════════════════════════════╝");
         return true;
     }
@@ -189,9 +231,126 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§6═══════ §eTPS Information §6═══════");
         sender.sendMessage("§eCurrent TPS: " + tpsMonitor.getFormattedTPS());
         sender.sendMessage("§eAverage TPS: §f" + String.format("%.2f", tpsMonitor.getAverageTPS()));
+        DoubleRingBuffer.Stats history = tpsMonitor.getTpsStats();
+        if (history.getCount() > 0) {
+            sender.sendMessage(String.format("§eTPS Range: §f%.2f - %.2f §7(trend %.2f, %d samples)",
+                    history.getMin(), history.getMax(), history.getEwma(), history.getCount()));
+        }
         sender.sendMessage("§eMemory Usage: §f" + tpsMonitor.getFormattedMemory());
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        if (gcMonitor != null) {
+            sender.sendMessage(String.format("§eGC: §f%d pauses, %.0fms paused §7(last minute) §f| alloc %.1f MB/s | old gen after GC %.0f%%",
+                    gcMonitor.getPausesPerMinute(), gcMonitor.getPauseMillisPerMinute(), gcMonitor.getAllocationRate(),
+                    gcMonitor.getOldGenOccupancy()));
+        }
         sender.sendMessage("§eTotal Entities: §f" + tpsMonitor.getEntityCount());
         sender.sendMessage("§eLoaded Chunks: §f" + tpsMonitor.getChunkCount());
+
+        TickRecorder tickRecorder = tpsMonitor.getTickRecorder();
+        if (tickRecorder != null) {
+            for (int window = TickRecorder.FIVE_SECONDS; window <= TickRecorder.FIVE_MINUTES; window++) {
+                TickDurationHistogram.Snapshot mspt = tickRecorder.getSnapshot(window);
+                if (mspt.getTicks() == 0) continue;
+                sender.sendMessage(String.format("§eMSPT %s: §fp50 %.1f §7| §fp95 %.1f §7| §fp99 %.1f §7| §fmax %.1f",
+                        TickRecorder.getWindowName(window), mspt.getP50(), mspt.getP95(), mspt.getP99(), mspt.getMax()));
+            }
+        }
+
+        ResponseLadder ladder = tpsMonitor.getResponseLadder();
+        if (ladder != null) {
+            ResponseTier tier = ladder.getCurrentTier();
+            sender.sendMessage("§eResponse Tier: §f" + (tier == null ? "normal" : tier.getName())
+                    + " §7(" + ladder.getLevel() + "/" + ladder.getTierCount() + ")");
+        }
+
+        TrendForecaster forecaster = tpsMonitor.getForecaster();
+        if (forecaster != null) {
+            sender.sendMessage(String.format("§eMSPT Forecast: §f%.1fms §7(hits %d, false alarms %d, misses %d)",
+                    forecaster.getLastForecast(), forecaster.getHits(), forecaster.getFalseAlarms(), forecaster.getMisses()));
+        }
+        return true;
+    }
+
+    private boolean handleProfile(CommandSender sender) {
+        LagProfiler profiler = plugin.getLagProfiler();
+        if (profiler == null) {
+            sender.sendMessage("§cThe lag profiler is disabled (or not supported on Folia)!");
+            return true;
+        }
+        if (!profiler.isReady()) {
+            sender.sendMessage("§e[KaizenClear] Still collecting samples (" + profiler.getSamples() + " so far), try again in a few minutes.");
+            return true;
+        }
+
+        sender.sendMessage("§6═══════ §eLag Sources §6═══════");
+        sender.sendMessage(String.format("§eBaseline: §f%.2fms/tick §7(not explained by entities)", profiler.getBaseline()));
+        for (LagProfiler.CategoryCost cost : profiler.getCategoryCosts()) {
+            if (cost.getMillis() <= 0) continue;
+            sender.sendMessage(String.format("§e%s: §f%.2fms/tick §7(%d entities, %.1fµs each)",
+                    cost.getCategory().name().toLowerCase(), cost.getMillis(), cost.getEntities(), cost.getMillisPerEntity() * 1000));
+        }
+
+        List<LagProfiler.ChunkCost> chunks = profiler.getTopChunks(5);
+        if (!chunks.isEmpty()) {
+            sender.sendMessage("§6Most expensive chunks:");
+            for (LagProfiler.ChunkCost chunk : chunks) {
+                sender.sendMessage(String.format("§e%s %d, %d: §f%.2fms/tick §7(%d entities, mostly %s)",
+                        chunk.getWorld().getName(), chunk.getX(), chunk.getZ(), chunk.getMillis(), chunk.getEntities(),
+                        chunk.getTopCategory().name().toLowerCase()));
+            }
+        }
+        sender.sendMessage("§7Estimates from " + profiler.getSamples() + " samples of MSPT against entity counts");
+        return true;
+    }
+
+    private boolean handleHistory(CommandSender sender, String[] args) {
+        StatisticsManager statisticsManager = plugin.getStatisticsManager();
+        LocalStatisticsStore store = statisticsManager == null ? null : statisticsManager.getLocalStore();
+        if (store == null) {
+            sender.sendMessage("§cLocal history is only kept with database type none and history enabled!");
+            return true;
+        }
+
+        int hours = 24;
+        if (args.length > 1) {
+            try {
+                hours = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                hours = -1;
+            }
+            if (hours <= 0) {
+                sender.sendMessage("§cInvalid number of hours: " + args[1]);
+                return true;
+            }
+        }
+
+        // Older ranges decode segment files, keep that off the server thread
+        int period = hours;
+        long now = System.currentTimeMillis();
+        plugin.getTaskScheduler().runAsync(() -> {
+            LocalStatisticsStore.History history;
+            try {
+                history = store.query(now - TimeUnit.HOURS.toMillis(period), now);
+            } catch (IOException e) {
+                sender.sendMessage("§cFailed to read history: " + e.getMessage());
+                return;
+            }
+
+            sender.sendMessage("§6═══════ §eHistory (last " + period + "h) §6═══════");
+            if (history.getSamples() == 0) {
+                sender.sendMessage("§7No server samples recorded in this period");
+            } else {
+                sender.sendMessage(String.format("§eTPS: §fmin %.2f §7| §favg %.2f §7| §fmax %.2f §7(%d samples)",
+                        history.getMinTps(), history.getAvgTps(), history.getMaxTps(), history.getSamples()));
+                sender.sendMessage("§ePeak Entities: §f" + history.getMaxEntities() + " §7| §ePeak Chunks: §f" + history.getMaxChunks());
+                sender.sendMessage("§ePeak Memory: §f" + history.getMaxMemoryUsed() / (1024 * 1024) + "MB / "
+                        + history.getMemoryMax() / (1024 * 1024) + "MB");
+            }
+            String byType = history.getRemovedByType().entrySet().stream()
+                    .map(entry -> entry.getKey() + " " + entry.getValue())
+                    .collect(Collectors.joining(", "));
+            sender.sendMessage("§eRemoved: §f" + history.getRemoved() + (byType.isEmpty() ? "" : " §7(" + byType + ")"));
+        });
         return true;
     }
 
@@ -204,6 +363,8 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage("§6║   §7Types: items, clusters, all");
         sender.sendMessage("§6║ §e/kc info §7- Show statistics");
         sender.sendMessage("§6║ §e/kc tps §7- Show TPS information");
+        sender.sendMessage("§6║ §e/kc profile §7- Show what costs tick time");
+        sender.sendMessage("§6║ §e/kc history [hours] §7- Show past statistics");
         sender.sendMessage("§6║ §e/kc reload §7- Reload configuration");
         sender.sendMessage("§6║ §e/kc help §7- Show this help");
         sender.sendMessage("§6╚══════════════════════════════════════╝");
@@ -214,7 +375,7 @@ public class KaizenClearCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("gui", "clear", "info", "tps", "reload", "help"));
+            completions.addAll(Arrays.asList("gui", "clear", "info", "tps", "profile", "history", "reload", "help"));
         } else if (args.length == 2 && args[0].equalsIgnoreCase("clear")) {
             completions.addAll(Arrays.asList("items", "clusters", "all"));
         } else if (args.length == 3 && args[0].equalsIgnoreCase("clear")) {
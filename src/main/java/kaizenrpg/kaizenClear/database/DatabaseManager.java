@@ -28,7 +28,7 @@ public class DatabaseManager {
     private MongoClient mongoClient;
     private MongoDatabase mongoDatabase;
 
-    private boolean connected = false;
+    private volatile boolean connected = false;
 
     public DatabaseManager(KaizenClear plugin) {
         this.plugin = plugin;
@@ -65,6 +65,44 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Try to connect again after {@link #connect()} failed, without reporting
+     * each failure; the schema is created once connected
+     * @return true if connected
+     */
+    public boolean reconnect() {
+        if (type == DatabaseType.NONE || connected) return connected;
+
+        // A failed attempt can leave a half-open client behind
+        closeClients();
+        try {
+            switch (type) {
+                case MYSQL -> connectMySQL();
+                case MONGODB -> connectMongoDB();
+            }
+        } catch (Exception e) {
+            closeClients();
+            return false;
+        }
+
+        connected = true;
+        plugin.getLogger().info("Reconnected to " + type.name() + " database");
+        createSchema();
+        return true;
+    }
+
+    private void closeClients() {
+        if (hikariDataSource != null) {
+            hikariDataSource.close();
+            hikariDataSource = null;
+        }
+        if (mongoClient != null) {
+            mongoClient.close();
+            mongoClient = null;
+            mongoDatabase = null;
+        }
+    }
+
     /**
      * Initialize MySQL connection pool
      */
@@ -92,7 +130,9 @@ public class DatabaseManager {
         hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
+        // Client-side statements, so the driver can rewrite statistics batches into multi-row inserts
+        hikariConfig.addDataSourceProperty("useServerPrepStmts", "false");
+        hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
 
         // Connection test
         hikariConfig.setConnectionTestQuery("SELECT 1");
@@ -193,6 +233,49 @@ public class DatabaseManager {
                     )
                     """);
 
+            // Rollups of server_stats per minute, hour and day (see StatisticsRollup)
+            for (String resolution : new String[]{"minute", "hour", "day"}) {
+                stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS server_stats_%s (
+                            server_name VARCHAR(100) NOT NULL,
+                            bucket TIMESTAMP NOT NULL,
+                            samples INT NOT NULL,
+                            tps_min DOUBLE NOT NULL,
+                            tps_avg DOUBLE NOT NULL,
+                            tps_max DOUBLE NOT NULL,
+                            entity_max INT NOT NULL,
+                            chunk_max INT NOT NULL,
+                            memory_used_max BIGINT NOT NULL,
+                            memory_max BIGINT NOT NULL,
+                            PRIMARY KEY (server_name, bucket),
+                            INDEX idx_bucket (bucket)
+                        )
+                        """.formatted(resolution));
+
+                stmt.execute("""
+                        CREATE TABLE IF NOT EXISTS cleanup_stats_%s (
+                            server_name VARCHAR(100) NOT NULL,
+                            world_name VARCHAR(100) NOT NULL,
+                            cleanup_type VARCHAR(50) NOT NULL,
+                            bucket TIMESTAMP NOT NULL,
+                            cleanups INT NOT NULL,
+                            entities_removed BIGINT NOT NULL,
+                            PRIMARY KEY (server_name, world_name, cleanup_type, bucket),
+                            INDEX idx_server_bucket (server_name, bucket)
+                        )
+                        """.formatted(resolution));
+            }
+
+            // Last raw row id rolled up per server and table
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS stats_rollup_state (
+                        server_name VARCHAR(100) NOT NULL,
+                        source_table VARCHAR(50) NOT NULL,
+                        last_id BIGINT NOT NULL,
+                        PRIMARY KEY (server_name, source_table)
+                    )
+                    """);
+
             // Configuration table (for multi-server sync)
             stmt.execute("""
                     CREATE TABLE IF NOT EXISTS plugin_config (
@@ -252,7 +335,7 @@ public class DatabaseManager {
     public void executeUpdateAsync(String sql, Object... params) {
         if (type != DatabaseType.MYSQL) return;
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+        plugin.getTaskScheduler().runAsync(() -> {
             try (Connection conn = getConnection();
                  PreparedStatement stmt = conn.prepareStatement(sql)) {
 
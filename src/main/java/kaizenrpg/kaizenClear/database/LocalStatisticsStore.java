@@ -0,0 +1,202 @@
+package kaizenrpg.kaizenClear.database;
+
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics history for servers without a database: server_stats and
+ * cleanup_stats rows at full resolution in two {@link TimeSeries} under
+ * {@code history/} in the data folder. When both together grow past the
+ * configured size, the oldest segments are deleted.
+ *
+ * TPS is stored in hundredths. Cleanup samples refer to their world and
+ * cleanup type by id into {@code names.txt}, one name per line.
+ *
+ * Written by the statistics writer thread. The last 24 hours are summarized
+ * at most once a minute after a write, so the GUI can show them without
+ * touching the disk and flushes don't keep decoding the same segments.
+ */
+public class LocalStatisticsStore implements Closeable {
+
+    private static final long RECENT = TimeUnit.HOURS.toMillis(24);
+    private static final long RECENT_REFRESH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+    private static final double TPS_SCALE = 100.0;
+
+    // Server columns
+    private static final int TPS = 0;
+    private static final int ENTITIES = 1;
+    private static final int CHUNKS = 2;
+    private static final int MEMORY_USED = 3;
+    private static final int MEMORY_MAX = 4;
+
+    // Cleanup columns
+    private static final int WORLD = 0;
+    private static final int TYPE = 1;
+    private static final int REMOVED = 2;
+
+    private final TimeSeries server;
+    private final TimeSeries cleanup;
+    private final long maxBytes;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final BufferedWriter namesOut;
+    private volatile History recent;
+    private long recentRefreshed;
+
+    /**
+     * Open or create the history in a directory
+     * @param maxBytes disk space both series may use together
+     */
+    public LocalStatisticsStore(File directory, long maxBytes) throws IOException {
+        this.server = new TimeSeries(new File(directory, "server"), 5);
+        this.cleanup = new TimeSeries(new File(directory, "cleanup"), 3);
+        this.maxBytes = maxBytes;
+        File namesFile = new File(directory, "names.txt");
+
+        if (namesFile.isFile()) {
+            for (String name : Files.readAllLines(namesFile.toPath(), StandardCharsets.UTF_8)) {
+                ids.putIfAbsent(name, names.size());
+                names.add(name);
+            }
+        }
+        this.namesOut = Files.newBufferedWriter(namesFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        refreshRecent();
+    }
+
+    void append(StatisticsRow.Server row) throws IOException {
+        server.append(row.timestamp, Math.round(row.tps * TPS_SCALE), row.entityCount, row.chunkCount,
+                row.memoryUsed, row.memoryMax);
+    }
+
+    void append(StatisticsRow.Cleanup row) throws IOException {
+        cleanup.append(row.timestamp, id(row.world), id(row.type), row.removed);
+    }
+
+    /**
+     * Finish a batch of appends: hand them to the operating system, keep the
+     * size limit and summarize the last 24 hours again if that is due
+     */
+    void flush() throws IOException {
+        server.flush();
+        cleanup.flush();
+        namesOut.flush();
+
+        // Whichever series holds the oldest sealed segment gives it up first
+        while (server.getDiskUsage() + cleanup.getDiskUsage() > maxBytes) {
+            TimeSeries oldest = server.getOldestSealed() <= cleanup.getOldestSealed() ? server : cleanup;
+            if (!oldest.deleteOldest()) break;
+        }
+
+        if (System.currentTimeMillis() - recentRefreshed >= RECENT_REFRESH_INTERVAL) {
+            refreshRecent();
+        }
+    }
+
+    /**
+     * Summary of the last 24 hours, up to a minute old
+     */
+    public History getRecent() {
+        return recent;
+    }
+
+    /**
+     * Summarize server and cleanup statistics between two times in epoch milliseconds
+     */
+    public History query(long from, long to) throws IOException {
+        TimeSeries.Summary serverSummary = server.summarize(from, to);
+
+        Map<Integer, Long> removedByTypeId = new HashMap<>();
+        cleanup.scan(from, to, (timestamp, values) ->
+                removedByTypeId.merge((int) values[TYPE], values[REMOVED], Long::sum));
+
+        Map<String, Long> removedByType = new LinkedHashMap<>();
+        long removed = 0;
+        synchronized (names) {
+            for (Map.Entry<Integer, Long> entry : removedByTypeId.entrySet()) {
+                String type = entry.getKey() < names.size() ? names.get(entry.getKey()) : "unknown";
+                removedByType.merge(type, entry.getValue(), Long::sum);
+                removed += entry.getValue();
+            }
+        }
+        return new History(from, to, serverSummary, removed, removedByType);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            server.close();
+            cleanup.close();
+        } finally {
+            namesOut.close();
+        }
+    }
+
+    private int id(String name) throws IOException {
+        synchronized (names) {
+            Integer id = ids.get(name);
+            if (id != null) return id;
+
+            id = names.size();
+            names.add(name);
+            ids.put(name, id);
+            namesOut.write(name);
+            namesOut.newLine();
+            return id;
+        }
+    }
+
+    private void refreshRecent() throws IOException {
+        long now = System.currentTimeMillis();
+        recent = query(now - RECENT, now);
+        recentRefreshed = now;
+    }
+
+    /**
+     * Statistics over a period of time
+     */
+    @Getter
+    public static class History {
+        private final long from;
+        private final long to;
+        private final long samples;
+        private final double minTps;
+        private final double avgTps;
+        private final double maxTps;
+        private final long maxEntities;
+        private final long maxChunks;
+        private final long maxMemoryUsed;
+        private final long memoryMax;
+        private final long removed;
+        private final Map<String, Long> removedByType;
+
+        History(long from, long to, TimeSeries.Summary server, long removed, Map<String, Long> removedByType) {
+            this.from = from;
+            this.to = to;
+            this.samples = server.getCount();
+            boolean empty = samples == 0;
+            this.minTps = empty ? 0 : server.getMin(TPS) / TPS_SCALE;
+            this.avgTps = server.getMean(TPS) / TPS_SCALE;
+            this.maxTps = empty ? 0 : server.getMax(TPS) / TPS_SCALE;
+            this.maxEntities = empty ? 0 : server.getMax(ENTITIES);
+            this.maxChunks = empty ? 0 : server.getMax(CHUNKS);
+            this.maxMemoryUsed = empty ? 0 : server.getMax(MEMORY_USED);
+            this.memoryMax = empty ? 0 : server.getMax(MEMORY_MAX);
+            this.removed = removed;
+            this.removedByType = removedByType;
+        }
+    }
+}
@@ -2,141 +2,119 @@ package kaizenrpg.kaizenClear.database;
 
 import com.mongodb.client.MongoCollection;
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.jfr.DatabaseWriteEvent;
+import kaizenrpg.kaizenClear.metrics.MetricsRegistry;
 import org.bson.Document;
 import org.bukkit.World;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 
 /**
- * Handles statistics persistence to database
+ * Handles statistics persistence to database. Cleanup and server statistics are
+ * queued for the {@link StatisticsWriter}, which writes them in batches. Without
+ * a database they are kept in a {@link LocalStatisticsStore}.
  */
 public class StatisticsManager {
 
+    private static final long SHUTDOWN_TIMEOUT = 10_000L; // ms
+
     private final KaizenClear plugin;
     private final DatabaseManager databaseManager;
-    private final String serverName;
+    private final LocalStatisticsStore localStore;
+    private final StatisticsWriter writer;
 
     public StatisticsManager(KaizenClear plugin) {
         this.plugin = plugin;
         this.databaseManager = plugin.getDatabaseManager();
-        this.serverName = plugin.getServer().getName();
+        this.localStore = databaseManager == null ? openLocalStore() : null;
+        this.writer = new StatisticsWriter(plugin, databaseManager, localStore, plugin.getConfigManager().getDatabaseServerId());
+    }
+
+    private LocalStatisticsStore openLocalStore() {
+        File directory = new File(plugin.getKaizenDataFolder(), "history");
+        try {
+            return new LocalStatisticsStore(directory, plugin.getConfigManager().getHistoryMaxSize() * 1024L * 1024L);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to open statistics history in " + directory.getPath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The local statistics history, or null when statistics go to a database
+     */
+    public LocalStatisticsStore getLocalStore() {
+        return localStore;
     }
 
     /**
      * Save cleanup statistics to database
      */
     public void saveCleanupStats(World world, String cleanupType, int entitiesRemoved) {
-        if (databaseManager == null || !databaseManager.isConnected()) {
+        // The writer spools rows while the database is unreachable
+        if (databaseManager == null && localStore == null) {
             return;
         }
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                switch (databaseManager.getType()) {
-                    case MYSQL -> saveCleanupStatsMySQL(world.getName(), cleanupType, entitiesRemoved);
-                    case MONGODB -> saveCleanupStatsMongoDB(world.getName(), cleanupType, entitiesRemoved);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to save cleanup stats: " + e.getMessage());
-            }
-        });
+        writer.offer(new StatisticsRow.Cleanup(world.getName(), cleanupType, entitiesRemoved,
+                System.currentTimeMillis(), System.nanoTime()));
     }
 
     /**
      * Save server performance statistics
      */
     public void saveServerStats(double tps, int entityCount, int chunkCount, long memoryUsed, long memoryMax) {
-        if (databaseManager == null || !databaseManager.isConnected()) {
+        // The writer spools rows while the database is unreachable
+        if (databaseManager == null && localStore == null) {
             return;
         }
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                switch (databaseManager.getType()) {
-                    case MYSQL -> saveServerStatsMySQL(tps, entityCount, chunkCount, memoryUsed, memoryMax);
-                    case MONGODB -> saveServerStatsMongoDB(tps, entityCount, chunkCount, memoryUsed, memoryMax);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to save server stats: " + e.getMessage());
-            }
-        });
+        writer.offer(new StatisticsRow.Server(tps, entityCount, chunkCount, memoryUsed, memoryMax,
+                System.currentTimeMillis(), System.nanoTime()));
     }
 
     /**
-     * Save cleanup stats to MySQL
+     * Write the queued statistics and stop the writer; call before disconnecting
      */
-    private void saveCleanupStatsMySQL(String worldName, String cleanupType, int entitiesRemoved) throws SQLException {
-        String sql = "INSERT INTO cleanup_stats (server_name, world_name, cleanup_type, entities_removed, timestamp) VALUES (?, ?, ?, ?, ?)";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, serverName);
-            stmt.setString(2, worldName);
-            stmt.setString(3, cleanupType);
-            stmt.setInt(4, entitiesRemoved);
-            stmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
-
-            stmt.executeUpdate();
-        }
-    }
-
-    /**
-     * Save cleanup stats to MongoDB
-     */
-    private void saveCleanupStatsMongoDB(String worldName, String cleanupType, int entitiesRemoved) {
-        MongoCollection<Document> collection = databaseManager.getMongoDatabase().getCollection("cleanup_stats");
-
-        Document doc = new Document()
-                .append("server_name", serverName)
-                .append("world_name", worldName)
-                .append("cleanup_type", cleanupType)
-                .append("entities_removed", entitiesRemoved)
-                .append("timestamp", new java.util.Date());
-
-        collection.insertOne(doc);
-    }
-
-    /**
-     * Save server stats to MySQL
-     */
-    private void saveServerStatsMySQL(double tps, int entityCount, int chunkCount, long memoryUsed, long memoryMax) throws SQLException {
-        String sql = "INSERT INTO server_stats (server_name, tps, entity_count, chunk_count, memory_used, memory_max, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-        try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, serverName);
-            stmt.setDouble(2, tps);
-            stmt.setInt(3, entityCount);
-            stmt.setInt(4, chunkCount);
-            stmt.setLong(5, memoryUsed);
-            stmt.setLong(6, memoryMax);
-            stmt.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
-
-            stmt.executeUpdate();
+    public void shutdown() {
+        writer.shutdown(SHUTDOWN_TIMEOUT);
+        if (localStore != null) {
+            try {
+                localStore.close();
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to close statistics history: " + e.getMessage());
+            }
         }
     }
 
     /**
-     * Save server stats to MongoDB
+     * Run a write on the async scheduler, tracking it in the database metrics
      */
-    private void saveServerStatsMongoDB(double tps, int entityCount, int chunkCount, long memoryUsed, long memoryMax) {
-        MongoCollection<Document> collection = databaseManager.getMongoDatabase().getCollection("server_stats");
-
-        Document doc = new Document()
-                .append("server_name", serverName)
-                .append("tps", tps)
-                .append("entity_count", entityCount)
-                .append("chunk_count", chunkCount)
-                .append("memory_used", memoryUsed)
-                .append("memory_max", memoryMax)
-                .append("timestamp", new java.util.Date());
-
-        collection.insertOne(doc);
+    private void submit(String description, Write write) {
+        MetricsRegistry metrics = plugin.getMetrics();
+        long submitted = System.nanoTime();
+        metrics.getDbQueueDepth().incrementAndGet();
+
+        plugin.getTaskScheduler().runAsync(() -> {
+            DatabaseWriteEvent event = new DatabaseWriteEvent();
+            event.begin();
+            long queued = System.nanoTime() - submitted;
+            boolean succeeded = false;
+            try {
+                write.run();
+                succeeded = true;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to save " + description + ": " + e.getMessage());
+            } finally {
+                metrics.getDbQueueDepth().decrementAndGet();
+                metrics.getDbWriteDuration().observe((System.nanoTime() - submitted) / 1e9);
+                event.finish(databaseManager.getType().name(), description, succeeded, queued);
+            }
+        });
     }
 
     /**
@@ -147,14 +125,10 @@ public class StatisticsManager {
             return;
         }
 
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                switch (databaseManager.getType()) {
-                    case MYSQL -> saveConfigMySQL(key, value);
-                    case MONGODB -> saveConfigMongoDB(key, value);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to save config: " + e.getMessage());
+        submit("config", () -> {
+            switch (databaseManager.getType()) {
+                case MYSQL -> saveConfigMySQL(key, value);
+                case MONGODB -> saveConfigMongoDB(key, value);
             }
         });
     }
@@ -190,4 +164,9 @@ public class StatisticsManager {
 
         collection.updateOne(filter, update, new com.mongodb.client.model.UpdateOptions().upsert(true));
     }
+
+    @FunctionalInterface
+    private interface Write {
+        void run() throws Exception;
+    }
 }
@@ -0,0 +1,279 @@
+package kaizenrpg.kaizenClear.database;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aggregates the raw MySQL statistics tables into minute, hour and day tables
+ * and deletes rows past their retention.
+ *
+ * Each server only touches its own rows, found by {@code database.server-id}.
+ * New raw rows are found by id, above a watermark kept per server and table in
+ * {@code stats_rollup_state}, and merged into all three resolutions in the same
+ * transaction that advances the watermark, so rows replayed late from the spool
+ * are still counted, and counted once. The watermark row is locked for each
+ * chunk, so two rollups under the same id wait for each other instead of
+ * merging the same rows twice. Work is done in chunks of a few thousand rows
+ * with separate transactions, and deletes run with a LIMIT and a pause in
+ * between, so no statement holds locks for long.
+ *
+ * Raw rows are only deleted once they were rolled up.
+ */
+public class StatisticsRollup {
+
+    private static final int ROLLUP_CHUNK = 5000;
+    private static final int DELETE_CHUNK = 1000;
+    private static final long DELETE_PAUSE = 100L; // ms between delete chunks
+    private static final long STOP_TIMEOUT = 5_000L; // ms
+
+    private static final String[] RESOLUTIONS = {"minute", "hour", "day"};
+    private static final long[] RESOLUTION_SECONDS = {60, 3600, 86400};
+
+    private static final String SERVER_ROLLUP_SQL = """
+            INSERT INTO server_stats_%s (server_name, bucket, samples, tps_min, tps_avg, tps_max, entity_max, chunk_max, memory_used_max, memory_max)
+            SELECT server_name, FROM_UNIXTIME(UNIX_TIMESTAMP(timestamp) DIV %d * %d) AS bucket, COUNT(*), MIN(tps), AVG(tps), MAX(tps),
+                   MAX(entity_count), MAX(chunk_count), MAX(memory_used), MAX(memory_max)
+            FROM server_stats WHERE server_name = ? AND id > ? AND id <= ?
+            GROUP BY server_name, bucket
+            ON DUPLICATE KEY UPDATE
+                tps_min = LEAST(tps_min, VALUES(tps_min)),
+                tps_max = GREATEST(tps_max, VALUES(tps_max)),
+                tps_avg = (tps_avg * samples + VALUES(tps_avg) * VALUES(samples)) / (samples + VALUES(samples)),
+                samples = samples + VALUES(samples),
+                entity_max = GREATEST(entity_max, VALUES(entity_max)),
+                chunk_max = GREATEST(chunk_max, VALUES(chunk_max)),
+                memory_used_max = GREATEST(memory_used_max, VALUES(memory_used_max)),
+                memory_max = GREATEST(memory_max, VALUES(memory_max))
+            """;
+
+    private static final String CLEANUP_ROLLUP_SQL = """
+            INSERT INTO cleanup_stats_%s (server_name, world_name, cleanup_type, bucket, cleanups, entities_removed)
+            SELECT server_name, world_name, cleanup_type, FROM_UNIXTIME(UNIX_TIMESTAMP(timestamp) DIV %d * %d) AS bucket,
+                   COUNT(*), SUM(entities_removed)
+            FROM cleanup_stats WHERE server_name = ? AND id > ? AND id <= ?
+            GROUP BY server_name, world_name, cleanup_type, bucket
+            ON DUPLICATE KEY UPDATE
+                cleanups = cleanups + VALUES(cleanups),
+                entities_removed = entities_removed + VALUES(entities_removed)
+            """;
+
+    private final KaizenClear plugin;
+    private final DatabaseManager databaseManager;
+    private final String serverName;
+    private final AtomicBoolean busy = new AtomicBoolean();
+    private volatile boolean stopped = false;
+
+    public StatisticsRollup(KaizenClear plugin) {
+        this.plugin = plugin;
+        this.databaseManager = plugin.getDatabaseManager();
+        this.serverName = plugin.getConfigManager().getDatabaseServerId();
+
+        long period = TimeUnit.MINUTES.toSeconds(plugin.getConfigManager().getRollupInterval()) * 20L;
+        plugin.getTaskScheduler().runTimer(this::schedule, period, period);
+    }
+
+    /**
+     * Stop between chunks and wait for a run in progress to finish its current
+     * statement, so the connection pool isn't closed under it
+     */
+    public void stop() {
+        stopped = true;
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT;
+        while (busy.get() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(50L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if (busy.get()) {
+            plugin.getLogger().warning("Statistics rollup did not stop within " + STOP_TIMEOUT + "ms");
+        }
+    }
+
+    private void schedule() {
+        if (!databaseManager.isConnected() || busy.get()) return;
+
+        plugin.getTaskScheduler().runAsync(() -> {
+            // Claimed here rather than when scheduling, a task cancelled before it ran can't leave it set
+            if (!busy.compareAndSet(false, true)) return;
+            try {
+                // Checked after claiming, so stop() either waits for this run or it doesn't start
+                if (!stopped) {
+                    run();
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().warning("Failed to roll up statistics: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                busy.set(false);
+            }
+        });
+    }
+
+    /**
+     * Roll up new rows, then apply retention
+     */
+    void run() throws SQLException, InterruptedException {
+        long serverRows = rollup("server_stats", SERVER_ROLLUP_SQL);
+        long cleanupRows = rollup("cleanup_stats", CLEANUP_ROLLUP_SQL);
+
+        ConfigManager config = plugin.getConfigManager();
+        long deleted = 0;
+        deleted += deleteRaw("server_stats", config.getRetentionRaw());
+        deleted += deleteRaw("cleanup_stats", config.getRetentionRaw());
+        int[] retention = {config.getRetentionMinute(), config.getRetentionHour(), config.getRetentionDay()};
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            deleted += deleteRollup("server_stats_" + RESOLUTIONS[i], retention[i]);
+            deleted += deleteRollup("cleanup_stats_" + RESOLUTIONS[i], retention[i]);
+        }
+
+        if (config.isDebugMode() && serverRows + cleanupRows + deleted > 0) {
+            plugin.getLogger().info("Rolled up " + serverRows + " server and " + cleanupRows
+                    + " cleanup rows, deleted " + deleted + " expired rows");
+        }
+    }
+
+    /**
+     * Merge the rows above the watermark into every resolution, one chunk per transaction
+     * @return rows rolled up
+     */
+    private long rollup(String table, String sql) throws SQLException {
+        long total = 0;
+        try (Connection conn = databaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // Make sure there is a row to lock
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT IGNORE INTO stats_rollup_state (server_name, source_table, last_id) VALUES (?, ?, 0)")) {
+                    stmt.setString(1, serverName);
+                    stmt.setString(2, table);
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+
+                while (!stopped) {
+                    long from = readWatermark(conn, table, true);
+                    long to;
+                    int rows;
+                    try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*), MAX(id) FROM (SELECT id FROM " + table
+                            + " WHERE server_name = ? AND id > ? ORDER BY id LIMIT " + ROLLUP_CHUNK + ") chunk")) {
+                        stmt.setString(1, serverName);
+                        stmt.setLong(2, from);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            rs.next();
+                            rows = rs.getInt(1);
+                            to = rs.getLong(2);
+                        }
+                    }
+                    if (rows == 0) {
+                        conn.commit();
+                        break;
+                    }
+
+                    for (int i = 0; i < RESOLUTIONS.length; i++) {
+                        long seconds = RESOLUTION_SECONDS[i];
+                        try (PreparedStatement stmt = conn.prepareStatement(String.format(sql, RESOLUTIONS[i], seconds, seconds))) {
+                            stmt.setString(1, serverName);
+                            stmt.setLong(2, from);
+                            stmt.setLong(3, to);
+                            stmt.executeUpdate();
+                        }
+                    }
+                    writeWatermark(conn, table, to);
+                    conn.commit();
+
+                    total += rows;
+                    if (rows < ROLLUP_CHUNK) break;
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Delete raw rows older than the retention that were already rolled up
+     */
+    private long deleteRaw(String table, int days) throws SQLException, InterruptedException {
+        if (days <= 0) return 0;
+
+        long watermark;
+        try (Connection conn = databaseManager.getConnection()) {
+            watermark = readWatermark(conn, table, false);
+        }
+        return deleteChunked("DELETE FROM " + table + " WHERE server_name = ? AND timestamp < ? AND id <= ? LIMIT " + DELETE_CHUNK,
+                days, watermark);
+    }
+
+    private long deleteRollup(String table, int days) throws SQLException, InterruptedException {
+        if (days <= 0) return 0;
+        return deleteChunked("DELETE FROM " + table + " WHERE server_name = ? AND bucket < ? LIMIT " + DELETE_CHUNK, days, -1);
+    }
+
+    /**
+     * Run a limited delete until it deletes less than a chunk, each chunk in its own autocommit
+     * @param watermark highest id that may be deleted, or -1 if the statement has no id bound
+     */
+    private long deleteChunked(String sql, int days, long watermark) throws SQLException, InterruptedException {
+        Timestamp cutoff = new Timestamp(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days));
+        long total = 0;
+        while (!stopped) {
+            int deleted;
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, serverName);
+                stmt.setTimestamp(2, cutoff);
+                if (watermark >= 0) {
+                    stmt.setLong(3, watermark);
+                }
+                deleted = stmt.executeUpdate();
+            }
+            total += deleted;
+            if (deleted < DELETE_CHUNK) break;
+
+            // Let other writers get the locks in between
+            Thread.sleep(DELETE_PAUSE);
+        }
+        return total;
+    }
+
+    /**
+     * @param lock hold the row until the transaction ends
+     */
+    private long readWatermark(Connection conn, String table, boolean lock) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT last_id FROM stats_rollup_state WHERE server_name = ? AND source_table = ?" + (lock ? " FOR UPDATE" : ""))) {
+            stmt.setString(1, serverName);
+            stmt.setString(2, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void writeWatermark(Connection conn, String table, long lastId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO stats_rollup_state (server_name, source_table, last_id) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE last_id = ?")) {
+            stmt.setString(1, serverName);
+            stmt.setString(2, table);
+            stmt.setLong(3, lastId);
+            stmt.setLong(4, lastId);
+            stmt.executeUpdate();
+        }
+    }
+}
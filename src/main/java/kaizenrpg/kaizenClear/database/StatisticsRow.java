@@ -0,0 +1,51 @@
+package kaizenrpg.kaizenClear.database;
+
+/**
+ * A statistics row on its way to the database
+ */
+abstract class StatisticsRow {
+
+    final long timestamp;
+    final long enqueued; // System.nanoTime() when queued
+
+    StatisticsRow(long timestamp, long enqueued) {
+        this.timestamp = timestamp;
+        this.enqueued = enqueued;
+    }
+
+    /**
+     * Entities removed by one cleanup type in one world
+     */
+    static final class Cleanup extends StatisticsRow {
+        final String world;
+        final String type;
+        final int removed;
+
+        Cleanup(String world, String type, int removed, long timestamp, long enqueued) {
+            super(timestamp, enqueued);
+            this.world = world;
+            this.type = type;
+            this.removed = removed;
+        }
+    }
+
+    /**
+     * One server performance sample
+     */
+    static final class Server extends StatisticsRow {
+        final double tps;
+        final int entityCount;
+        final int chunkCount;
+        final long memoryUsed;
+        final long memoryMax;
+
+        Server(double tps, int entityCount, int chunkCount, long memoryUsed, long memoryMax, long timestamp, long enqueued) {
+            super(timestamp, enqueued);
+            this.tps = tps;
+            this.entityCount = entityCount;
+            this.chunkCount = chunkCount;
+            this.memoryUsed = memoryUsed;
+            this.memoryMax = memoryMax;
+        }
+    }
+}
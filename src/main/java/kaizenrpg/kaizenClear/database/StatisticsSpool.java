@@ -0,0 +1,297 @@
+package kaizenrpg.kaizenClear.database;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * Spool file for statistics rows that could not be written to the database,
+ * replayed once it is reachable again.
+ *
+ * The file is memory-mapped at its maximum size and holds fixed 128-byte
+ * records in a ring after a small header. Read and write positions only grow;
+ * a record lives at its position modulo the capacity, so records are never
+ * moved. When the ring is full the oldest records are dropped.
+ *
+ * The header keeps the positions in two slots, each with a sequence number and
+ * a checksum, and every commit overwrites the older slot: a torn header write
+ * leaves the previous positions intact. Records are forced to disk before the
+ * header that makes them visible, so after a crash the spool holds exactly the
+ * records of its last commit. A spool reopened with a different maximum size is
+ * copied into a fresh file that replaces the old one.
+ *
+ * Only used from the statistics writer thread.
+ */
+class StatisticsSpool implements AutoCloseable {
+
+    static final int RECORD_SIZE = 128;
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x4B435350; // "KCSP"
+    private static final int VERSION = 2;
+
+    // Header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    static final int SLOT_OFFSET = 16;
+    static final int SLOT_SIZE = 24; // sequence, checksum, read, write
+
+    // Record layout
+    private static final byte CLEANUP = 1;
+    private static final byte SERVER = 2;
+    private static final int WORLD_BYTES = 64;
+    private static final int TYPE_BYTES = 32;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private long read;
+    private long write;
+    private int sequence;
+    private long dropped = 0;
+
+    /**
+     * Open or create a spool file
+     * @param maxBytes size of the file, which bounds the number of records
+     */
+    StatisticsSpool(File file, long maxBytes) throws IOException {
+        this.capacity = Math.max(1, (Math.min(maxBytes, Integer.MAX_VALUE) - HEADER_SIZE) / RECORD_SIZE);
+        resize(file);
+
+        this.channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity * RECORD_SIZE);
+
+        long[] positions = hasHeader(buffer) && buffer.getLong(CAPACITY_OFFSET) == capacity
+                ? newestSlot(buffer, capacity) : null;
+        if (positions != null) {
+            read = positions[0];
+            write = positions[1];
+            sequence = (int) positions[2];
+        } else {
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(CAPACITY_OFFSET, capacity);
+            for (int i = SLOT_OFFSET; i < HEADER_SIZE; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            read = 0;
+            write = 0;
+            sequence = 0;
+            commit();
+        }
+    }
+
+    /**
+     * Records waiting to be replayed
+     */
+    long size() {
+        return write - read;
+    }
+
+    boolean isEmpty() {
+        return read == write;
+    }
+
+    /**
+     * Records dropped because the spool was full
+     */
+    long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Add a record; it becomes durable with the next {@link #force()}
+     */
+    void append(StatisticsRow row) {
+        if (!(row instanceof StatisticsRow.Cleanup) && !(row instanceof StatisticsRow.Server)) return;
+
+        if (write - read == capacity) {
+            // Drop the oldest eighth at once and commit that before their slots are reused
+            long drop = Math.max(1, capacity / 8);
+            read += drop;
+            dropped += drop;
+            commit();
+        }
+
+        int offset = recordOffset(write);
+        if (row instanceof StatisticsRow.Cleanup cleanup) {
+            buffer.put(offset, CLEANUP);
+            buffer.putLong(offset + 1, cleanup.timestamp);
+            buffer.putInt(offset + 9, cleanup.removed);
+            putString(offset + 13, cleanup.world, WORLD_BYTES);
+            putString(offset + 14 + WORLD_BYTES, cleanup.type, TYPE_BYTES);
+        } else {
+            StatisticsRow.Server server = (StatisticsRow.Server) row;
+            buffer.put(offset, SERVER);
+            buffer.putLong(offset + 1, server.timestamp);
+            buffer.putDouble(offset + 9, server.tps);
+            buffer.putInt(offset + 17, server.entityCount);
+            buffer.putInt(offset + 21, server.chunkCount);
+            buffer.putLong(offset + 25, server.memoryUsed);
+            buffer.putLong(offset + 33, server.memoryMax);
+        }
+        write++;
+    }
+
+    /**
+     * Read the oldest records without removing them
+     * @return number of records read
+     */
+    int peek(int limit, Collection<StatisticsRow> into) {
+        int count = (int) Math.min(limit, size());
+        long now = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            int offset = recordOffset(read + i);
+            long timestamp = buffer.getLong(offset + 1);
+            if (buffer.get(offset) == CLEANUP) {
+                into.add(new StatisticsRow.Cleanup(getString(offset + 13, WORLD_BYTES),
+                        getString(offset + 14 + WORLD_BYTES, TYPE_BYTES), buffer.getInt(offset + 9), timestamp, now));
+            } else {
+                into.add(new StatisticsRow.Server(buffer.getDouble(offset + 9), buffer.getInt(offset + 17),
+                        buffer.getInt(offset + 21), buffer.getLong(offset + 25), buffer.getLong(offset + 33), timestamp, now));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove the oldest records once they were written to the database
+     */
+    void remove(int count) {
+        read = Math.min(write, read + count);
+        commit();
+    }
+
+    /**
+     * Make the appended records durable
+     */
+    void force() {
+        commit();
+    }
+
+    @Override
+    public void close() throws IOException {
+        commit();
+        channel.close();
+    }
+
+    /**
+     * Force the records to disk, then publish the positions in the older header slot
+     */
+    private void commit() {
+        buffer.force();
+        sequence++;
+        int offset = SLOT_OFFSET + (sequence & 1) * SLOT_SIZE;
+        buffer.putInt(offset, sequence);
+        buffer.putInt(offset + 4, checksum(sequence, read, write));
+        buffer.putLong(offset + 8, read);
+        buffer.putLong(offset + 16, write);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    /**
+     * Copy a spool written with another maximum size into a fresh file and swap
+     * it in, keeping the newest records when they don't all fit
+     */
+    private void resize(File file) throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE) return;
+
+        File resized = new File(file.getPath() + ".tmp");
+        try (FileChannel source = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            source.read(header, 0);
+            long previousCapacity = header.getLong(CAPACITY_OFFSET);
+            if (!hasHeader(header) || previousCapacity == capacity) return;
+
+            long[] positions = newestSlot(header, previousCapacity);
+            long from = positions == null ? 0 : Math.max(positions[0], positions[1] - capacity);
+            long to = positions == null ? 0 : positions[1];
+            if (positions != null) {
+                dropped = from - positions[0];
+            }
+
+            try (FileChannel target = FileChannel.open(resized.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+                for (long position = from; position < to; position++) {
+                    record.clear();
+                    source.read(record, HEADER_SIZE + (position % previousCapacity) * RECORD_SIZE);
+                    record.flip();
+                    target.write(record, HEADER_SIZE + (position - from) * RECORD_SIZE);
+                }
+
+                header.clear();
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putLong(CAPACITY_OFFSET, capacity);
+                for (int i = SLOT_OFFSET; i < HEADER_SIZE; i++) {
+                    header.put(i, (byte) 0);
+                }
+                header.putInt(SLOT_OFFSET + SLOT_SIZE, 1);
+                header.putInt(SLOT_OFFSET + SLOT_SIZE + 4, checksum(1, 0, to - from));
+                header.putLong(SLOT_OFFSET + SLOT_SIZE + 8, 0);
+                header.putLong(SLOT_OFFSET + SLOT_SIZE + 16, to - from);
+                target.write(header, 0);
+                target.force(true);
+            }
+        }
+        Files.move(resized.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean hasHeader(ByteBuffer header) {
+        return header.getInt(MAGIC_OFFSET) == MAGIC && header.getInt(VERSION_OFFSET) == VERSION
+                && header.getLong(CAPACITY_OFFSET) > 0;
+    }
+
+    /**
+     * Read, write and sequence of the newest intact header slot, or null when neither is
+     */
+    private static long[] newestSlot(ByteBuffer header, long capacity) {
+        long[] newest = null;
+        for (int slot = 0; slot < 2; slot++) {
+            int offset = SLOT_OFFSET + slot * SLOT_SIZE;
+            int sequence = header.getInt(offset);
+            long read = header.getLong(offset + 8);
+            long write = header.getLong(offset + 16);
+            boolean intact = header.getInt(offset + 4) == checksum(sequence, read, write)
+                    && read >= 0 && read <= write && write - read <= capacity;
+            if (intact && (newest == null || sequence - (int) newest[2] > 0)) {
+                newest = new long[]{read, write, sequence};
+            }
+        }
+        return newest;
+    }
+
+    private static int checksum(int sequence, long read, long write) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(20).putInt(sequence).putLong(read).putLong(write).array());
+        return (int) crc.getValue();
+    }
+
+    private int recordOffset(long position) {
+        return (int) (HEADER_SIZE + (position % capacity) * RECORD_SIZE);
+    }
+
+    private void putString(int offset, String value, int maxBytes) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+        buffer.put(offset, (byte) length);
+        buffer.put(offset + 1, bytes, 0, length);
+    }
+
+    private String getString(int offset, int maxBytes) {
+        int length = Math.min(buffer.get(offset) & 0xFF, maxBytes);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,630 @@
+package kaizenrpg.kaizenClear.database;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.InsertManyOptions;
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.jfr.DatabaseWriteEvent;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.metrics.MetricsRegistry;
+import org.bson.Document;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLDataException;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one thread that writes statistics rows.
+ *
+ * Any thread can queue rows; the queue is bounded and never blocks the caller,
+ * rows that don't fit are dropped and counted. The writer collects rows until
+ * a batch is full or the flush interval has passed, merges cleanup rows of the
+ * same world and type into one, and writes each table in one round trip: a
+ * JDBC batch over a connection and prepared statements kept between flushes,
+ * or an unordered insertMany on collection handles kept for the writer's life.
+ * Without a database, rows go to the {@link LocalStatisticsStore}.
+ *
+ * While the database is unreachable, flushed rows go to a {@link StatisticsSpool}
+ * on disk instead. Only rows that were not written go there: each table is
+ * written on its own, and of a failed batch the rows the database reports as
+ * written are kept out. The connection is retried every 30 seconds, and once a
+ * write succeeds again the spool is replayed batch by batch between flushes,
+ * row for row as spooled.
+ *
+ * Rows the database rejects for their content (constraint violations, bad
+ * values) would be rejected again, so they are logged and dropped; only
+ * connection and other transient errors spool rows and mark the database down.
+ *
+ * {@link #shutdown(long)} writes whatever is still queued before returning.
+ */
+class StatisticsWriter implements Runnable {
+
+    private static final Object WAKE = new Object();
+    private static final long CONNECTION_MAX_AGE = TimeUnit.MINUTES.toNanos(5); // below the pool's max lifetime
+    private static final long DROP_WARNING_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+    private static final long RETRY_INTERVAL = TimeUnit.SECONDS.toNanos(30);
+    // Rows are independent, so one bad document must not stop the rest
+    private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+    // Mongo write errors caused by the document itself: BadValue, TypeMismatch,
+    // DocumentValidationFailure and the duplicate key codes
+    private static final Set<Integer> MONGO_DATA_ERRORS = Set.of(2, 14, 121, 11000, 11001, 12582);
+
+    private static final String CLEANUP_SQL = "INSERT INTO cleanup_stats (server_name, world_name, cleanup_type, entities_removed, timestamp) VALUES (?, ?, ?, ?, ?)";
+    private static final String SERVER_SQL = "INSERT INTO server_stats (server_name, tps, entity_count, chunk_count, memory_used, memory_max, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final KaizenClear plugin;
+    private final DatabaseManager databaseManager;
+    private final DatabaseManager.DatabaseType type;
+    private final LocalStatisticsStore localStore;
+    private final MetricsRegistry metrics;
+    private final String serverName;
+    private final BlockingQueue<Object> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread thread;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile long lastDropWarning = 0;
+    private long rejected = 0;
+    private long lastRejectWarning = 0;
+
+    // Writer thread only
+    private final List<Object> drained = new ArrayList<>();
+    private final List<StatisticsRow.Cleanup> cleanupRows = new ArrayList<>();
+    // World and type of a collected cleanup row -> its index in cleanupRows
+    private final Map<String, Integer> cleanupIndex = new HashMap<>();
+    private final List<StatisticsRow.Server> serverRows = new ArrayList<>();
+    private long[] enqueued = new long[64];
+    private int pending = 0;
+    private Connection connection;
+    private PreparedStatement cleanupStatement;
+    private PreparedStatement serverStatement;
+    private long connectionOpened;
+    private MongoCollection<Document> cleanupCollection;
+    private MongoCollection<Document> serverCollection;
+    private final List<Document> documents = new ArrayList<>();
+    private final StatisticsSpool spool;
+    private final List<StatisticsRow> replayed = new ArrayList<>();
+    private boolean healthy;
+    private boolean unavailable = false;
+    private long nextRetry;
+
+    /**
+     * @param databaseManager the database to write to, or null to write to {@code localStore}
+     */
+    StatisticsWriter(KaizenClear plugin, DatabaseManager databaseManager, LocalStatisticsStore localStore, String serverName) {
+        this.plugin = plugin;
+        this.databaseManager = databaseManager;
+        this.type = databaseManager == null ? DatabaseManager.DatabaseType.NONE : databaseManager.getType();
+        this.localStore = localStore;
+        this.metrics = plugin.getMetrics();
+        this.serverName = serverName;
+        this.queue = new ArrayBlockingQueue<>(plugin.getConfigManager().getDatabaseQueueCapacity());
+        this.batchSize = plugin.getConfigManager().getDatabaseBatchSize();
+        this.flushIntervalNanos = TimeUnit.SECONDS.toNanos(plugin.getConfigManager().getDatabaseFlushInterval());
+        // Local files need no spool
+        this.spool = databaseManager == null ? null : openSpool();
+        // A failed connect was already reported, retry quietly
+        this.healthy = databaseManager == null || databaseManager.isConnected();
+        this.unavailable = !healthy;
+        this.nextRetry = System.nanoTime() + RETRY_INTERVAL;
+        this.thread = new Thread(this, "KaizenClear-Statistics");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a row without blocking
+     * @return false if the queue is full or the writer has shut down
+     */
+    boolean offer(StatisticsRow row) {
+        if (!running) return false;
+        if (queue.offer(row)) {
+            metrics.getDbQueueDepth().incrementAndGet();
+            return true;
+        }
+
+        long count = dropped.incrementAndGet();
+        long now = System.nanoTime();
+        if (now - lastDropWarning > DROP_WARNING_INTERVAL) {
+            lastDropWarning = now;
+            plugin.getLogger().warning("Statistics queue is full, " + count + " rows dropped so far");
+        }
+        return false;
+    }
+
+    /**
+     * Stop accepting rows, write everything still queued and close the connection
+     * @param timeoutMillis how long to wait for the writer
+     */
+    void shutdown(long timeoutMillis) {
+        running = false;
+        // If the queue is full the writer is busy and sees the flag on its own
+        queue.offer(WAKE);
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            plugin.getLogger().warning("Statistics writer did not finish within " + timeoutMillis + "ms, "
+                    + (queue.size() + pending) + " rows may be lost");
+        }
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + flushIntervalNanos;
+
+        while (running || !queue.isEmpty()) {
+            // Don't wait for rows while spooled ones can be replayed
+            long timeout = canReplay() ? 0 : Math.max(0, deadline - System.nanoTime());
+            try {
+                Object first = queue.poll(timeout, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    add(first);
+                    queue.drainTo(drained, batchSize);
+                    for (Object row : drained) {
+                        add(row);
+                    }
+                    drained.clear();
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+
+            if (pending >= batchSize || System.nanoTime() >= deadline || !running) {
+                flush();
+                deadline = System.nanoTime() + flushIntervalNanos;
+            }
+
+            if (!healthy && running && System.nanoTime() >= nextRetry) {
+                retry();
+            }
+            if (canReplay() && running) {
+                replay();
+            }
+        }
+
+        flush();
+        closeConnection();
+        closeSpool();
+    }
+
+    private void add(Object row) {
+        if (row == WAKE) return;
+
+        if (pending == enqueued.length) {
+            enqueued = Arrays.copyOf(enqueued, pending << 1);
+        }
+        enqueued[pending++] = ((StatisticsRow) row).enqueued;
+        collect((StatisticsRow) row);
+    }
+
+    private void collect(StatisticsRow row) {
+        if (row instanceof StatisticsRow.Cleanup cleanup) {
+            // One row per world and type and flush; the latest timestamp wins
+            Integer index = cleanupIndex.putIfAbsent(cleanup.world + '\0' + cleanup.type, cleanupRows.size());
+            if (index == null) {
+                cleanupRows.add(cleanup);
+            } else {
+                StatisticsRow.Cleanup merged = cleanupRows.get(index);
+                cleanupRows.set(index, new StatisticsRow.Cleanup(merged.world, merged.type, merged.removed + cleanup.removed,
+                        Math.max(merged.timestamp, cleanup.timestamp), merged.enqueued));
+            }
+        } else if (row instanceof StatisticsRow.Server server) {
+            serverRows.add(server);
+        }
+    }
+
+    private void clearRows() {
+        cleanupRows.clear();
+        cleanupIndex.clear();
+        serverRows.clear();
+    }
+
+    private void flush() {
+        if (pending == 0) return;
+
+        DatabaseWriteEvent event = new DatabaseWriteEvent();
+        event.begin();
+        long start = System.nanoTime();
+        long oldest = start - enqueued[0];
+        String rows = cleanupRows.size() + " cleanup, " + serverRows.size() + " server rows";
+        boolean succeeded = false;
+        try {
+            succeeded = healthy && write();
+            if (!succeeded) {
+                spoolRows();
+            }
+        } finally {
+            long now = System.nanoTime();
+            metrics.getDbFlushDuration().observe((now - start) / 1e9);
+            for (int i = 0; i < pending; i++) {
+                metrics.getDbWriteDuration().observe((now - enqueued[i]) / 1e9);
+            }
+            metrics.getDbQueueDepth().addAndGet(-pending);
+            event.finish(type.name(), rows, succeeded, oldest);
+            clearRows();
+            pending = 0;
+        }
+    }
+
+    /**
+     * Write the collected rows, marking the database unhealthy when that fails.
+     * Written rows are removed from the collected ones, so after a failure only
+     * the rows that still need writing are left.
+     */
+    private boolean write() {
+        try {
+            switch (type) {
+                case MYSQL -> flushMySQL();
+                case MONGODB -> flushMongoDB();
+                case NONE -> flushLocal();
+            }
+        } catch (Exception e) {
+            closeConnection();
+            // A reconnect creates a new client, so look the collections up again
+            cleanupCollection = null;
+            serverCollection = null;
+            healthy = false;
+            nextRetry = System.nanoTime() + RETRY_INTERVAL;
+            if (!unavailable) {
+                unavailable = true;
+                if (type == DatabaseManager.DatabaseType.NONE) {
+                    plugin.getLogger().warning("Failed to write statistics history (" + e.getMessage() + ")");
+                } else {
+                    plugin.getLogger().warning("Failed to save statistics (" + e.getMessage() + ")"
+                            + (spool != null ? ", spooling them to disk until the database is reachable" : ""));
+                }
+            }
+            return false;
+        }
+
+        if (unavailable) {
+            unavailable = false;
+            if (type == DatabaseManager.DatabaseType.NONE) {
+                plugin.getLogger().info("Writing statistics history again");
+            } else {
+                plugin.getLogger().info("Database reachable again"
+                        + (spool != null && !spool.isEmpty() ? ", replaying " + spool.size() + " spooled statistics rows" : ""));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Keep the collected rows that weren't written on disk, or drop them without a spool
+     */
+    private void spoolRows() {
+        // Without a spool the rows are lost, write() already reported the failure
+        if (spool == null) return;
+
+        long droppedBefore = spool.getDropped();
+        for (StatisticsRow.Cleanup row : cleanupRows) {
+            spool.append(row);
+        }
+        for (StatisticsRow.Server row : serverRows) {
+            spool.append(row);
+        }
+        spool.force();
+
+        if (spool.getDropped() > droppedBefore) {
+            plugin.getLogger().warning("Statistics spool is full, dropped the oldest " + (spool.getDropped() - droppedBefore) + " rows");
+        }
+    }
+
+    private boolean canReplay() {
+        return healthy && pending == 0 && spool != null && !spool.isEmpty();
+    }
+
+    /**
+     * Write the oldest batch of spooled rows as they are, they were merged before spooling
+     */
+    private void replay() {
+        int count = spool.peek(batchSize, replayed);
+        for (StatisticsRow row : replayed) {
+            if (row instanceof StatisticsRow.Cleanup cleanup) {
+                cleanupRows.add(cleanup);
+            } else if (row instanceof StatisticsRow.Server server) {
+                serverRows.add(server);
+            }
+        }
+        replayed.clear();
+
+        // Rows written before a failure leave the spool, the rest go back to its end
+        boolean written = write();
+        if (written || cleanupRows.size() + serverRows.size() < count) {
+            spool.remove(count);
+            spoolRows();
+        }
+        clearRows();
+    }
+
+    /**
+     * Connect again if the first connect failed; a pool that exists is tried by the next write
+     */
+    private void retry() {
+        nextRetry = System.nanoTime() + RETRY_INTERVAL;
+        if (databaseManager == null || databaseManager.isConnected() || databaseManager.reconnect()) {
+            healthy = true;
+        }
+    }
+
+    private StatisticsSpool openSpool() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isDatabaseSpoolEnabled()) return null;
+
+        File file = new File(plugin.getKaizenDataFolder(), "statistics.spool");
+        try {
+            StatisticsSpool opened = new StatisticsSpool(file, config.getDatabaseSpoolMaxSize() * 1024L * 1024L);
+            if (!opened.isEmpty()) {
+                plugin.getLogger().info(opened.size() + " spooled statistics rows will be written once the database is reachable");
+            }
+            return opened;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to open statistics spool " + file.getPath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void closeSpool() {
+        if (spool == null) return;
+        try {
+            spool.close();
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to close statistics spool: " + e.getMessage());
+        }
+    }
+
+    private void flushMySQL() throws SQLException {
+        openConnection();
+
+        // Rows after a rejected one are written again until none are left
+        while (!cleanupRows.isEmpty()) {
+            for (StatisticsRow.Cleanup row : cleanupRows) {
+                cleanupStatement.setString(1, serverName);
+                cleanupStatement.setString(2, row.world);
+                cleanupStatement.setString(3, row.type);
+                cleanupStatement.setInt(4, row.removed);
+                cleanupStatement.setTimestamp(5, new Timestamp(row.timestamp));
+                cleanupStatement.addBatch();
+            }
+            executeBatch(cleanupStatement, cleanupRows);
+        }
+
+        while (!serverRows.isEmpty()) {
+            for (StatisticsRow.Server row : serverRows) {
+                serverStatement.setString(1, serverName);
+                serverStatement.setDouble(2, row.tps);
+                serverStatement.setInt(3, row.entityCount);
+                serverStatement.setInt(4, row.chunkCount);
+                serverStatement.setLong(5, row.memoryUsed);
+                serverStatement.setLong(6, row.memoryMax);
+                serverStatement.setTimestamp(7, new Timestamp(row.timestamp));
+                serverStatement.addBatch();
+            }
+            executeBatch(serverStatement, serverRows);
+        }
+    }
+
+    /**
+     * Run a batch and drop its rows. When the database rejected rows for their
+     * content, drop those and keep the rows the driver never got to, to be run
+     * again; when it failed otherwise, keep the rows reported as failed or never
+     * got to and rethrow.
+     */
+    private void executeBatch(PreparedStatement statement, List<? extends StatisticsRow> rows) throws SQLException {
+        try {
+            statement.executeBatch();
+            rows.clear();
+        } catch (BatchUpdateException e) {
+            int[] counts = e.getUpdateCounts();
+            if (isDataError(e)) {
+                // A driver that stops at the first error reports counts up to the rejected row
+                int dropped = counts.length < rows.size() ? 1 : 0;
+                BitSet kept = new BitSet(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    if (i < counts.length && counts[i] == Statement.EXECUTE_FAILED) {
+                        dropped++;
+                    } else if (i > counts.length) {
+                        kept.set(i);
+                    }
+                }
+                retainFailed(rows, kept);
+                statement.clearBatch();
+                rejected(dropped, e.getMessage());
+                return;
+            }
+
+            BitSet failed = new BitSet(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (i >= counts.length || counts[i] == Statement.EXECUTE_FAILED) {
+                    failed.set(i);
+                }
+            }
+            retainFailed(rows, failed);
+            throw e;
+        }
+    }
+
+    /**
+     * Whether the database refused rows for their content, so writing them again
+     * cannot succeed: constraint violations and invalid values (SQL states 22 and 23)
+     */
+    static boolean isDataError(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException || cause instanceof SQLDataException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Report rows dropped because the database rejected them, at most once a minute
+     */
+    private void rejected(int count, String reason) {
+        rejected += count;
+        long now = System.nanoTime();
+        if (lastRejectWarning == 0 || now - lastRejectWarning > DROP_WARNING_INTERVAL) {
+            lastRejectWarning = now;
+            plugin.getLogger().warning("Database rejected " + count + " statistics rows, dropping them (" + reason + "), "
+                    + rejected + " rejected so far");
+        }
+    }
+
+    private static <T> void retainFailed(List<T> rows, BitSet failed) {
+        int kept = 0;
+        for (int i = failed.nextSetBit(0); i >= 0 && i < rows.size(); i = failed.nextSetBit(i + 1)) {
+            rows.set(kept++, rows.get(i));
+        }
+        rows.subList(kept, rows.size()).clear();
+    }
+
+    private void flushLocal() throws IOException {
+        for (StatisticsRow.Cleanup row : cleanupRows) {
+            localStore.append(row);
+        }
+        for (StatisticsRow.Server row : serverRows) {
+            localStore.append(row);
+        }
+        localStore.flush();
+        clearRows();
+    }
+
+    private void flushMongoDB() {
+        openCollections();
+
+        if (!cleanupRows.isEmpty()) {
+            for (StatisticsRow.Cleanup row : cleanupRows) {
+                documents.add(new Document()
+                        .append("server_name", serverName)
+                        .append("world_name", row.world)
+                        .append("cleanup_type", row.type)
+                        .append("entities_removed", row.removed)
+                        .append("timestamp", new Date(row.timestamp)));
+            }
+            insertAll(cleanupCollection, cleanupRows);
+        }
+
+        if (!serverRows.isEmpty()) {
+            for (StatisticsRow.Server row : serverRows) {
+                documents.add(new Document()
+                        .append("server_name", serverName)
+                        .append("tps", row.tps)
+                        .append("entity_count", row.entityCount)
+                        .append("chunk_count", row.chunkCount)
+                        .append("memory_used", row.memoryUsed)
+                        .append("memory_max", row.memoryMax)
+                        .append("timestamp", new Date(row.timestamp)));
+            }
+            insertAll(serverCollection, serverRows);
+        }
+    }
+
+    /**
+     * Insert the built documents and drop their rows. An unordered insert writes
+     * every document without an error of its own; rows rejected for their content
+     * are dropped, the ones that failed otherwise are kept and the error rethrown.
+     */
+    private void insertAll(MongoCollection<Document> collection, List<? extends StatisticsRow> rows) {
+        try {
+            collection.insertMany(documents, UNORDERED);
+            rows.clear();
+        } catch (MongoBulkWriteException e) {
+            BitSet failed = new BitSet(rows.size());
+            int dropped = 0;
+            String reason = null;
+            for (BulkWriteError error : e.getWriteErrors()) {
+                if (MONGO_DATA_ERRORS.contains(error.getCode())) {
+                    dropped++;
+                    reason = error.getMessage();
+                } else {
+                    failed.set(error.getIndex());
+                }
+            }
+            retainFailed(rows, failed);
+            if (dropped > 0) {
+                rejected(dropped, reason);
+            }
+            if (!rows.isEmpty() || e.getWriteConcernError() != null) {
+                throw e;
+            }
+        } finally {
+            documents.clear();
+        }
+    }
+
+    /**
+     * Look up the statistics collections once, with the configured write concern
+     */
+    private void openCollections() {
+        if (cleanupCollection != null) return;
+
+        ConfigManager config = plugin.getConfigManager();
+        WriteConcern writeConcern = config.getMongoWriteAcknowledgement().equalsIgnoreCase("majority")
+                ? WriteConcern.MAJORITY
+                : new WriteConcern(Integer.parseInt(config.getMongoWriteAcknowledgement()));
+        writeConcern = writeConcern.withJournal(config.isMongoWriteJournal());
+
+        MongoDatabase database = databaseManager.getMongoDatabase();
+        cleanupCollection = database.getCollection("cleanup_stats").withWriteConcern(writeConcern);
+        serverCollection = database.getCollection("server_stats").withWriteConcern(writeConcern);
+    }
+
+    /**
+     * Reuse the kept connection, replacing it when it is closed or old enough
+     * that the pool would want to retire it
+     */
+    private void openConnection() throws SQLException {
+        if (connection != null && !connection.isClosed() && System.nanoTime() - connectionOpened < CONNECTION_MAX_AGE) {
+            return;
+        }
+
+        closeConnection();
+        connection = databaseManager.getConnection();
+        connectionOpened = System.nanoTime();
+        cleanupStatement = connection.prepareStatement(CLEANUP_SQL);
+        serverStatement = connection.prepareStatement(SERVER_SQL);
+    }
+
+    private void closeConnection() {
+        if (connection == null) return;
+        try {
+            // Closing the connection returns it to the pool and closes its statements
+            connection.close();
+        } catch (SQLException ignored) {
+            // Broken connections are evicted by the pool
+        }
+        connection = null;
+        cleanupStatement = null;
+        serverStatement = null;
+    }
+}
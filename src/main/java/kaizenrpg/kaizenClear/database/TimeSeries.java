@@ -0,0 +1,494 @@
+package kaizenrpg.kaizenClear.database;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only series of timestamped samples with a fixed number of long
+ * columns, kept as numbered segment files in one directory.
+ *
+ * Each record stores its timestamp and values as differences to the previous
+ * record of the segment, written as zigzag varints, so a slowly changing sample
+ * takes a few bytes. A segment is sealed once it spans a day or reaches 256 KB;
+ * sealed segments are summarized in an index file (time range, count and
+ * per-column min, max and sum), so a range summary only decodes the segments
+ * at its edges and old data is dropped a whole segment at a time.
+ *
+ * A crash can cut off the last record of the open segment, which is truncated
+ * on the next start. All methods are synchronized: the statistics writer
+ * appends while commands query.
+ */
+public class TimeSeries implements Closeable {
+
+    private static final long SEGMENT_SPAN = TimeUnit.DAYS.toMillis(1);
+    private static final int SEGMENT_BYTES = 256 * 1024;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String INDEX_FILE = "index";
+    private static final int INDEX_VERSION = 1;
+
+    private final File directory;
+    private final int columns;
+    private final List<Segment> sealed = new ArrayList<>(); // oldest first
+    private Segment active;
+    private OutputStream out;
+
+    // Encoder state of the active segment
+    private final byte[] scratch;
+    private long lastTimestamp = 0;
+    private final long[] lastValues;
+
+    /**
+     * Open or create the series in a directory
+     * @param columns values per sample; must match the existing files
+     */
+    public TimeSeries(File directory, int columns) throws IOException {
+        this.directory = directory;
+        this.columns = columns;
+        this.scratch = new byte[10 * (columns + 1)];
+        this.lastValues = new long[columns];
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory.getPath());
+        }
+        load();
+    }
+
+    /**
+     * Add a sample; timestamps may go backwards, e.g. after a clock change
+     */
+    public synchronized void append(long timestamp, long... values) throws IOException {
+        if (values.length != columns) {
+            throw new IllegalArgumentException("Expected " + columns + " values, got " + values.length);
+        }
+        if (active == null || active.bytes >= SEGMENT_BYTES
+                || (active.count > 0 && timestamp - active.start >= SEGMENT_SPAN)) {
+            roll();
+        }
+
+        int length = writeVarint(scratch, 0, zigzag(timestamp - lastTimestamp));
+        for (int i = 0; i < columns; i++) {
+            length = writeVarint(scratch, length, zigzag(values[i] - lastValues[i]));
+        }
+        out.write(scratch, 0, length);
+
+        active.bytes += length;
+        active.add(timestamp, values);
+        lastTimestamp = timestamp;
+        System.arraycopy(values, 0, lastValues, 0, columns);
+    }
+
+    /**
+     * Hand buffered records to the operating system
+     */
+    public synchronized void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Visit every sample in [from, to] in storage order
+     */
+    public synchronized void scan(long from, long to, Visitor visitor) throws IOException {
+        flush();
+        for (Segment segment : segments()) {
+            if (segment.overlaps(from, to)) {
+                decode(segment, from, to, visitor);
+            }
+        }
+    }
+
+    /**
+     * Count, min, max and sum of every column over [from, to]; segments that lie
+     * completely inside the range are answered from the index
+     */
+    public synchronized Summary summarize(long from, long to) throws IOException {
+        flush();
+        Summary summary = new Summary(columns);
+        for (Segment segment : segments()) {
+            if (!segment.overlaps(from, to)) continue;
+
+            if (segment.within(from, to)) {
+                summary.merge(segment);
+            } else {
+                decode(segment, from, to, summary::add);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Bytes used by all segments
+     */
+    public synchronized long getDiskUsage() {
+        long bytes = active == null ? 0 : active.bytes;
+        for (Segment segment : sealed) {
+            bytes += segment.bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Earliest timestamp of the oldest sealed segment, or {@link Long#MAX_VALUE} if there is none
+     */
+    public synchronized long getOldestSealed() {
+        return sealed.isEmpty() ? Long.MAX_VALUE : sealed.get(0).start;
+    }
+
+    /**
+     * Delete the oldest sealed segment; the open segment is never deleted
+     * @return false if there was nothing to delete
+     */
+    public synchronized boolean deleteOldest() throws IOException {
+        if (sealed.isEmpty()) return false;
+
+        Segment oldest = sealed.remove(0);
+        writeIndex();
+        Files.deleteIfExists(oldest.file.toPath());
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // The open segment stays open and is continued on the next start
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private List<Segment> segments() {
+        if (active == null) return sealed;
+
+        List<Segment> all = new ArrayList<>(sealed);
+        all.add(active);
+        return all;
+    }
+
+    /**
+     * Seal the open segment and start the next one
+     */
+    private void roll() throws IOException {
+        int sequence = 0;
+        if (active != null) {
+            out.close();
+            sequence = active.sequence + 1;
+            if (active.count > 0) {
+                sealed.add(active);
+                writeIndex();
+            } else {
+                Files.deleteIfExists(active.file.toPath());
+            }
+        } else if (!sealed.isEmpty()) {
+            sequence = sealed.get(sealed.size() - 1).sequence + 1;
+        }
+
+        active = new Segment(sequence, segmentFile(sequence), columns);
+        out = new BufferedOutputStream(new FileOutputStream(active.file, true));
+        lastTimestamp = 0;
+        Arrays.fill(lastValues, 0);
+    }
+
+    private void load() throws IOException {
+        Map<Integer, Segment> index = readIndex();
+
+        List<Integer> sequences = new ArrayList<>();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    sequences.add(Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                    // Not ours
+                }
+            }
+        }
+        sequences.sort(null);
+
+        boolean indexChanged = false;
+        for (int i = 0; i < sequences.size(); i++) {
+            int sequence = sequences.get(i);
+            File file = segmentFile(sequence);
+            Segment indexed = index.get(sequence);
+            if (indexed != null && indexed.bytes == file.length()) {
+                sealed.add(indexed);
+                continue;
+            }
+
+            // The newest unindexed segment was open when the server stopped
+            Segment segment = new Segment(sequence, file, columns);
+            boolean open = i == sequences.size() - 1;
+            if (open) {
+                active = segment;
+            }
+            int valid = decode(segment, Long.MIN_VALUE, Long.MAX_VALUE, segment::add);
+            if (valid < file.length()) {
+                try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                    raf.setLength(valid);
+                }
+            }
+            segment.bytes = valid;
+
+            if (open) {
+                out = new BufferedOutputStream(new FileOutputStream(file, true));
+            } else if (segment.count > 0) {
+                // Sealed without its index entry
+                sealed.add(segment);
+                indexChanged = true;
+            }
+        }
+        if (indexChanged || index.size() != sealed.size()) {
+            writeIndex();
+        }
+    }
+
+    /**
+     * Decode the records of a segment, visiting those in [from, to]
+     * @return length of the complete records, shorter than the file if the last one was cut off
+     */
+    private int decode(Segment segment, long from, long to, Visitor visitor) throws IOException {
+        byte[] data = Files.readAllBytes(segment.file.toPath());
+        long[] values = new long[columns];
+        long timestamp = 0;
+        int pos = 0;
+        int[] cursor = new int[1];
+
+        while (pos < data.length) {
+            // Make sure the whole record is there before decoding it
+            int end = pos;
+            for (int i = 0; i <= columns && end >= 0; i++) {
+                end = varintEnd(data, end);
+            }
+            if (end < 0) break;
+
+            cursor[0] = pos;
+            timestamp += unzigzag(readVarint(data, cursor));
+            for (int i = 0; i < columns; i++) {
+                values[i] += unzigzag(readVarint(data, cursor));
+            }
+            pos = end;
+
+            if (timestamp >= from && timestamp <= to) {
+                visitor.accept(timestamp, values);
+            }
+        }
+
+        if (segment == active) {
+            // Encoder state continues from the last record when the open segment is loaded
+            lastTimestamp = timestamp;
+            System.arraycopy(values, 0, lastValues, 0, columns);
+        }
+        return pos;
+    }
+
+    private Map<Integer, Segment> readIndex() {
+        Map<Integer, Segment> index = new HashMap<>();
+        File file = new File(directory, INDEX_FILE);
+        if (!file.isFile()) return index;
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != INDEX_VERSION || in.readInt() != columns) return index;
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int sequence = in.readInt();
+                Segment segment = new Segment(sequence, segmentFile(sequence), columns);
+                segment.bytes = in.readLong();
+                segment.count = in.readLong();
+                segment.start = in.readLong();
+                segment.end = in.readLong();
+                for (int c = 0; c < columns; c++) {
+                    segment.min[c] = in.readLong();
+                    segment.max[c] = in.readLong();
+                    segment.sum[c] = in.readLong();
+                }
+                index.put(sequence, segment);
+            }
+        } catch (IOException e) {
+            // Segments without an entry are decoded instead
+            index.clear();
+        }
+        return index;
+    }
+
+    /**
+     * Replace the index file in one step, so a crash leaves the old or the new one
+     */
+    private void writeIndex() throws IOException {
+        File temp = new File(directory, INDEX_FILE + ".tmp");
+        try (DataOutputStream data = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            data.writeInt(INDEX_VERSION);
+            data.writeInt(columns);
+            data.writeInt(sealed.size());
+            for (Segment segment : sealed) {
+                data.writeInt(segment.sequence);
+                data.writeLong(segment.bytes);
+                data.writeLong(segment.count);
+                data.writeLong(segment.start);
+                data.writeLong(segment.end);
+                for (int c = 0; c < columns; c++) {
+                    data.writeLong(segment.min[c]);
+                    data.writeLong(segment.max[c]);
+                    data.writeLong(segment.sum[c]);
+                }
+            }
+        }
+        Files.move(temp.toPath(), new File(directory, INDEX_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private File segmentFile(int sequence) {
+        return new File(directory, String.format("%08d", sequence) + SEGMENT_SUFFIX);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int writeVarint(byte[] buffer, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarint(byte[] data, int[] cursor) {
+        int pos = cursor[0];
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        cursor[0] = pos;
+        return value;
+    }
+
+    /**
+     * Position after the varint at {@code pos}, or -1 if it is cut off
+     */
+    private static int varintEnd(byte[] data, int pos) {
+        while (pos < data.length) {
+            if ((data[pos++] & 0x80) == 0) return pos;
+        }
+        return -1;
+    }
+
+    /**
+     * Receives decoded samples; the values array is reused between calls
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        void accept(long timestamp, long[] values);
+    }
+
+    /**
+     * Count, time range and per-column min, max and sum of a set of samples
+     */
+    public static class Summary {
+        long count = 0;
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        final long[] min;
+        final long[] max;
+        final long[] sum;
+
+        Summary(int columns) {
+            this.min = new long[columns];
+            this.max = new long[columns];
+            this.sum = new long[columns];
+            Arrays.fill(min, Long.MAX_VALUE);
+            Arrays.fill(max, Long.MIN_VALUE);
+        }
+
+        void add(long timestamp, long[] values) {
+            count++;
+            start = Math.min(start, timestamp);
+            end = Math.max(end, timestamp);
+            for (int i = 0; i < values.length; i++) {
+                min[i] = Math.min(min[i], values[i]);
+                max[i] = Math.max(max[i], values[i]);
+                sum[i] += values[i];
+            }
+        }
+
+        void merge(Summary other) {
+            count += other.count;
+            start = Math.min(start, other.start);
+            end = Math.max(end, other.end);
+            for (int i = 0; i < min.length; i++) {
+                min[i] = Math.min(min[i], other.min[i]);
+                max[i] = Math.max(max[i], other.max[i]);
+                sum[i] += other.sum[i];
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMin(int column) {
+            return min[column];
+        }
+
+        public long getMax(int column) {
+            return max[column];
+        }
+
+        public long getSum(int column) {
+            return sum[column];
+        }
+
+        public double getMean(int column) {
+            return count == 0 ? 0 : (double) sum[column] / count;
+        }
+    }
+
+    /**
+     * One segment file with its summary
+     */
+    private static class Segment extends Summary {
+        final int sequence;
+        final File file;
+        long bytes = 0;
+
+        Segment(int sequence, File file, int columns) {
+            super(columns);
+            this.sequence = sequence;
+            this.file = file;
+        }
+
+        boolean overlaps(long from, long to) {
+            return count > 0 && start <= to && end >= from;
+        }
+
+        boolean within(long from, long to) {
+            return start >= from && end <= to;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package kaizenrpg.kaizenClear.filters;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Whitelist, blacklist and per-material lifetime rules compiled into tables indexed
+ * by {@link Material#ordinal()}, so item checks are a single array lookup.
+ *
+ * Entries can be material names ({@code DIAMOND}), wildcard patterns
+ * ({@code *_SHULKER_BOX}) or item/block tags ({@code #minecraft:logs}).
+ * The whitelist wins over the blacklist. For lifetimes, exact names override
+ * patterns and tags, and later patterns override earlier ones.
+ */
+public final class MaterialRules {
+
+    private static final byte DEFAULT = 0;
+    private static final byte KEEP = 1;
+    private static final byte REMOVE = 2;
+
+    private static final int NO_LIFETIME = -1;
+
+    private static final MaterialRules EMPTY = compile(List.of(), List.of(), Map.of(), null);
+
+    private final byte[] actions;
+    private final int[] lifetimeTicks;
+    private final int ruleCount;
+
+    private MaterialRules(byte[] actions, int[] lifetimeTicks, int ruleCount) {
+        this.actions = actions;
+        this.lifetimeTicks = lifetimeTicks;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * Rules that match nothing
+     */
+    public static MaterialRules empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Compile the configured entries
+     * @param lifetimes lifetime in seconds per entry
+     * @param logger receives warnings about entries that match no material, may be null
+     */
+    public static MaterialRules compile(Collection<String> whitelist, Collection<String> blacklist,
+                                        Map<String, Integer> lifetimes, Logger logger) {
+        Material[] materials = Material.values();
+        byte[] actions = new byte[materials.length];
+        int[] lifetimeTicks = new int[materials.length];
+        Arrays.fill(lifetimeTicks, NO_LIFETIME);
+        List<String> unmatched = new ArrayList<>();
+
+        for (String entry : blacklist) {
+            for (Material material : resolve(entry, materials, unmatched)) {
+                actions[material.ordinal()] = REMOVE;
+            }
+        }
+        for (String entry : whitelist) {
+            for (Material material : resolve(entry, materials, unmatched)) {
+                actions[material.ordinal()] = KEEP;
+            }
+        }
+
+        // Patterns and tags first so exact names can override them
+        for (boolean exact : new boolean[]{false, true}) {
+            for (Map.Entry<String, Integer> rule : lifetimes.entrySet()) {
+                if (isExact(rule.getKey()) != exact) continue;
+
+                int seconds = rule.getValue();
+                if (seconds <= 0) {
+                    if (logger != null) {
+                        logger.warning("Invalid lifetime for " + rule.getKey() + " (" + seconds + "). Must be positive. Ignoring");
+                    }
+                    continue;
+                }
+                for (Material material : resolve(rule.getKey(), materials, unmatched)) {
+                    lifetimeTicks[material.ordinal()] = seconds * 20;
+                }
+            }
+        }
+
+        if (logger != null && !unmatched.isEmpty()) {
+            logger.warning("Item rules matching no material: " + unmatched);
+        }
+
+        return new MaterialRules(actions, lifetimeTicks, whitelist.size() + blacklist.size() + lifetimes.size());
+    }
+
+    /**
+     * Whether items of this material must never be removed
+     */
+    public boolean isWhitelisted(Material material) {
+        return actions[material.ordinal()] == KEEP;
+    }
+
+    /**
+     * Whether items of this material are removed regardless of age
+     */
+    public boolean isBlacklisted(Material material) {
+        return actions[material.ordinal()] == REMOVE;
+    }
+
+    /**
+     * Lifetime of items of this material in ticks
+     * @param defaultTicks returned when no lifetime rule matches the material
+     */
+    public int getLifetimeTicks(Material material, int defaultTicks) {
+        int ticks = lifetimeTicks[material.ordinal()];
+        return ticks == NO_LIFETIME ? defaultTicks : ticks;
+    }
+
+    /**
+     * Whether a lifetime rule matches this material
+     */
+    public boolean hasLifetime(Material material) {
+        return lifetimeTicks[material.ordinal()] != NO_LIFETIME;
+    }
+
+    /**
+     * Number of configured entries the tables were compiled from
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    private static boolean isExact(String entry) {
+        return !entry.startsWith("#") && entry.indexOf('*') < 0;
+    }
+
+    private static Set<Material> resolve(String entry, Material[] materials, List<String> unmatched) {
+        String trimmed = entry.trim();
+        Set<Material> result = EnumSet.noneOf(Material.class);
+
+        if (trimmed.startsWith("#")) {
+            result.addAll(resolveTag(trimmed.substring(1)));
+        } else {
+            String name = trimmed.toUpperCase(Locale.ROOT);
+            if (name.startsWith("MINECRAFT:")) {
+                name = name.substring("MINECRAFT:".length());
+            }
+
+            if (name.indexOf('*') < 0) {
+                Material material = Material.getMaterial(name);
+                if (material != null) {
+                    result.add(material);
+                }
+            } else {
+                Pattern pattern = globToPattern(name);
+                for (Material material : materials) {
+                    String materialName = material.name();
+                    if (!materialName.startsWith("LEGACY_") && pattern.matcher(materialName).matches()) {
+                        result.add(material);
+                    }
+                }
+            }
+        }
+
+        if (result.isEmpty()) {
+            unmatched.add(trimmed);
+        }
+        return result;
+    }
+
+    private static Set<Material> resolveTag(String name) {
+        NamespacedKey key = NamespacedKey.fromString(name.toLowerCase(Locale.ROOT));
+        if (key == null) {
+            return Set.of();
+        }
+
+        // Item tags cover what is dropped, block tags are accepted for convenience
+        Tag<Material> tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, key, Material.class);
+        if (tag == null) {
+            tag = Bukkit.getTag(Tag.REGISTRY_BLOCKS, key, Material.class);
+        }
+        return tag == null ? Set.of() : tag.getValues();
+    }
+
+    private static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int start = 0;
+        int star;
+        while ((star = glob.indexOf('*', start)) >= 0) {
+            regex.append(Pattern.quote(glob.substring(start, star))).append(".*");
+            start = star + 1;
+        }
+        regex.append(Pattern.quote(glob.substring(start)));
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -1,9 +1,14 @@
 package kaizenrpg.kaizenClear.gui;
 
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.database.LocalStatisticsStore;
+import kaizenrpg.kaizenClear.database.StatisticsManager;
+import kaizenrpg.kaizenClear.jfr.GuiRefreshEvent;
 import kaizenrpg.kaizenClear.managers.CleanupManager;
 import kaizenrpg.kaizenClear.managers.TPSMonitor;
 import kaizenrpg.kaizenClear.scanners.EntityScanner;
+import kaizenrpg.kaizenClear.scheduler.TaskHandle;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -18,21 +23,22 @@ import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
 
 public class GUIManager implements Listener {
 
     private final KaizenClear plugin;
     private static final Component GUI_TITLE = Component.text("KaizenClear Dashboard", NamedTextColor.GOLD, TextDecoration.BOLD);
 
-    // Track active refresh tasks to prevent leaks
-    private final Map<UUID, Integer> activeRefreshTasks = new HashMap<>();
+    // Track active refresh tasks to prevent leaks (players tick on different threads on Folia)
+    private final Map<UUID, TaskHandle> activeRefreshTasks = new ConcurrentHashMap<>();
 
     public GUIManager(KaizenClear plugin) {
         this.plugin = plugin;
@@ -129,6 +135,11 @@ public class GUIManager implements Listener {
         List<Component> lore = new ArrayList<>();
         lore.add(Component.text("Current: ", NamedTextColor.GRAY).append(Component.text(tpsMonitor.getPlainTPS(), NamedTextColor.WHITE)));
         lore.add(Component.text("Average: ", NamedTextColor.GRAY).append(Component.text(String.format("%.2f", tpsMonitor.getAverageTPS()), NamedTextColor.WHITE)));
+        LocalStatisticsStore.History history = getRecentHistory();
+        if (history != null && history.getSamples() > 0) {
+            lore.add(Component.text("Last 24h: ", NamedTextColor.GRAY).append(Component.text(String.format("%.2f / %.2f / %.2f",
+                    history.getMinTps(), history.getAvgTps(), history.getMaxTps()), NamedTextColor.WHITE)));
+        }
         lore.add(Component.empty());
         if (tpsMonitor.getCurrentTPS() >= 19.0) {
             lore.add(Component.text("Server running smoothly!", NamedTextColor.GREEN));
@@ -186,12 +197,25 @@ public class GUIManager implements Listener {
 
         List<Component> lore = new ArrayList<>();
         lore.add(Component.text(cleanupManager.getCleanupStats(), NamedTextColor.GRAY));
+        LocalStatisticsStore.History history = getRecentHistory();
+        if (history != null) {
+            lore.add(Component.text("Removed (24h): ", NamedTextColor.GRAY).append(Component.text(history.getRemoved(), NamedTextColor.WHITE)));
+        }
 
         meta.lore(lore);
         item.setItemMeta(meta);
         return item;
     }
 
+    /**
+     * Cached summary of the local history, null with a database
+     */
+    private LocalStatisticsStore.History getRecentHistory() {
+        StatisticsManager statisticsManager = plugin.getStatisticsManager();
+        if (statisticsManager == null || statisticsManager.getLocalStore() == null) return null;
+        return statisticsManager.getLocalStore().getRecent();
+    }
+
     private ItemStack createWorldItem(World world) {
         ItemStack item = new ItemStack(Material.GRASS_BLOCK);
         ItemMeta meta = item.getItemMeta();
@@ -203,6 +227,14 @@ public class GUIManager implements Listener {
         List<Component> lore = new ArrayList<>();
         lore.add(Component.text(stats.getFormattedStats(), NamedTextColor.GRAY));
 
+        ChunkDensityIndex densityIndex = plugin.getDensityIndex();
+        if (densityIndex != null) {
+            for (ChunkDensityIndex.ChunkCount chunk : densityIndex.getDensestChunks(world, ChunkDensityIndex.ALL, 3)) {
+                lore.add(Component.text("Dense chunk " + chunk.getX() + ", " + chunk.getZ() + ": ", NamedTextColor.GRAY)
+                        .append(Component.text(chunk.getCount() + " entities", NamedTextColor.WHITE)));
+            }
+        }
+
         meta.lore(lore);
         item.setItemMeta(meta);
         return item;
@@ -229,24 +261,26 @@ public class GUIManager implements Listener {
         int interval = plugin.getConfigManager().getGuiRefreshInterval();
         UUID playerId = player.getUniqueId();
 
-        BukkitRunnable task = new BukkitRunnable() {
-            @Override
-            public void run() {
-                // Check if player is still online and viewing the GUI
-                if (!player.isOnline() || !player.getOpenInventory().title().equals(GUI_TITLE)) {
-                    activeRefreshTasks.remove(playerId);
-                    cancel();
-                    return;
+        // Runs on the player's own thread, so Folia regions refresh independently
+        TaskHandle task = plugin.getTaskScheduler().runTimerForEntity(player, () -> {
+            // Check if player is still online and viewing the GUI
+            if (!player.isOnline() || !player.getOpenInventory().title().equals(GUI_TITLE)) {
+                TaskHandle self = activeRefreshTasks.remove(playerId);
+                if (self != null) {
+                    self.cancel();
                 }
-
-                // Update GUI content
-                populateGUI(gui);
-                player.updateInventory();
+                return;
             }
-        };
 
-        int taskId = task.runTaskTimer(plugin, interval, interval).getTaskId();
-        activeRefreshTasks.put(playerId, taskId);
+            // Update GUI content
+            GuiRefreshEvent event = new GuiRefreshEvent();
+            event.begin();
+            populateGUI(gui);
+            player.updateInventory();
+            event.finish(player.getName());
+        }, interval, interval);
+
+        activeRefreshTasks.put(playerId, task);
     }
 
     /**
@@ -254,10 +288,10 @@ public class GUIManager implements Listener {
      */
     private void cancelRefreshTask(Player player) {
         UUID playerId = player.getUniqueId();
-        Integer taskId = activeRefreshTasks.remove(playerId);
+        TaskHandle task = activeRefreshTasks.remove(playerId);
 
-        if (taskId != null) {
-            plugin.getServer().getScheduler().cancelTask(taskId);
+        if (task != null) {
+            task.cancel();
         }
     }
 
@@ -265,8 +299,8 @@ public class GUIManager implements Listener {
      * Cancel all active refresh tasks (called on plugin disable)
      */
     public void cancelAllRefreshTasks() {
-        for (Integer taskId : activeRefreshTasks.values()) {
-            plugin.getServer().getScheduler().cancelTask(taskId);
+        for (TaskHandle task : activeRefreshTasks.values()) {
+            task.cancel();
         }
         activeRefreshTasks.clear();
     }
@@ -289,26 +323,28 @@ public class GUIManager implements Listener {
             case 28 -> { // Clear Items
                 player.closeInventory();
                 player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.YELLOW).append(Component.text("Clearing items...", NamedTextColor.YELLOW)));
-                cleanupManager.cleanupAllWorlds();
-                player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Items cleared!", NamedTextColor.GREEN)));
+                cleanupManager.cleanupAllWorlds().thenAccept(removed ->
+                        player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Items cleared!", NamedTextColor.GREEN))));
             }
             case 29 -> { // Clear Monsters
                 player.closeInventory();
                 player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.YELLOW).append(Component.text("Clearing monsters...", NamedTextColor.YELLOW)));
-                int removed = 0;
+                List<CompletableFuture<Integer>> results = new ArrayList<>();
                 for (World world : Bukkit.getWorlds()) {
-                    removed += cleanupManager.cleanupEntityType(world, org.bukkit.entity.Monster.class);
+                    results.add(cleanupManager.cleanupEntityType(world, org.bukkit.entity.Monster.class));
                 }
-                player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Removed " + removed + " monsters!", NamedTextColor.GREEN)));
+                whenAllDone(results, removed ->
+                        player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Removed " + removed + " monsters!", NamedTextColor.GREEN))));
             }
             case 30 -> { // Clear Clusters
                 player.closeInventory();
                 player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.YELLOW).append(Component.text("Clearing item clusters...", NamedTextColor.YELLOW)));
-                int removed = 0;
+                List<CompletableFuture<Integer>> results = new ArrayList<>();
                 for (World world : Bukkit.getWorlds()) {
-                    removed += cleanupManager.cleanupItemClusters(world);
+                    results.add(cleanupManager.cleanupItemClusters(world));
                 }
-                player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Cleared " + removed + " clustered items!", NamedTextColor.GREEN)));
+                whenAllDone(results, removed ->
+                        player.sendMessage(Component.text("[KaizenClear] ", NamedTextColor.GREEN).append(Component.text("Cleared " + removed + " clustered items!", NamedTextColor.GREEN))));
             }
             case 31 -> { // Emergency Cleanup
                 player.closeInventory();
@@ -324,6 +360,14 @@ public class GUIManager implements Listener {
         }
     }
 
+    /**
+     * Report the combined result of several cleanups once all of them have finished
+     */
+    private void whenAllDone(List<CompletableFuture<Integer>> results, IntConsumer callback) {
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenRun(() -> callback.accept(results.stream().mapToInt(CompletableFuture::join).sum()));
+    }
+
     @EventHandler
     public void onInventoryClose(InventoryCloseEvent event) {
         // Cancel refresh task when player closes the GUI
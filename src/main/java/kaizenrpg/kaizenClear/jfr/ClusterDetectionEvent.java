@@ -0,0 +1,46 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Finding the clustered items among the items of one world
+ */
+@Name("kaizenclear.ClusterDetection")
+@Label("Cluster Detection")
+@Description("Item cluster detection over the items of one world")
+@Category({"KaizenClear", "Cleanup"})
+@StackTrace(false)
+public class ClusterDetectionEvent extends Event {
+
+    @Label("World")
+    private String world;
+
+    @Label("Items")
+    private int items;
+
+    @Label("Clustered Items")
+    private int clustered;
+
+    @Label("Radius")
+    private double radius;
+
+    @Label("Minimum Cluster Size")
+    private int minSize;
+
+    public void finish(String world, int items, int clustered, double radius, int minSize) {
+        end();
+        if (shouldCommit()) {
+            this.world = world;
+            this.items = items;
+            this.clustered = clustered;
+            this.radius = radius;
+            this.minSize = minSize;
+            commit();
+        }
+    }
+}
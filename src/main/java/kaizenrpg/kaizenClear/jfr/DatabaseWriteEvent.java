@@ -0,0 +1,44 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One statistics write, from the async thread that ran it
+ */
+@Name("kaizenclear.DatabaseWrite")
+@Label("Database Write")
+@Description("A statistics write to the database")
+@Category({"KaizenClear", "Database"})
+@StackTrace(false)
+public class DatabaseWriteEvent extends Event {
+
+    @Label("Database")
+    private String database;
+
+    @Label("Write")
+    private String write;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+
+    @Label("Queue Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long queueTime;
+
+    public void finish(String database, String write, boolean succeeded, long queueNanos) {
+        end();
+        if (shouldCommit()) {
+            this.database = database;
+            this.write = write;
+            this.succeeded = succeeded;
+            this.queueTime = queueNanos;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Item removal filters evaluated during one scan of a world. Filters run once
+ * per item, so they are summed over the scan instead of recorded one by one.
+ */
+@Name("kaizenclear.FilterEvaluation")
+@Label("Filter Evaluation")
+@Description("Item removal filters evaluated during one scan of a world")
+@Category({"KaizenClear", "Cleanup"})
+@StackTrace(false)
+public class FilterEvaluationEvent extends Event {
+
+    @Label("World")
+    private String world;
+
+    @Label("Evaluated")
+    private int evaluated;
+
+    @Label("Matched")
+    private int matched;
+
+    @Label("Filter Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long filterTime;
+
+    public void finish(String world, int evaluated, int matched, long filterNanos) {
+        end();
+        if (shouldCommit()) {
+            this.world = world;
+            this.evaluated = evaluated;
+            this.matched = matched;
+            this.filterTime = filterNanos;
+            commit();
+        }
+    }
+}
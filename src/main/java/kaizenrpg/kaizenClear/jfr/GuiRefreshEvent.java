@@ -0,0 +1,30 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One automatic refresh of an open statistics GUI
+ */
+@Name("kaizenclear.GuiRefresh")
+@Label("GUI Refresh")
+@Description("Automatic refresh of an open statistics GUI")
+@Category({"KaizenClear", "GUI"})
+@StackTrace(false)
+public class GuiRefreshEvent extends Event {
+
+    @Label("Player")
+    private String player;
+
+    public void finish(String player) {
+        end();
+        if (shouldCommit()) {
+            this.player = player;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Removal of selected entities, or of the matching ones among candidates. On
+ * Folia the event spans until the last owning region has removed its share.
+ */
+@Name("kaizenclear.RemovalBatch")
+@Label("Removal Batch")
+@Description("Removal of selected entities from one world")
+@Category({"KaizenClear", "Cleanup"})
+@StackTrace(false)
+public class RemovalBatchEvent extends Event {
+
+    @Label("World")
+    private String world;
+
+    @Label("Cleanup Type")
+    private String cleanupType;
+
+    @Label("Candidates")
+    private int candidates;
+
+    @Label("Removed")
+    private int removed;
+
+    public void finish(String world, String cleanupType, int candidates, int removed) {
+        end();
+        if (shouldCommit()) {
+            this.world = world;
+            this.cleanupType = cleanupType;
+            this.candidates = candidates;
+            this.removed = removed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package kaizenrpg.kaizenClear.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One pass of a cleanup scan over a world. For time-sliced sweeps the event
+ * spans every tick of the sweep and {@code serverThreadTime} is the part spent
+ * visiting chunks. Callers check {@link #shouldCommit()} after {@link #end()}
+ * before gathering the fields, so a disabled event costs nothing.
+ */
+@Name("kaizenclear.WorldScan")
+@Label("World Scan")
+@Description("A cleanup scan over one world")
+@Category({"KaizenClear", "Cleanup"})
+@StackTrace(false)
+public class WorldScanEvent extends Event {
+
+    @Label("World")
+    private String world;
+
+    @Label("Loaded Chunks")
+    private int chunks;
+
+    @Label("Entities Visited")
+    private int entities;
+
+    @Label("Time Sliced")
+    private boolean incremental;
+
+    @Label("Server Thread Time")
+    @Timespan(Timespan.NANOSECONDS)
+    private long serverThreadTime;
+
+    /**
+     * Fill in and commit an event that has ended and passed {@link #shouldCommit()}
+     */
+    public void finish(String world, int chunks, int entities, boolean incremental, long serverThreadNanos) {
+        this.world = world;
+        this.chunks = chunks;
+        this.entities = entities;
+        this.incremental = incremental;
+        this.serverThreadTime = serverThreadNanos;
+        commit();
+    }
+}
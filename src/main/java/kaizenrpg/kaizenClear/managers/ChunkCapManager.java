@@ -0,0 +1,161 @@
+package kaizenrpg.kaizenClear.managers;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
+import kaizenrpg.kaizenClear.scanners.EntityScanner;
+import kaizenrpg.kaizenClear.scheduler.TaskHandle;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
+import kaizenrpg.kaizenClear.util.ChunkKeys;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trims chunks back to the configured max-per-chunk of each entity type once they
+ * cross the type's cleanup-threshold.
+ *
+ * The density index marks a chunk dirty when one of its counts grows past a
+ * threshold, and only dirty chunks are looked at, a few per tick, each on the
+ * thread that owns it. Victims are picked deterministically: the oldest entities
+ * or those farthest from any player go first, ties broken by entity id.
+ */
+public class ChunkCapManager {
+
+    private final KaizenClear plugin;
+    private final ConfigManager config;
+    private final EntityScanner scanner;
+    private final CleanupManager cleanupManager;
+    private final ChunkDensityIndex densityIndex;
+
+    private final long[] drained = new long[64];
+    private final TaskHandle task;
+
+    public ChunkCapManager(KaizenClear plugin) {
+        this.plugin = plugin;
+        this.config = plugin.getConfigManager();
+        this.cleanupManager = plugin.getCleanupManager();
+        this.scanner = cleanupManager.getScanner();
+        this.densityIndex = plugin.getDensityIndex();
+
+        densityIndex.setDirtyThresholds(config.getChunkCapThreshold());
+        task = plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Pick up changed thresholds after a reload
+     */
+    public void reload() {
+        densityIndex.setDirtyThresholds(config.getChunkCapThreshold());
+    }
+
+    /**
+     * Stop enforcing caps
+     */
+    public void shutdown() {
+        task.cancel();
+        densityIndex.setDirtyThresholds(null);
+    }
+
+    private void tick() {
+        int budget = config.getChunkCapMaxChunksPerTick();
+
+        for (World world : Bukkit.getWorlds()) {
+            if (budget <= 0) return;
+
+            int count = densityIndex.drainDirtyChunks(world, drained, budget);
+            if (!config.isWorldEnabled(world.getName())) continue;
+
+            for (int i = 0; i < count; i++) {
+                int chunkX = ChunkKeys.x(drained[i]);
+                int chunkZ = ChunkKeys.z(drained[i]);
+                plugin.getTaskScheduler().runAtChunk(world, chunkX, chunkZ, () -> {
+                    if (world.isChunkLoaded(chunkX, chunkZ)) {
+                        trim(world.getChunkAt(chunkX, chunkZ));
+                    }
+                });
+            }
+            budget -= count;
+        }
+    }
+
+    /**
+     * Remove entities over the cap from a chunk. Counts come from the chunk itself,
+     * the index only decides which chunks are worth looking at.
+     */
+    private void trim(Chunk chunk) {
+        int[] max = config.getChunkCapMax();
+        int[] threshold = config.getChunkCapThreshold();
+
+        Entity[] entities = chunk.getEntities();
+        EntityCategory[] categories = new EntityCategory[entities.length];
+        int[] counts = new int[EntityCategory.count()];
+        for (int i = 0; i < entities.length; i++) {
+            categories[i] = EntityCategory.of(entities[i]);
+            counts[categories[i].ordinal()]++;
+        }
+
+        int removed = 0;
+        for (EntityCategory category : EntityCategory.values()) {
+            int c = category.ordinal();
+            if (max[c] <= 0 || counts[c] <= threshold[c]) continue;
+
+            List<Entity> victims = new ArrayList<>();
+            for (int i = 0; i < entities.length; i++) {
+                if (categories[i] == category && scanner.isExpendable(entities[i])) {
+                    victims.add(entities[i]);
+                }
+            }
+            victims.sort(victimOrder(chunk.getWorld(), victims));
+
+            int excess = counts[c] - max[c];
+            for (int i = 0; i < victims.size() && excess > 0; i++, excess--) {
+                victims.get(i).remove();
+                removed++;
+            }
+        }
+
+        if (removed > 0) {
+            cleanupManager.recordRemovals(chunk.getWorld(), "chunk-cap", removed);
+            if (config.isDebugMode()) {
+                plugin.getLogger().info("Trimmed " + removed + " entities in chunk " + chunk.getX() + ", " + chunk.getZ()
+                        + " of " + chunk.getWorld().getName());
+            }
+        }
+    }
+
+    private Comparator<Entity> victimOrder(World world, List<Entity> victims) {
+        Comparator<Entity> byId = Comparator.comparingInt(Entity::getEntityId);
+
+        if (config.getChunkCapVictimOrder().equals("farthest")) {
+            List<Location> players = new ArrayList<>();
+            for (Player player : world.getPlayers()) {
+                players.add(player.getLocation());
+            }
+
+            Map<Entity, Double> distances = new HashMap<>();
+            for (Entity victim : victims) {
+                distances.put(victim, nearestPlayerDistanceSquared(victim.getLocation(), players));
+            }
+            return Comparator.<Entity>comparingDouble(distances::get).reversed().thenComparing(byId);
+        }
+
+        return Comparator.comparingInt(Entity::getTicksLived).reversed().thenComparing(byId);
+    }
+
+    private static double nearestPlayerDistanceSquared(Location location, List<Location> players) {
+        double nearest = Double.MAX_VALUE;
+        for (Location player : players) {
+            nearest = Math.min(nearest, player.distanceSquared(location));
+        }
+        return nearest;
+    }
+}
@@ -0,0 +1,37 @@
+package kaizenrpg.kaizenClear.managers;
+
+import java.util.Locale;
+
+/**
+ * Cleanups that automatic responses (response tiers, cleanup conditions) can run.
+ * See {@link CleanupManager#run(CleanupAction)}.
+ */
+public enum CleanupAction {
+    ITEMS,
+    CLUSTERS,
+    MONSTERS,
+    TARGETED,
+    MEMORY,
+    EMERGENCY;
+
+    /**
+     * Parse an action name, with or without a {@code cleanup_} prefix
+     * @return the action, or null if the name is unknown
+     */
+    public static CleanupAction parse(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        if (key.startsWith("cleanup_")) {
+            key = key.substring("cleanup_".length());
+        }
+        for (CleanupAction action : values()) {
+            if (action.getName().equals(key)) {
+                return action;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -2,7 +2,20 @@ package kaizenrpg.kaizenClear.managers;
 
 import kaizenrpg.kaizenClear.KaizenClear;
 import kaizenrpg.kaizenClear.database.StatisticsManager;
+import kaizenrpg.kaizenClear.jfr.RemovalBatchEvent;
+import kaizenrpg.kaizenClear.monitoring.LagProfiler;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
 import kaizenrpg.kaizenClear.scanners.EntityScanner;
+import kaizenrpg.kaizenClear.scanners.RemovalVisitors.ClusterVisitor;
+import kaizenrpg.kaizenClear.scanners.RemovalVisitors.ItemAgeVisitor;
+import kaizenrpg.kaizenClear.scanners.RemovalVisitors.MonsterVisitor;
+import kaizenrpg.kaizenClear.scanners.RemovalVisitors.RemovalVisitor;
+import kaizenrpg.kaizenClear.scanners.TimeSlicedScanner;
+import kaizenrpg.kaizenClear.scheduler.TaskScheduler;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
+import kaizenrpg.kaizenClear.tracking.ItemRegistry;
+import kaizenrpg.kaizenClear.util.ChunkKeys;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
@@ -10,26 +23,73 @@ import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Monster;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.BlockStateMeta;
+import org.bukkit.inventory.meta.BookMeta;
+import org.bukkit.inventory.meta.BundleMeta;
+import org.bukkit.inventory.meta.ItemMeta;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Runs cleanups. Every cleanup returns a future with the number of removed entities:
+ * on Paper it is already complete when returned, on Folia it completes once every
+ * region involved has finished its share of the work on its own thread.
+ */
 @Getter
 public class CleanupManager {
 
+    // Categories targeted cleanups may clear from expensive chunks
+    private static final EntityCategory[] TARGETED_CATEGORIES = {
+            EntityCategory.ITEM, EntityCategory.MONSTER, EntityCategory.PROJECTILE
+    };
+
+    // Enchantments from which gear counts as heavily modified
+    private static final int MANY_ENCHANTMENTS = 5;
+
     private final KaizenClear plugin;
     private final ConfigManager config;
     private final EntityScanner scanner;
-
-    private int lastCleanupCount = 0;
-    private long lastCleanupTime = 0;
-    private int totalCleaned = 0;
+    private final TimeSlicedScanner slicedScanner;
+    private final TaskScheduler scheduler;
+
+    // Reused by blocking fused scans so steady-state cleanups don't allocate
+    @Getter(AccessLevel.NONE)
+    private final ItemAgeVisitor itemVisitor;
+    @Getter(AccessLevel.NONE)
+    private final ClusterVisitor clusterVisitor;
+    @Getter(AccessLevel.NONE)
+    private final MonsterVisitor monsterVisitor;
+
+    // Updated from region threads on Folia, so kept free of shared locks
+    @Getter(AccessLevel.NONE)
+    private final LongAdder totalCleaned = new LongAdder();
+    private volatile int lastCleanupCount = 0;
+    private volatile long lastCleanupTime = 0;
+
+    // Memory relief runs since the heap pressure started, only the first spares dense chunks
+    @Getter(AccessLevel.NONE)
+    private int memoryReliefRuns = 0;
 
     public CleanupManager(KaizenClear plugin) {
         this.plugin = plugin;
         this.config = plugin.getConfigManager();
         this.scanner = new EntityScanner(plugin);
+        this.slicedScanner = new TimeSlicedScanner(plugin, scanner);
+        this.scheduler = plugin.getTaskScheduler();
+        this.itemVisitor = new ItemAgeVisitor(scanner, true);
+        this.clusterVisitor = new ClusterVisitor(config);
+        this.monsterVisitor = new MonsterVisitor();
     }
 
     /**
@@ -57,14 +117,11 @@ public class CleanupManager {
                 // Convert to ticks (20 ticks = 1 second)
                 long intervalTicks = interval * 20;
 
-                new BukkitRunnable() {
-                    @Override
-                    public void run() {
-                        if (config.isEnabled() && config.isItemsEnabled()) {
-                            performScheduledCleanup(worlds, broadcast, types);
-                        }
+                scheduler.runTimer(() -> {
+                    if (config.isEnabled() && config.isItemsEnabled()) {
+                        performScheduledCleanup(worlds, broadcast, types);
                     }
-                }.runTaskTimer(plugin, intervalTicks, intervalTicks);
+                }, intervalTicks, intervalTicks);
 
                 scheduleCount++;
                 plugin.getLogger().info("Cleanup schedule #" + scheduleCount + " started (interval: " + interval + "s, worlds: " + worlds + ")");
@@ -86,14 +143,11 @@ public class CleanupManager {
         long interval = 600L; // 10 minutes
         long intervalTicks = interval * 20;
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (config.isEnabled() && config.isItemsEnabled()) {
-                    performScheduledCleanup();
-                }
+        scheduler.runTimer(() -> {
+            if (config.isEnabled() && config.isItemsEnabled()) {
+                performScheduledCleanup();
             }
-        }.runTaskTimer(plugin, intervalTicks, intervalTicks);
+        }, intervalTicks, intervalTicks);
 
         plugin.getLogger().info("Default cleanup scheduler started (interval: " + interval + " seconds)");
     }
@@ -115,12 +169,7 @@ public class CleanupManager {
             broadcastMessage("§e[KaizenClear] Cleanup starting in " + warningTime + " seconds!");
 
             // Schedule actual cleanup after warning
-            new BukkitRunnable() {
-                @Override
-                public void run() {
-                    executeScheduledCleanup(worldNames, types);
-                }
-            }.runTaskLater(plugin, warningTime * 20L);
+            scheduler.runLater(() -> executeScheduledCleanup(worldNames, types), warningTime * 20L);
         } else {
             executeScheduledCleanup(worldNames, types);
         }
@@ -130,8 +179,6 @@ public class CleanupManager {
      * Execute the actual cleanup based on configuration
      */
     private void executeScheduledCleanup(List<String> worldNames, List<String> types) {
-        int totalRemoved = 0;
-
         // Determine which worlds to clean
         List<World> targetWorlds;
         if (worldNames == null || worldNames.isEmpty()) {
@@ -143,52 +190,165 @@ public class CleanupManager {
                     .toList();
         }
 
-        // Clean each world based on types
+        if (!scheduler.isFolia()) {
+            // One pass per world feeds every cleanup type at once
+            RemovalVisitor[] visitors = createVisitors(types, !config.isIncrementalScanEnabled());
+            if (config.isIncrementalScanEnabled()) {
+                executeIncrementalCleanup(targetWorlds, visitors);
+                return;
+            }
+
+            int totalRemoved = 0;
+            for (World world : targetWorlds) {
+                if (!isWorldEnabled(world)) continue;
+
+                scanner.scanWorld(world, visitors);
+                totalRemoved += collectRemoved(world, visitors);
+            }
+
+            finishScheduledCleanup(totalRemoved);
+            return;
+        }
+
+        // Folia: every type spreads its work over the region threads
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
         for (World world : targetWorlds) {
             if (!isWorldEnabled(world)) continue;
 
             for (String type : types) {
                 switch (type.toLowerCase()) {
-                    case "items" -> totalRemoved += cleanupItems(world);
-                    case "clusters" -> totalRemoved += cleanupItemClusters(world);
-                    case "monsters" -> totalRemoved += cleanupEntityType(world, Monster.class);
+                    case "items" -> results.add(cleanupItems(world));
+                    case "clusters" -> results.add(cleanupItemClusters(world));
+                    case "monsters" -> results.add(cleanupEntityType(world, Monster.class));
                 }
             }
         }
 
+        sum(results).thenAccept(this::finishScheduledCleanup);
+    }
+
+    /**
+     * Execute a scheduled cleanup with time-sliced scans, one sweep per world
+     */
+    private void executeIncrementalCleanup(List<World> targetWorlds, RemovalVisitor[] visitors) {
+        IncrementalRun run = new IncrementalRun();
+
+        for (World world : targetWorlds) {
+            if (!isWorldEnabled(world)) continue;
+
+            run.pending++;
+            // Sweeps run one after another, so the visitors can be shared between worlds
+            slicedScanner.scanWorld(world, () -> run.finish(collectRemoved(world, visitors)), visitors);
+        }
+    }
+
+    /**
+     * Tracks the sweeps of one incremental cleanup so the result is reported once
+     */
+    private class IncrementalRun {
+        private int pending = 0;
+        private int totalRemoved = 0;
+
+        private void finish(int removed) {
+            totalRemoved += removed;
+            if (--pending == 0) {
+                finishScheduledCleanup(totalRemoved);
+            }
+        }
+    }
+
+    private void finishScheduledCleanup(int totalRemoved) {
+        recordCleanup(totalRemoved);
         if (totalRemoved > 0) {
             broadcastMessage("§a[KaizenClear] Cleared " + totalRemoved + " entities!");
             plugin.getLogger().info("Scheduled cleanup complete: removed " + totalRemoved + " entities");
         }
     }
 
+    /**
+     * Build the fused-scan visitors for a schedule's cleanup types
+     * @param reuse use this manager's cached visitors; only safe for scans that
+     *              finish within the current tick
+     */
+    private RemovalVisitor[] createVisitors(List<String> types, boolean reuse) {
+        Set<String> uniqueTypes = new LinkedHashSet<>();
+        for (String type : types) {
+            uniqueTypes.add(type.toLowerCase());
+        }
+
+        List<RemovalVisitor> visitors = new ArrayList<>(uniqueTypes.size());
+        for (String type : uniqueTypes) {
+            switch (type) {
+                case "items" -> visitors.add(reuse ? itemVisitor : new ItemAgeVisitor(scanner, true));
+                case "clusters" -> visitors.add(reuse ? clusterVisitor : new ClusterVisitor(config));
+                case "monsters" -> visitors.add(reuse ? monsterVisitor : new MonsterVisitor());
+            }
+        }
+
+        return visitors.toArray(new RemovalVisitor[0]);
+    }
+
+    /**
+     * Save the per-type results of a fused pass and return the total
+     */
+    private int collectRemoved(World world, RemovalVisitor[] visitors) {
+        int removed = 0;
+        for (RemovalVisitor visitor : visitors) {
+            saveStats(world, visitor.getCleanupType(), visitor.getRemoved());
+            removed += visitor.getRemoved();
+        }
+        return removed;
+    }
+
+    /**
+     * Remove scanned entities that are still in the world and record statistics
+     */
+    private int removeEntities(World world, String cleanupType, List<? extends Entity> entities) {
+        RemovalBatchEvent event = new RemovalBatchEvent();
+        event.begin();
+        int removed = 0;
+
+        for (Entity entity : entities) {
+            // The sweep may have finished a few ticks after this entity was seen
+            if (entity.isValid()) {
+                entity.remove();
+                removed++;
+            }
+        }
+
+        event.finish(world.getName(), cleanupType, entities.size(), removed);
+        saveStats(world, cleanupType, removed);
+        return removed;
+    }
+
     /**
      * Clean items in all configured worlds
      */
-    public void cleanupAllWorlds() {
-        int totalRemoved = 0;
+    public CompletableFuture<Integer> cleanupAllWorlds() {
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
 
         for (World world : Bukkit.getWorlds()) {
             if (isWorldEnabled(world)) {
-                totalRemoved += cleanupItems(world);
+                results.add(cleanupItems(world));
             }
         }
 
-        lastCleanupCount = totalRemoved;
-        lastCleanupTime = System.currentTimeMillis();
-        totalCleaned += totalRemoved;
+        return sum(results).thenApply(totalRemoved -> {
+            recordCleanup(totalRemoved);
 
-        if (config.isBroadcastWarnings() && totalRemoved > 0) {
-            broadcastMessage("§a[KaizenClear] Cleared " + totalRemoved + " items!");
-        }
+            if (config.isBroadcastWarnings() && totalRemoved > 0) {
+                broadcastMessage("§a[KaizenClear] Cleared " + totalRemoved + " items!");
+            }
 
-        plugin.getLogger().info("Cleanup complete: removed " + totalRemoved + " items");
+            plugin.getLogger().info("Cleanup complete: removed " + totalRemoved + " items");
+            return totalRemoved;
+        });
     }
 
     /**
      * Clean items in a specific world (respects age check)
      */
-    public int cleanupItems(World world) {
+    public CompletableFuture<Integer> cleanupItems(World world) {
         return cleanupItems(world, true);
     }
 
@@ -196,57 +356,45 @@ public class CleanupManager {
      * Clean items in a specific world
      * @param checkAge if true, only removes items older than configured lifetime
      */
-    public int cleanupItems(World world, boolean checkAge) {
-        List<Item> items = scanner.scanItems(world, checkAge);
-        int removed = 0;
-
-        for (Item item : items) {
-            item.remove();
-            removed++;
+    public CompletableFuture<Integer> cleanupItems(World world, boolean checkAge) {
+        if (scheduler.isFolia()) {
+            Predicate<Item> filter = checkAge ? scanner::shouldRemoveItem : scanner::shouldForceRemoveItem;
+            return removeItemsByRegion(world, filter, "items");
         }
 
-        // Save statistics to database
-        StatisticsManager statsManager = plugin.getStatisticsManager();
-        if (statsManager != null && removed > 0) {
-            statsManager.saveCleanupStats(world, "items", removed);
-        }
-
-        return removed;
+        List<Item> items = scanner.scanItems(world, checkAge);
+        return CompletableFuture.completedFuture(removeEntities(world, "items", items));
     }
 
     /**
      * Force clean ALL items in a world (ignores age, respects whitelist)
      */
-    public int forceCleanupItems(World world) {
+    public CompletableFuture<Integer> forceCleanupItems(World world) {
         return cleanupItems(world, false);
     }
 
     /**
      * Clean item clusters in a world
      */
-    public int cleanupItemClusters(World world) {
+    public CompletableFuture<Integer> cleanupItemClusters(World world) {
         List<Item> clusteredItems = scanner.scanItemClusters(world);
-        int removed = 0;
-
-        for (Item item : clusteredItems) {
-            item.remove();
-            removed++;
-        }
 
-        // Save statistics to database
-        StatisticsManager statsManager = plugin.getStatisticsManager();
-        if (statsManager != null && removed > 0) {
-            statsManager.saveCleanupStats(world, "clusters", removed);
-        }
-
-        plugin.getLogger().info("Removed " + removed + " clustered items in " + world.getName());
-        return removed;
+        return removeEach(world, "clusters", clusteredItems).thenApply(removed -> {
+            plugin.getLogger().info("Removed " + removed + " clustered items in " + world.getName());
+            return removed;
+        });
     }
 
     /**
      * Clean all entities of a specific type
      */
-    public int cleanupEntityType(World world, Class<? extends Entity> entityClass) {
+    public CompletableFuture<Integer> cleanupEntityType(World world, Class<? extends Entity> entityClass) {
+        String type = entityClass.getSimpleName().toLowerCase();
+
+        if (scheduler.isFolia()) {
+            return removeAroundPlayers(world, entityClass, type);
+        }
+
         Collection<? extends Entity> entities = world.getEntitiesByClass(entityClass);
         int removed = 0;
 
@@ -261,43 +409,386 @@ public class CleanupManager {
             }
         }
 
-        // Save statistics to database
-        StatisticsManager statsManager = plugin.getStatisticsManager();
-        if (statsManager != null && removed > 0) {
-            String type = entityClass.getSimpleName().toLowerCase();
-            statsManager.saveCleanupStats(world, type, removed);
-        }
+        saveStats(world, type, removed);
+        return CompletableFuture.completedFuture(removed);
+    }
 
-        return removed;
+    /**
+     * Run an automatic cleanup action in all enabled worlds
+     */
+    public CompletableFuture<Integer> run(CleanupAction action) {
+        return switch (action) {
+            case ITEMS -> cleanupAllWorlds();
+            case CLUSTERS, MONSTERS -> {
+                List<CompletableFuture<Integer>> results = new ArrayList<>();
+                for (World world : Bukkit.getWorlds()) {
+                    if (!isWorldEnabled(world)) continue;
+                    results.add(action == CleanupAction.CLUSTERS
+                            ? cleanupItemClusters(world)
+                            : cleanupEntityType(world, Monster.class));
+                }
+                yield sum(results);
+            }
+            case TARGETED -> {
+                // Without a profile, or nothing in it worth targeting, clear items everywhere
+                List<LagProfiler.ChunkCost> targets = findTopOffenders(config.getProfilerTargetChunks());
+                yield targets.isEmpty()
+                        ? cleanupAllWorlds()
+                        : clearTopOffenders(targets, targetedMask(plugin.getLagProfiler()));
+            }
+            case MEMORY -> memoryReliefCleanup();
+            case EMERGENCY -> emergencyCleanup();
+        };
     }
 
     /**
      * Emergency cleanup when TPS is critical
      */
-    public void emergencyCleanup() {
+    public CompletableFuture<Integer> emergencyCleanup() {
+        // Falls through to the full cleanup when no chunk has a measurable cost
+        List<LagProfiler.ChunkCost> targets = config.isProfilerTargetedEmergency()
+                ? findTopOffenders(config.getProfilerTargetChunks()) : List.of();
+        if (!targets.isEmpty()) {
+            plugin.getLogger().warning("Performing targeted emergency cleanup!");
+            return clearTopOffenders(targets, targetedMask(plugin.getLagProfiler())).thenApply(totalRemoved -> {
+                recordCleanup(totalRemoved);
+                plugin.getLogger().info("Targeted emergency cleanup removed " + totalRemoved + " entities");
+                return totalRemoved;
+            });
+        }
+
         plugin.getLogger().warning("Performing emergency cleanup!");
         broadcastMessage("§c[KaizenClear] Emergency cleanup in progress!");
 
-        int totalRemoved = 0;
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
 
         for (World world : Bukkit.getWorlds()) {
             // Remove all items
-            totalRemoved += cleanupItems(world);
+            results.add(cleanupItems(world));
 
             // Remove excess monsters
-            totalRemoved += cleanupEntityType(world, Monster.class);
+            results.add(cleanupEntityType(world, Monster.class));
         }
 
-        broadcastMessage("§a[KaizenClear] Emergency cleanup complete! Removed " + totalRemoved + " entities.");
-        plugin.getLogger().info("Emergency cleanup removed " + totalRemoved + " entities");
+        return sum(results).thenApply(totalRemoved -> {
+            recordCleanup(totalRemoved);
+            broadcastMessage("§a[KaizenClear] Emergency cleanup complete! Removed " + totalRemoved + " entities.");
+            plugin.getLogger().info("Emergency cleanup removed " + totalRemoved + " entities");
+            return totalRemoved;
+        });
+    }
+
+    /**
+     * The costliest chunks of a ready profile, or none when no targeted category
+     * has a measurable cost
+     */
+    private List<LagProfiler.ChunkCost> findTopOffenders(int chunks) {
+        LagProfiler profiler = plugin.getLagProfiler();
+        if (profiler == null || !profiler.isReady() || targetedMask(profiler) == 0) {
+            return List.of();
+        }
+        return profiler.getTopChunks(chunks);
+    }
+
+    private static int targetedMask(LagProfiler profiler) {
+        int mask = 0;
+        for (EntityCategory category : TARGETED_CATEGORIES) {
+            if (profiler.getCostPerEntity(category) > 0) {
+                mask |= category.mask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Clear the chunks the lag profiler estimates to cost the most tick time.
+     * Only items, monsters and projectiles are removed, and only from categories
+     * with a measurable cost; everything players care about is kept.
+     */
+    private CompletableFuture<Integer> clearTopOffenders(List<LagProfiler.ChunkCost> targets, int mask) {
+        Map<World, List<Long>> byWorld = new HashMap<>();
+        for (LagProfiler.ChunkCost chunk : targets) {
+            byWorld.computeIfAbsent(chunk.getWorld(), w -> new ArrayList<>()).add(ChunkKeys.pack(chunk.getX(), chunk.getZ()));
+        }
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (Map.Entry<World, List<Long>> entry : byWorld.entrySet()) {
+            results.add(clearChunks(entry.getKey(), entry.getValue(), mask, "targeted"));
+        }
+
+        return sum(results);
+    }
+
+    /**
+     * Relieve heap pressure in two steps. The first run only removes items carrying
+     * large item data (filled containers, books, heavily modified gear); if the
+     * pressure is still there when it runs again, the densest chunks are cleared too.
+     * Whitelisted, bypassed and otherwise protected entities are kept.
+     */
+    public CompletableFuture<Integer> memoryReliefCleanup() {
+        boolean denseChunks = memoryReliefRuns++ > 0;
+        int largeItemBytes = config.getMemoryReliefLargeItemBytes();
+        Predicate<Item> large = item -> scanner.shouldForceRemoveItem(item) && isLargeItem(item, largeItemBytes);
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        ChunkDensityIndex densityIndex = plugin.getDensityIndex();
+        int mask = 0;
+        for (EntityCategory category : TARGETED_CATEGORIES) {
+            mask |= category.mask();
+        }
+
+        for (World world : Bukkit.getWorlds()) {
+            if (!isWorldEnabled(world)) continue;
+
+            if (scheduler.isFolia()) {
+                results.add(removeItemsByRegion(world, large, "memory"));
+            } else {
+                List<Item> items = new ArrayList<>();
+                for (Item item : scanner.getItems(world)) {
+                    if (large.test(item)) items.add(item);
+                }
+                results.add(removeEach(world, "memory", items));
+            }
+
+            if (denseChunks && densityIndex != null) {
+                List<Long> dense = new ArrayList<>();
+                for (ChunkDensityIndex.ChunkCount chunk : densityIndex.getDensestChunks(world, ChunkDensityIndex.ALL, config.getMemoryReliefDenseChunks())) {
+                    dense.add(ChunkKeys.pack(chunk.getX(), chunk.getZ()));
+                }
+                results.add(clearChunks(world, dense, mask, "memory"));
+            }
+        }
+
+        return sum(results).thenApply(totalRemoved -> {
+            recordCleanup(totalRemoved);
+            plugin.getLogger().info("Memory relief cleanup removed " + totalRemoved + " entities"
+                    + (denseChunks ? " including dense chunks" : ""));
+            return totalRemoved;
+        });
+    }
+
+    /**
+     * The heap pressure is gone, the next memory relief starts with large items again
+     */
+    public void resetMemoryRelief() {
+        memoryReliefRuns = 0;
+    }
+
+    private static boolean isLargeItem(Item item, int largeItemBytes) {
+        ItemStack stack = item.getItemStack();
+        // Items without meta are a few bytes
+        if (!stack.hasItemMeta()) return false;
+
+        // Only serialize the kinds of meta that can grow to kilobytes
+        ItemMeta meta = stack.getItemMeta();
+        boolean mayBeLarge = meta instanceof BlockStateMeta || meta instanceof BookMeta || meta instanceof BundleMeta
+                || meta.hasAttributeModifiers() || meta.getEnchants().size() >= MANY_ENCHANTMENTS;
+        return mayBeLarge && stack.serializeAsBytes().length >= largeItemBytes;
+    }
+
+    /**
+     * Remove the expendable entities of the masked categories from chunks, each on its own thread
+     */
+    private CompletableFuture<Integer> clearChunks(World world, List<Long> chunkKeys, int categoryMask, String cleanupType) {
+        ParallelRemoval removal = new ParallelRemoval(world, cleanupType, chunkKeys.size());
+
+        for (long key : chunkKeys) {
+            int chunkX = ChunkKeys.x(key);
+            int chunkZ = ChunkKeys.z(key);
+            scheduler.runAtChunk(world, chunkX, chunkZ, () -> {
+                try {
+                    if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+                    for (Entity entity : world.getChunkAt(chunkX, chunkZ).getEntities()) {
+                        if ((EntityCategory.of(entity).mask() & categoryMask) != 0) {
+                            removal.removeIf(entity, scanner::isExpendable);
+                        }
+                    }
+                } finally {
+                    removal.done();
+                }
+            });
+        }
+
+        return removal.result;
+    }
+
+    /**
+     * Folia: let every region that owns registered items filter and remove them on its own thread
+     */
+    private CompletableFuture<Integer> removeItemsByRegion(World world, Predicate<Item> filter, String cleanupType) {
+        ItemRegistry registry = plugin.getItemRegistry();
+        long[] chunkKeys = registry.getChunkKeys(world);
+        ParallelRemoval removal = new ParallelRemoval(world, cleanupType, chunkKeys.length);
+
+        for (long key : chunkKeys) {
+            int chunkX = ChunkKeys.x(key);
+            int chunkZ = ChunkKeys.z(key);
+
+            scheduler.runAtChunk(world, chunkX, chunkZ, () -> {
+                try {
+                    for (Item item : registry.getItemsInChunk(world, chunkX, chunkZ)) {
+                        removal.removeIf(item, filter);
+                    }
+                } finally {
+                    removal.done();
+                }
+            });
+        }
+
+        return removal.result;
+    }
+
+    /**
+     * Remove already selected entities, each on the thread that owns it
+     */
+    private CompletableFuture<Integer> removeEach(World world, String cleanupType, List<? extends Entity> entities) {
+        if (!scheduler.isFolia()) {
+            return CompletableFuture.completedFuture(removeEntities(world, cleanupType, entities));
+        }
+
+        ParallelRemoval removal = new ParallelRemoval(world, cleanupType, 1);
+        try {
+            for (Entity entity : entities) {
+                removal.removeIf(entity, e -> true);
+            }
+        } finally {
+            removal.done();
+        }
+        return removal.result;
+    }
+
+    /**
+     * Folia: entity types have no registry, so each player's region removes the
+     * matching entities around that player (entities away from players don't tick)
+     */
+    private CompletableFuture<Integer> removeAroundPlayers(World world, Class<? extends Entity> entityClass, String cleanupType) {
+        List<Player> players = world.getPlayers();
+        ParallelRemoval removal = new ParallelRemoval(world, cleanupType, players.size());
+        double radius = world.getSimulationDistance() * 16.0;
+
+        for (Player player : players) {
+            scheduler.runForEntity(player, () -> {
+                try {
+                    for (Entity entity : player.getNearbyEntities(radius, radius, radius)) {
+                        if (entity instanceof Monster && entityClass.isInstance(entity)
+                                && Bukkit.isOwnedByCurrentRegion(entity) && entity.isValid()) {
+                            entity.remove();
+                            removal.removed.increment();
+                        }
+                    }
+                } finally {
+                    removal.done();
+                }
+            }, removal::done);
+        }
+
+        return removal.result;
+    }
+
+    /**
+     * Counts the outstanding region/entity tasks of one parallel removal and
+     * completes the result once the last one has finished
+     */
+    private class ParallelRemoval {
+        private final World world;
+        private final String cleanupType;
+        private final LongAdder removed = new LongAdder();
+        private final AtomicInteger candidates = new AtomicInteger();
+        private final AtomicInteger pending;
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        private final RemovalBatchEvent event = new RemovalBatchEvent();
+
+        private ParallelRemoval(World world, String cleanupType, int tasks) {
+            this.world = world;
+            this.cleanupType = cleanupType;
+            this.pending = new AtomicInteger(tasks);
+            event.begin();
+            if (tasks == 0) {
+                result.complete(0);
+            }
+        }
+
+        /**
+         * Remove an entity if it matches, hopping to its owning region first when needed
+         */
+        private <T extends Entity> void removeIf(T entity, Predicate<? super T> filter) {
+            candidates.incrementAndGet();
+            if (Bukkit.isOwnedByCurrentRegion(entity)) {
+                if (entity.isValid() && filter.test(entity)) {
+                    entity.remove();
+                    removed.increment();
+                }
+                return;
+            }
+
+            pending.incrementAndGet();
+            scheduler.runForEntity(entity, () -> {
+                try {
+                    if (filter.test(entity)) {
+                        entity.remove();
+                        removed.increment();
+                    }
+                } finally {
+                    done();
+                }
+            }, this::done);
+        }
+
+        private void done() {
+            if (pending.decrementAndGet() == 0) {
+                int total = (int) removed.sum();
+                event.finish(world.getName(), cleanupType, candidates.get(), total);
+                saveStats(world, cleanupType, total);
+                result.complete(total);
+            }
+        }
+    }
+
+    /**
+     * Add up the results of several cleanups
+     */
+    private static CompletableFuture<Integer> sum(List<CompletableFuture<Integer>> results) {
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> results.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    /**
+     * Save cleanup statistics to database
+     */
+    private void saveStats(World world, String cleanupType, int removed) {
+        plugin.getMetrics().recordRemovals(cleanupType, removed);
+        StatisticsManager statsManager = plugin.getStatisticsManager();
+        if (statsManager != null && removed > 0) {
+            statsManager.saveCleanupStats(world, cleanupType, removed);
+        }
+    }
+
+    /**
+     * Record entities removed outside of cleanup runs, e.g. by item expiry or chunk caps
+     */
+    public void recordRemovals(World world, String cleanupType, int removed) {
+        saveStats(world, cleanupType, removed);
+        totalCleaned.add(removed);
+    }
+
+    /**
+     * Remember the result of a complete cleanup run
+     */
+    private void recordCleanup(int removed) {
+        lastCleanupCount = removed;
+        lastCleanupTime = System.currentTimeMillis();
+        totalCleaned.add(removed);
+    }
+
+    public long getTotalCleaned() {
+        return totalCleaned.sum();
     }
 
     /**
      * Check if a world has cleanup enabled
      */
     private boolean isWorldEnabled(World world) {
-        String path = "items.world-settings." + world.getName() + ".enabled";
-        return config.getConfig().getBoolean(path, true);
+        return config.isWorldEnabled(world.getName());
     }
 
     /**
@@ -318,7 +809,7 @@ public class CleanupManager {
         long timeSince = (System.currentTimeMillis() - lastCleanupTime) / 1000;
         return String.format(
                 "Last cleanup: %d items | %d seconds ago | Total: %d",
-                lastCleanupCount, timeSince, totalCleaned
+                lastCleanupCount, timeSince, getTotalCleaned()
         );
     }
 }
@@ -1,7 +1,13 @@
 package kaizenrpg.kaizenClear.managers;
 
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.filters.MaterialRules;
+import kaizenrpg.kaizenClear.monitoring.CleanupCondition;
+import kaizenrpg.kaizenClear.monitoring.ResponseTier;
+import kaizenrpg.kaizenClear.monitoring.TickRecorder;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
 import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -10,7 +16,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Getter
 public class ConfigManager {
@@ -27,9 +41,34 @@ public class ConfigManager {
     // TPS settings
     private boolean tpsMonitoring;
     private int tpsUpdateInterval;
+    private int tpsHistorySize;
     private double tpsWarningThreshold;
     private double tpsCriticalThreshold;
     private boolean autoCleanupEnabled;
+    private boolean msptTriggerEnabled;
+    private int msptTriggerWindow;
+    private double msptTriggerPercentile;
+    private double msptWarningThreshold;
+    private double msptCriticalThreshold;
+    private int responseHealthySeconds;
+    private List<ResponseTier> responseTiers;
+    private List<CleanupCondition> cleanupConditions;
+    private boolean predictiveEnabled;
+    private int predictiveWindowSeconds;
+    private int predictiveLookaheadSeconds;
+    private double predictiveMinConfidence;
+    private boolean profilerEnabled;
+    private boolean profilerTargetedEmergency;
+    private int profilerTargetChunks;
+    private boolean memoryReliefEnabled;
+    private double memoryReliefThreshold;
+    private int memoryReliefSustainSeconds;
+    private int memoryReliefLargeItemBytes;
+    private int memoryReliefDenseChunks;
+    private boolean metricsEnabled;
+    private String metricsBind;
+    private int metricsPort;
+    private String metricsPath;
 
     // Item settings
     private boolean itemsEnabled;
@@ -38,6 +77,12 @@ public class ConfigManager {
     private boolean broadcastWarnings;
     private List<String> itemWhitelist;
     private List<String> itemBlacklist;
+    private Map<String, Integer> materialLifetimes;
+    private MaterialRules materialRules = MaterialRules.empty();
+    private String itemExpiryMode;
+    private int expiryMaxPerTick;
+    private Map<String, Integer> worldItemLifetimes;
+    private Set<String> disabledWorlds;
 
     // Entity settings
     private boolean entitiesEnabled;
@@ -45,6 +90,19 @@ public class ConfigManager {
     private int itemClusterSize;
     private int itemClusterRadius;
 
+    // Chunk caps, indexed by EntityCategory ordinal (0 = no cap)
+    private boolean chunkCapsEnabled;
+    private String chunkCapVictimOrder;
+    private int chunkCapMaxChunksPerTick;
+    private int[] chunkCapMax;
+    private int[] chunkCapThreshold;
+
+    // Performance settings
+    private boolean incrementalScanEnabled;
+    private long scanTickBudgetNanos;
+    private int bypassRefreshInterval;
+    private int densityReconcileChunksPerTick;
+
     // Database settings
     private String databaseType;
     private String databaseHost;
@@ -53,6 +111,22 @@ public class ConfigManager {
     private String databaseUsername;
     private String databasePassword;
     private int databasePoolSize;
+    private String databaseServerId;
+    private int databaseBatchSize;
+    private int databaseFlushInterval;
+    private int databaseQueueCapacity;
+    private String mongoWriteAcknowledgement;
+    private boolean mongoWriteJournal;
+    private boolean databaseSpoolEnabled;
+    private int databaseSpoolMaxSize;
+    private boolean historyEnabled;
+    private int historyMaxSize;
+    private boolean rollupEnabled;
+    private int rollupInterval;
+    private int retentionRaw;
+    private int retentionMinute;
+    private int retentionHour;
+    private int retentionDay;
 
     // GUI settings
     private boolean guiEnabled;
@@ -96,9 +170,36 @@ public class ConfigManager {
         // Load TPS settings
         tpsMonitoring = config.getBoolean("tps.monitoring", true);
         tpsUpdateInterval = config.getInt("tps.update-interval", 20);
+        tpsHistorySize = config.getInt("tps.history-size", 10);
         tpsWarningThreshold = config.getDouble("tps.warning-threshold", 18.0);
         tpsCriticalThreshold = config.getDouble("tps.critical-threshold", 15.0);
         autoCleanupEnabled = config.getBoolean("tps.auto-cleanup-enabled", true);
+        msptTriggerEnabled = config.getBoolean("tps.mspt-trigger.enabled", true);
+        msptTriggerWindow = TickRecorder.parseWindow(config.getString("tps.mspt-trigger.window", "5s"));
+        msptTriggerPercentile = config.getDouble("tps.mspt-trigger.percentile", 95.0);
+        msptWarningThreshold = config.getDouble("tps.mspt-trigger.warning-mspt", 50.0);
+        msptCriticalThreshold = config.getDouble("tps.mspt-trigger.critical-mspt", 100.0);
+        responseHealthySeconds = config.getInt("tps.response-ladder.healthy-time", 60);
+        predictiveEnabled = config.getBoolean("tps.predictive.enabled", false);
+        predictiveWindowSeconds = config.getInt("tps.predictive.window", 30);
+        predictiveLookaheadSeconds = config.getInt("tps.predictive.lookahead", 30);
+        predictiveMinConfidence = config.getDouble("tps.predictive.min-confidence", 0.6);
+        profilerEnabled = config.getBoolean("tps.profiler.enabled", true);
+        profilerTargetedEmergency = config.getBoolean("tps.profiler.targeted-emergency", false);
+        profilerTargetChunks = config.getInt("tps.profiler.target-chunks", 10);
+
+        // Memory settings
+        memoryReliefEnabled = config.getBoolean("memory.relief.enabled", false);
+        memoryReliefThreshold = config.getDouble("memory.relief.old-gen-threshold", 85.0);
+        memoryReliefSustainSeconds = config.getInt("memory.relief.sustain", 60);
+        memoryReliefLargeItemBytes = config.getInt("memory.relief.large-item-bytes", 8192);
+        memoryReliefDenseChunks = config.getInt("memory.relief.dense-chunks", 10);
+
+        // Metrics endpoint
+        metricsEnabled = config.getBoolean("metrics.enabled", false);
+        metricsBind = config.getString("metrics.bind", "127.0.0.1");
+        metricsPort = config.getInt("metrics.port", 9225);
+        metricsPath = config.getString("metrics.path", "/metrics");
 
         // Load item settings
         itemsEnabled = config.getBoolean("items.enabled", true);
@@ -107,6 +208,31 @@ public class ConfigManager {
         broadcastWarnings = config.getBoolean("items.broadcast-warnings", true);
         itemWhitelist = config.getStringList("items.whitelist");
         itemBlacklist = config.getStringList("items.blacklist");
+        materialLifetimes = new LinkedHashMap<>();
+        ConfigurationSection lifetimesSection = config.getConfigurationSection("items.material-lifetimes");
+        if (lifetimesSection != null) {
+            for (String key : lifetimesSection.getKeys(false)) {
+                materialLifetimes.put(key, lifetimesSection.getInt(key));
+            }
+        }
+
+        itemExpiryMode = config.getString("items.expiry-mode", "wheel").toLowerCase();
+        expiryMaxPerTick = config.getInt("items.expiry-max-per-tick", 250);
+
+        // Per-world settings are looked up for every item, so flatten them once
+        worldItemLifetimes = new HashMap<>();
+        disabledWorlds = new HashSet<>();
+        ConfigurationSection worldsSection = config.getConfigurationSection("items.world-settings");
+        if (worldsSection != null) {
+            for (String worldName : worldsSection.getKeys(false)) {
+                if (worldsSection.contains(worldName + ".lifetime")) {
+                    worldItemLifetimes.put(worldName, worldsSection.getInt(worldName + ".lifetime"));
+                }
+                if (!worldsSection.getBoolean(worldName + ".enabled", true)) {
+                    disabledWorlds.add(worldName);
+                }
+            }
+        }
 
         // Load entity settings
         entitiesEnabled = config.getBoolean("entities.enabled", true);
@@ -114,6 +240,22 @@ public class ConfigManager {
         itemClusterSize = config.getInt("entities.types.items.cluster-size", 20);
         itemClusterRadius = config.getInt("entities.types.items.cluster-radius", 5);
 
+        // Load chunk cap settings
+        chunkCapsEnabled = config.getBoolean("entities.chunk-caps.enabled", false);
+        chunkCapVictimOrder = config.getString("entities.chunk-caps.victim-order", "oldest").toLowerCase();
+        chunkCapMaxChunksPerTick = config.getInt("entities.chunk-caps.max-chunks-per-tick", 4);
+        chunkCapMax = new int[EntityCategory.count()];
+        chunkCapThreshold = new int[EntityCategory.count()];
+        loadChunkCap(EntityCategory.MONSTER, "monsters");
+        loadChunkCap(EntityCategory.ANIMAL, "animals");
+        loadChunkCap(EntityCategory.ITEM, "items");
+
+        // Load performance settings
+        incrementalScanEnabled = config.getBoolean("performance.incremental-scan.enabled", true);
+        scanTickBudgetNanos = config.getLong("performance.incremental-scan.tick-budget", 2_000_000L);
+        bypassRefreshInterval = config.getInt("performance.bypass-refresh-interval", 30);
+        densityReconcileChunksPerTick = config.getInt("performance.density-index.reconcile-chunks-per-tick", 8);
+
         // Load database settings
         databaseType = config.getString("database.type", "none");
         databaseHost = config.getString("database.host", "localhost");
@@ -122,6 +264,22 @@ public class ConfigManager {
         databaseUsername = config.getString("database.username", "root");
         databasePassword = config.getString("database.password", "password");
         databasePoolSize = config.getInt("database.pool-size", 10);
+        databaseServerId = config.getString("database.server-id", "").trim();
+        databaseBatchSize = config.getInt("database.batch.size", 100);
+        databaseFlushInterval = config.getInt("database.batch.flush-interval", 5);
+        databaseQueueCapacity = config.getInt("database.batch.queue-capacity", 10000);
+        mongoWriteAcknowledgement = config.getString("database.mongodb.write-concern", "1");
+        mongoWriteJournal = config.getBoolean("database.mongodb.journal", false);
+        databaseSpoolEnabled = config.getBoolean("database.spool.enabled", true);
+        databaseSpoolMaxSize = config.getInt("database.spool.max-size", 16);
+        historyEnabled = config.getBoolean("database.history.enabled", true);
+        historyMaxSize = config.getInt("database.history.max-size", 64);
+        rollupEnabled = config.getBoolean("database.rollup.enabled", true);
+        rollupInterval = config.getInt("database.rollup.interval", 10);
+        retentionRaw = config.getInt("database.rollup.retention.raw", 7);
+        retentionMinute = config.getInt("database.rollup.retention.minute", 30);
+        retentionHour = config.getInt("database.rollup.retention.hour", 365);
+        retentionDay = config.getInt("database.rollup.retention.day", 0);
 
         // Load GUI settings
         guiEnabled = config.getBoolean("gui.enabled", true);
@@ -131,6 +289,13 @@ public class ConfigManager {
         // Validate configuration values
         validateConfig();
 
+        // Compile item rules into per-material lookup tables
+        materialRules = MaterialRules.compile(itemWhitelist, itemBlacklist, materialLifetimes, plugin.getLogger());
+
+        // Read the response ladder, built from the TPS and MSPT thresholds when none is configured
+        responseTiers = loadResponseTiers();
+        cleanupConditions = loadCleanupConditions();
+
         if (debugMode) {
             plugin.getLogger().info("Configuration loaded successfully");
         }
@@ -161,6 +326,94 @@ public class ConfigManager {
             hasIssues = true;
         }
 
+        // Validate MSPT trigger
+        if (msptTriggerWindow < 0) {
+            plugin.getLogger().warning("Invalid MSPT trigger window. Must be 5s, 1m or 5m. Using default: 5s");
+            msptTriggerWindow = TickRecorder.FIVE_SECONDS;
+            hasIssues = true;
+        }
+
+        if (msptTriggerPercentile <= 0 || msptTriggerPercentile > 100) {
+            plugin.getLogger().warning("Invalid MSPT trigger percentile (" + msptTriggerPercentile + "). Must be between 0-100. Using default: 95");
+            msptTriggerPercentile = 95.0;
+            hasIssues = true;
+        }
+
+        if (msptWarningThreshold <= 0 || msptCriticalThreshold <= msptWarningThreshold) {
+            plugin.getLogger().warning("MSPT thresholds must be positive with critical above warning. Using defaults: 50/100");
+            msptWarningThreshold = 50.0;
+            msptCriticalThreshold = 100.0;
+            hasIssues = true;
+        }
+
+        if (responseHealthySeconds <= 0) {
+            plugin.getLogger().warning("Invalid response ladder healthy-time (" + responseHealthySeconds + "). Must be positive. Using default: 60");
+            responseHealthySeconds = 60;
+            hasIssues = true;
+        }
+
+        // Validate predictive cleanup
+        if (predictiveWindowSeconds <= 0) {
+            plugin.getLogger().warning("Invalid predictive window (" + predictiveWindowSeconds + "). Must be positive. Using default: 30");
+            predictiveWindowSeconds = 30;
+            hasIssues = true;
+        }
+
+        if (predictiveLookaheadSeconds <= 0) {
+            plugin.getLogger().warning("Invalid predictive lookahead (" + predictiveLookaheadSeconds + "). Must be positive. Using default: 30");
+            predictiveLookaheadSeconds = 30;
+            hasIssues = true;
+        }
+
+        if (predictiveMinConfidence < 0 || predictiveMinConfidence > 1) {
+            plugin.getLogger().warning("Invalid predictive min-confidence (" + predictiveMinConfidence + "). Must be between 0-1. Using default: 0.6");
+            predictiveMinConfidence = 0.6;
+            hasIssues = true;
+        }
+
+        if (profilerTargetChunks <= 0) {
+            plugin.getLogger().warning("Invalid profiler target chunks (" + profilerTargetChunks + "). Must be positive. Using default: 10");
+            profilerTargetChunks = 10;
+            hasIssues = true;
+        }
+
+        // Validate memory relief
+        if (memoryReliefThreshold <= 0 || memoryReliefThreshold > 100) {
+            plugin.getLogger().warning("Invalid memory relief threshold (" + memoryReliefThreshold + "). Must be between 0-100. Using default: 85");
+            memoryReliefThreshold = 85.0;
+            hasIssues = true;
+        }
+
+        if (memoryReliefSustainSeconds <= 0) {
+            plugin.getLogger().warning("Invalid memory relief sustain (" + memoryReliefSustainSeconds + "). Must be positive. Using default: 60");
+            memoryReliefSustainSeconds = 60;
+            hasIssues = true;
+        }
+
+        if (memoryReliefLargeItemBytes <= 0) {
+            plugin.getLogger().warning("Invalid large item size (" + memoryReliefLargeItemBytes + "). Must be positive. Using default: 8192");
+            memoryReliefLargeItemBytes = 8192;
+            hasIssues = true;
+        }
+
+        if (memoryReliefDenseChunks < 0) {
+            plugin.getLogger().warning("Invalid memory relief dense chunks (" + memoryReliefDenseChunks + "). Must be 0 or more. Using default: 10");
+            memoryReliefDenseChunks = 10;
+            hasIssues = true;
+        }
+
+        if (metricsPort < 1 || metricsPort > 65535) {
+            plugin.getLogger().warning("Invalid metrics port (" + metricsPort + "). Must be between 1 and 65535. Using default: 9225");
+            metricsPort = 9225;
+            hasIssues = true;
+        }
+
+        if (!metricsPath.startsWith("/")) {
+            plugin.getLogger().warning("Invalid metrics path (" + metricsPath + "). Must start with /. Using default: /metrics");
+            metricsPath = "/metrics";
+            hasIssues = true;
+        }
+
         // Validate item lifetime
         if (defaultItemLifetime <= 0) {
             plugin.getLogger().warning("Invalid item lifetime (" + defaultItemLifetime + "). Must be positive. Using default: 300");
@@ -172,6 +425,24 @@ public class ConfigManager {
             plugin.getLogger().warning("Item lifetime is very short (" + defaultItemLifetime + "s). Recommended: 180-600 seconds");
         }
 
+        worldItemLifetimes.entrySet().removeIf(entry -> {
+            if (entry.getValue() > 0) return false;
+            plugin.getLogger().warning("Invalid item lifetime for world " + entry.getKey() + " (" + entry.getValue() + "). Must be positive. Using default: " + defaultItemLifetime);
+            return true;
+        });
+
+        if (!itemExpiryMode.equals("wheel") && !itemExpiryMode.equals("scan")) {
+            plugin.getLogger().warning("Invalid item expiry mode (" + itemExpiryMode + "). Must be wheel or scan. Using default: wheel");
+            itemExpiryMode = "wheel";
+            hasIssues = true;
+        }
+
+        if (expiryMaxPerTick <= 0) {
+            plugin.getLogger().warning("Invalid expiry max per tick (" + expiryMaxPerTick + "). Must be positive. Using default: 250");
+            expiryMaxPerTick = 250;
+            hasIssues = true;
+        }
+
         // Validate warning time
         if (warningBeforeClear < 0) {
             plugin.getLogger().warning("Invalid warning time (" + warningBeforeClear + "). Must be non-negative. Using default: 30");
@@ -204,6 +475,52 @@ public class ConfigManager {
             hasIssues = true;
         }
 
+        // Validate incremental scan budget
+        if (scanTickBudgetNanos <= 0) {
+            plugin.getLogger().warning("Invalid scan tick budget (" + scanTickBudgetNanos + "ns). Must be positive. Using default: 2000000");
+            scanTickBudgetNanos = 2_000_000L;
+            hasIssues = true;
+        }
+
+        if (scanTickBudgetNanos > 25_000_000L) {
+            plugin.getLogger().warning("Scan tick budget is very large (" + scanTickBudgetNanos + "ns). Recommended: 1000000-5000000");
+        }
+
+        if (bypassRefreshInterval <= 0) {
+            plugin.getLogger().warning("Invalid bypass refresh interval (" + bypassRefreshInterval + "). Must be positive. Using default: 30");
+            bypassRefreshInterval = 30;
+            hasIssues = true;
+        }
+
+        if (densityReconcileChunksPerTick <= 0) {
+            plugin.getLogger().warning("Invalid density reconcile rate (" + densityReconcileChunksPerTick + "). Must be positive. Using default: 8");
+            densityReconcileChunksPerTick = 8;
+            hasIssues = true;
+        }
+
+        // Validate chunk caps
+        if (!chunkCapVictimOrder.equals("oldest") && !chunkCapVictimOrder.equals("farthest")) {
+            plugin.getLogger().warning("Invalid chunk cap victim order (" + chunkCapVictimOrder + "). Must be oldest or farthest. Using default: oldest");
+            chunkCapVictimOrder = "oldest";
+            hasIssues = true;
+        }
+
+        if (chunkCapMaxChunksPerTick <= 0) {
+            plugin.getLogger().warning("Invalid chunk cap rate (" + chunkCapMaxChunksPerTick + "). Must be positive. Using default: 4");
+            chunkCapMaxChunksPerTick = 4;
+            hasIssues = true;
+        }
+
+        for (EntityCategory category : EntityCategory.values()) {
+            int max = chunkCapMax[category.ordinal()];
+            int threshold = chunkCapThreshold[category.ordinal()];
+            if (max > 0 && threshold < max) {
+                plugin.getLogger().warning("Chunk cap cleanup threshold for " + category.name().toLowerCase() + " (" + threshold + ") is below max-per-chunk (" + max + "). Using max-per-chunk");
+                chunkCapThreshold[category.ordinal()] = max;
+                hasIssues = true;
+            }
+        }
+
         // Validate database pool size
         if (databasePoolSize <= 0) {
             plugin.getLogger().warning("Invalid database pool size (" + databasePoolSize + "). Must be positive. Using default: 10");
@@ -215,6 +532,74 @@ public class ConfigManager {
             plugin.getLogger().warning("Database pool size is very large (" + databasePoolSize + "). Recommended: 5-20");
         }
 
+        if (databaseServerId.length() > 100) {
+            plugin.getLogger().warning("Invalid database server id (" + databaseServerId + "). Must be at most 100 characters. Using: " + databaseServerId.substring(0, 100));
+            databaseServerId = databaseServerId.substring(0, 100);
+            hasIssues = true;
+        }
+
+        if (databaseServerId.isEmpty() && !databaseType.equalsIgnoreCase("none")) {
+            databaseServerId = generatedServerId();
+        }
+
+        if (databaseBatchSize <= 0) {
+            plugin.getLogger().warning("Invalid database batch size (" + databaseBatchSize + "). Must be positive. Using default: 100");
+            databaseBatchSize = 100;
+            hasIssues = true;
+        }
+
+        if (databaseFlushInterval <= 0) {
+            plugin.getLogger().warning("Invalid database flush interval (" + databaseFlushInterval + "). Must be positive. Using default: 5");
+            databaseFlushInterval = 5;
+            hasIssues = true;
+        }
+
+        if (databaseQueueCapacity < databaseBatchSize) {
+            plugin.getLogger().warning("Database queue capacity (" + databaseQueueCapacity + ") is below the batch size. Using: " + databaseBatchSize * 10);
+            databaseQueueCapacity = databaseBatchSize * 10;
+            hasIssues = true;
+        }
+
+        if (databaseSpoolMaxSize <= 0) {
+            plugin.getLogger().warning("Invalid database spool max size (" + databaseSpoolMaxSize + "). Must be positive. Using default: 16");
+            databaseSpoolMaxSize = 16;
+            hasIssues = true;
+        }
+
+        if (historyMaxSize <= 0) {
+            plugin.getLogger().warning("Invalid history max size (" + historyMaxSize + "). Must be positive. Using default: 64");
+            historyMaxSize = 64;
+            hasIssues = true;
+        }
+
+        if (rollupInterval <= 0) {
+            plugin.getLogger().warning("Invalid rollup interval (" + rollupInterval + "). Must be positive. Using default: 10");
+            rollupInterval = 10;
+            hasIssues = true;
+        }
+
+        if (retentionRaw < 0 || retentionMinute < 0 || retentionHour < 0 || retentionDay < 0) {
+            plugin.getLogger().warning("Invalid rollup retention. Days can't be negative. Using 0 (keep forever) for negative values");
+            retentionRaw = Math.max(0, retentionRaw);
+            retentionMinute = Math.max(0, retentionMinute);
+            retentionHour = Math.max(0, retentionHour);
+            retentionDay = Math.max(0, retentionDay);
+            hasIssues = true;
+        }
+
+        if (!mongoWriteAcknowledgement.equalsIgnoreCase("majority") && !mongoWriteAcknowledgement.matches("\\d+")) {
+            plugin.getLogger().warning("Invalid MongoDB write concern (" + mongoWriteAcknowledgement + "). Must be a number or majority. Using default: 1");
+            mongoWriteAcknowledgement = "1";
+            hasIssues = true;
+        }
+
+        // The driver rejects an unacknowledged write concern that waits for the journal
+        if (mongoWriteJournal && mongoWriteAcknowledgement.matches("0+")) {
+            plugin.getLogger().warning("Invalid MongoDB journal (true) with write concern 0. Unacknowledged writes can't wait for the journal. Using: false");
+            mongoWriteJournal = false;
+            hasIssues = true;
+        }
+
         // Validate update intervals
         if (tpsUpdateInterval <= 0) {
             plugin.getLogger().warning("Invalid TPS update interval (" + tpsUpdateInterval + "). Must be positive. Using default: 20");
@@ -222,6 +607,12 @@ public class ConfigManager {
             hasIssues = true;
         }
 
+        if (tpsHistorySize <= 0 || tpsHistorySize > 1_000_000) {
+            plugin.getLogger().warning("Invalid TPS history size (" + tpsHistorySize + "). Must be between 1-1000000. Using default: 10");
+            tpsHistorySize = 10;
+            hasIssues = true;
+        }
+
         if (guiRefreshInterval <= 0) {
             plugin.getLogger().warning("Invalid GUI refresh interval (" + guiRefreshInterval + "). Must be positive. Using default: 20");
             guiRefreshInterval = 20;
@@ -234,6 +625,200 @@ public class ConfigManager {
         }
     }
 
+    /**
+     * Whether entities beyond a chunk's cleanup threshold are trimmed back to max-per-chunk
+     */
+    public boolean isChunkCapsActive() {
+        return chunkCapsEnabled && entitiesEnabled && Arrays.stream(chunkCapMax).anyMatch(max -> max > 0);
+    }
+
+    /**
+     * The id generated for this server on its first start, kept in the data folder
+     * so its rows stay its own across restarts
+     */
+    private String generatedServerId() {
+        File file = new File(plugin.getKaizenDataFolder(), "server-id");
+        try {
+            if (file.isFile()) {
+                String id = Files.readString(file.toPath()).trim();
+                if (!id.isEmpty()) {
+                    return id;
+                }
+            }
+            String id = "server-" + UUID.randomUUID().toString().substring(0, 8);
+            Files.writeString(file.toPath(), id + System.lineSeparator());
+            plugin.getLogger().info("Storing statistics under generated server id " + id + ", set database.server-id to change it");
+            return id;
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to keep a server id in " + file.getPath() + ": " + e.getMessage() + ". Using: " + plugin.getServer().getName());
+            return plugin.getServer().getName();
+        }
+    }
+
+    /**
+     * Read tps.response-ladder.tiers. Without it the ladder has two tiers made from
+     * the warning and critical thresholds: item cleanup, then emergency cleanup.
+     */
+    private List<ResponseTier> loadResponseTiers() {
+        List<ResponseTier> tiers = new ArrayList<>();
+
+        // Only tiers in the server's own file count, the shipped ones are a default
+        // and would replace the thresholds of configs written before the ladder
+        List<Map<?, ?>> sections = config.isSet("tps.response-ladder.tiers")
+                ? config.getMapList("tps.response-ladder.tiers") : List.of();
+        if (sections.isEmpty()) {
+            double warningMspt = msptTriggerEnabled ? msptWarningThreshold : 0;
+            double criticalMspt = msptTriggerEnabled ? msptCriticalThreshold : 0;
+            tiers.add(new ResponseTier("warning", warningMspt, warningMspt * 0.8,
+                    tpsWarningThreshold, Math.min(20.0, tpsWarningThreshold + 1), 30, 120, List.of(CleanupAction.ITEMS)));
+            tiers.add(new ResponseTier("critical", criticalMspt, warningMspt,
+                    tpsCriticalThreshold, tpsWarningThreshold, 30, 120, List.of(CleanupAction.EMERGENCY)));
+            return tiers;
+        }
+
+        for (int i = 0; i < sections.size(); i++) {
+            Map<?, ?> section = sections.get(i);
+            String name = String.valueOf(section.containsKey("name") ? section.get("name") : "tier-" + (i + 1));
+            // MSPT thresholds mean nothing when the MSPT trigger is off
+            double enterMspt = msptTriggerEnabled ? number(section, "enter-mspt", 0) : 0;
+            double exitMspt = number(section, "exit-mspt", enterMspt);
+            double enterTps = number(section, "enter-tps", 0);
+            double exitTps = number(section, "exit-tps", enterTps);
+            int dwell = (int) number(section, "dwell", 30);
+            int interval = (int) number(section, "interval", 120);
+
+            if (exitMspt > enterMspt) {
+                plugin.getLogger().warning("Response tier " + name + ": exit-mspt (" + exitMspt + ") is above enter-mspt. Using: " + enterMspt);
+                exitMspt = enterMspt;
+            }
+            if (exitTps < enterTps) {
+                plugin.getLogger().warning("Response tier " + name + ": exit-tps (" + exitTps + ") is below enter-tps. Using: " + enterTps);
+                exitTps = enterTps;
+            }
+            if (interval <= 0) {
+                plugin.getLogger().warning("Response tier " + name + ": invalid interval (" + interval + "). Must be positive. Using default: 120");
+                interval = 120;
+            }
+
+            List<CleanupAction> actions = new ArrayList<>();
+            Object configured = section.get("actions");
+            if (configured instanceof List<?> list) {
+                for (Object actionName : list) {
+                    CleanupAction action = CleanupAction.parse(String.valueOf(actionName));
+                    if (action != null) {
+                        actions.add(action);
+                    } else {
+                        plugin.getLogger().warning("Response tier " + name + ": unknown action " + actionName + ". Must be one of " + Arrays.toString(CleanupAction.values()).toLowerCase());
+                    }
+                }
+            }
+
+            tiers.add(new ResponseTier(name, enterMspt, exitMspt, enterTps, exitTps, Math.max(0, dwell), interval, actions));
+        }
+        return tiers;
+    }
+
+    /**
+     * Read cleanup.conditions, skipping entries with an unknown trigger or action
+     */
+    private List<CleanupCondition> loadCleanupConditions() {
+        List<CleanupCondition> conditions = new ArrayList<>();
+        List<Map<?, ?>> sections = config.getMapList("cleanup.conditions");
+
+        for (int i = 0; i < sections.size(); i++) {
+            Map<?, ?> section = sections.get(i);
+            String name = "Cleanup condition " + (i + 1);
+
+            CleanupCondition.Trigger trigger = CleanupCondition.Trigger.parse(String.valueOf(section.get("trigger")));
+            if (trigger == null) {
+                plugin.getLogger().warning(name + ": unknown trigger " + section.get("trigger") + ". Must be one of "
+                        + Arrays.toString(CleanupCondition.Trigger.values()).toLowerCase() + ". Skipping");
+                continue;
+            }
+            CleanupAction action = CleanupAction.parse(String.valueOf(section.get("action")));
+            if (action == null) {
+                plugin.getLogger().warning(name + ": unknown action " + section.get("action") + ". Must be one of "
+                        + Arrays.toString(CleanupAction.values()).toLowerCase() + ". Skipping");
+                continue;
+            }
+            if (!(section.get("threshold") instanceof Number)) {
+                plugin.getLogger().warning(name + ": missing threshold. Skipping");
+                continue;
+            }
+            double threshold = number(section, "threshold", 0);
+
+            int cooldown = (int) number(section, "cooldown", 300);
+            if (cooldown < 0) {
+                plugin.getLogger().warning(name + ": invalid cooldown (" + cooldown + "). Must be positive. Using default: 300");
+                cooldown = 300;
+            }
+
+            // Only the counts can be narrowed to one world
+            String world = section.get("world") instanceof String worldName ? worldName : null;
+            if (world != null && trigger != CleanupCondition.Trigger.ENTITY_COUNT && trigger != CleanupCondition.Trigger.CHUNK_COUNT) {
+                plugin.getLogger().warning(name + ": world only applies to entity_count and chunk_count. Ignoring it");
+                world = null;
+            }
+
+            int window = msptTriggerWindow;
+            if (section.get("window") != null) {
+                window = TickRecorder.parseWindow(String.valueOf(section.get("window")));
+                if (window < 0) {
+                    plugin.getLogger().warning(name + ": invalid window (" + section.get("window") + "). Must be 5s, 1m or 5m. Using: "
+                            + TickRecorder.getWindowName(msptTriggerWindow));
+                    window = msptTriggerWindow;
+                }
+            }
+            double percentile = number(section, "percentile", msptTriggerPercentile);
+            if (percentile <= 0 || percentile > 100) {
+                plugin.getLogger().warning(name + ": invalid percentile (" + percentile + "). Must be between 0 and 100. Using: " + msptTriggerPercentile);
+                percentile = msptTriggerPercentile;
+            }
+
+            conditions.add(new CleanupCondition(trigger, threshold, action, cooldown * 1000L, world, window, percentile));
+        }
+        return conditions;
+    }
+
+    private static double number(Map<?, ?> section, String key, double def) {
+        return section.get(key) instanceof Number number ? number.doubleValue() : def;
+    }
+
+    /**
+     * Read one entities.types section into the chunk cap tables; disabled types stay uncapped
+     */
+    private void loadChunkCap(EntityCategory category, String type) {
+        String path = "entities.types." + type;
+        if (!config.getBoolean(path + ".enabled", true)) return;
+
+        int max = config.getInt(path + ".max-per-chunk", 0);
+        if (max <= 0) return;
+
+        chunkCapMax[category.ordinal()] = max;
+        chunkCapThreshold[category.ordinal()] = config.getInt(path + ".cleanup-threshold", max);
+    }
+
+    /**
+     * Whether item expiry runs on the timing wheel instead of scheduled age scans
+     */
+    public boolean isWheelExpiry() {
+        return itemExpiryMode.equals("wheel");
+    }
+
+    /**
+     * Item lifetime in seconds for a world, falling back to the default lifetime
+     */
+    public int getWorldItemLifetime(String worldName) {
+        return worldItemLifetimes.getOrDefault(worldName, defaultItemLifetime);
+    }
+
+    /**
+     * Check if a world has cleanup enabled
+     */
+    public boolean isWorldEnabled(String worldName) {
+        return !disabledWorlds.contains(worldName);
+    }
+
     public void saveConfig() {
         try {
             config.save(configFile);
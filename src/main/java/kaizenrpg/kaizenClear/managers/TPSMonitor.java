@@ -2,64 +2,70 @@ package kaizenrpg.kaizenClear.managers;
 
 import kaizenrpg.kaizenClear.KaizenClear;
 import kaizenrpg.kaizenClear.database.StatisticsManager;
+import kaizenrpg.kaizenClear.monitoring.ResponseLadder;
+import kaizenrpg.kaizenClear.monitoring.ResponseTier;
+import kaizenrpg.kaizenClear.monitoring.TickRecorder;
+import kaizenrpg.kaizenClear.monitoring.TrendForecaster;
+import kaizenrpg.kaizenClear.util.DoubleRingBuffer;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.bukkit.Bukkit;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.List;
 
 @Getter
 public class TPSMonitor {
 
     private final KaizenClear plugin;
-    private final Deque<Double> tpsHistory;
+    private final DoubleRingBuffer tpsHistory;
     private final MemoryMXBean memoryBean;
+    private TickRecorder tickRecorder;
+    private TrendForecaster forecaster;
+    private ResponseLadder responseLadder;
+    @Getter(AccessLevel.NONE)
+    private List<ResponseTier> ladderTiers;
+    @Getter(AccessLevel.NONE)
+    private double forecastThreshold;
 
     private double currentTPS = 20.0;
-    private double averageTPS = 20.0;
     private long lastCheck = System.currentTimeMillis();
-    private long lastCleanupTime = 0;
     private int entityCount = 0;
     private int chunkCount = 0;
     private int tickCounter = 0;
 
-    private static final int HISTORY_SIZE = 10;
+    private static final double TREND_ALPHA = 0.1; // EWMA weight of the newest sample
     private static final int STATS_SAVE_INTERVAL = 6000; // Save stats every 5 minutes (6000 ticks)
-    private static final long CLEANUP_COOLDOWN = 120000; // 2 minutes cooldown between cleanups
 
     public TPSMonitor(KaizenClear plugin) {
         this.plugin = plugin;
-        this.tpsHistory = new ArrayDeque<>(HISTORY_SIZE);
+        this.tpsHistory = new DoubleRingBuffer(plugin.getConfigManager().getTpsHistorySize(), TREND_ALPHA);
         this.memoryBean = ManagementFactory.getMemoryMXBean();
     }
 
     public void startMonitoring() {
         ConfigManager config = plugin.getConfigManager();
+        tickRecorder = new TickRecorder(plugin);
 
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                updateTPS();
-                updateEntityCount();
-                updateChunkCount();
-
-                // Check for TPS drops and trigger cleanup if needed
-                if (config.isAutoCleanupEnabled()) {
-                    checkTPSThresholds();
-                }
-
-                // Save statistics to database periodically
-                tickCounter += config.getTpsUpdateInterval();
-                if (tickCounter >= STATS_SAVE_INTERVAL) {
-                    saveStatistics();
-                    tickCounter = 0;
-                }
+        plugin.getTaskScheduler().runTimer(() -> {
+            updateTPS();
+            updateEntityCount();
+            updateChunkCount();
+
+            // Check for TPS drops and trigger cleanup if needed
+            if (config.isAutoCleanupEnabled()) {
+                checkTPSThresholds();
+            }
+
+            // Save statistics to database periodically
+            tickCounter += config.getTpsUpdateInterval();
+            if (tickCounter >= STATS_SAVE_INTERVAL) {
+                saveStatistics();
+                tickCounter = 0;
             }
-        }.runTaskTimer(plugin, 0L, config.getTpsUpdateInterval());
+        }, 0L, config.getTpsUpdateInterval());
 
         plugin.getLogger().info("TPS monitoring started");
     }
@@ -70,18 +76,7 @@ public class TPSMonitor {
             double tps = Bukkit.getTPS()[0]; // 1-minute average
             currentTPS = Math.min(20.0, tps);
 
-            // Add to history
-            tpsHistory.addLast(currentTPS);
-            if (tpsHistory.size() > HISTORY_SIZE) {
-                tpsHistory.removeFirst();
-            }
-
-            // Calculate average
-            averageTPS = tpsHistory.stream()
-                    .mapToDouble(Double::doubleValue)
-                    .average()
-                    .orElse(20.0);
-
+            tpsHistory.add(currentTPS);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to get TPS: " + e.getMessage());
             currentTPS = 20.0;
@@ -89,15 +84,11 @@ public class TPSMonitor {
     }
 
     private void updateEntityCount() {
-        entityCount = Bukkit.getWorlds().stream()
-                .mapToInt(world -> world.getEntities().size())
-                .sum();
+        entityCount = plugin.getEntityCensus().getTotalEntities();
     }
 
     private void updateChunkCount() {
-        chunkCount = Bukkit.getWorlds().stream()
-                .mapToInt(world -> world.getLoadedChunks().length)
-                .sum();
+        chunkCount = plugin.getEntityCensus().getTotalChunks();
     }
 
     private void checkTPSThresholds() {
@@ -106,25 +97,61 @@ public class TPSMonitor {
 
         if (cleanupManager == null) return;
 
-        // Check cooldown to prevent spam
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCleanupTime < CLEANUP_COOLDOWN) {
-            return;
+        // Tick duration percentile, 0 when nothing was recorded. Tiers have no MSPT
+        // thresholds while the MSPT trigger is off, but the forecaster still needs it.
+        double mspt = tickRecorder.getPercentile(config.getMsptTriggerWindow(), config.getMsptTriggerPercentile());
+
+        // Pick up tiers and forecast settings changed by a reload
+        if (responseLadder == null || ladderTiers != config.getResponseTiers()) {
+            ladderTiers = config.getResponseTiers();
+            responseLadder = new ResponseLadder(ladderTiers, config.getResponseHealthySeconds() * 1000L);
+            forecaster = config.isPredictiveEnabled() ? new TrendForecaster(plugin) : null;
+            forecastThreshold = ladderTiers.isEmpty() || ladderTiers.get(0).getEnterMspt() <= 0
+                    ? config.getMsptWarningThreshold() : ladderTiers.get(0).getEnterMspt();
         }
 
-        if (currentTPS < config.getTpsCriticalThreshold()) {
-            // Critical TPS - emergency cleanup
-            plugin.getLogger().warning("TPS critically low (" + String.format("%.2f", currentTPS) + "), triggering emergency cleanup");
-            cleanupManager.emergencyCleanup();
-            lastCleanupTime = currentTime;
-        } else if (currentTPS < config.getTpsWarningThreshold()) {
-            // Warning TPS - normal cleanup
-            plugin.getLogger().info("TPS below warning threshold (" + String.format("%.2f", currentTPS) + "), triggering cleanup");
+        boolean predicted = forecaster != null && forecaster.update(mspt, entityCount, forecastThreshold);
+
+        int previousLevel = responseLadder.getLevel();
+        ResponseTier tier = responseLadder.update(currentTPS, mspt, System.currentTimeMillis());
+        String condition = String.format("TPS %.2f, p%.0f MSPT %.1fms over %s", currentTPS,
+                config.getMsptTriggerPercentile(), mspt, TickRecorder.getWindowName(config.getMsptTriggerWindow()));
+
+        if (tier != null) {
+            if (responseLadder.getLevel() > previousLevel) {
+                plugin.getLogger().warning("Escalating to response tier " + tier.getName() + " (" + condition + ")");
+            } else {
+                plugin.getLogger().info("Repeating response tier " + tier.getName() + " (" + condition + ")");
+            }
+            for (CleanupAction action : tier.getActions()) {
+                cleanupManager.run(action);
+            }
+        } else if (responseLadder.getLevel() < previousLevel) {
+            ResponseTier current = responseLadder.getCurrentTier();
+            plugin.getLogger().info("Stepping down to " + (current == null ? "normal" : "response tier " + current.getName())
+                    + " (" + condition + ")");
+        } else if (predicted && responseLadder.getLevel() == 0) {
+            plugin.getLogger().info(String.format("MSPT forecast to reach %.1fms within %ds, triggering light cleanup",
+                    forecaster.getLastForecast(), config.getPredictiveLookaheadSeconds()));
             cleanupManager.cleanupAllWorlds();
-            lastCleanupTime = currentTime;
         }
     }
 
+    /**
+     * Average TPS over the kept history, 20 before the first sample
+     */
+    public double getAverageTPS() {
+        DoubleRingBuffer.Stats stats = tpsHistory.snapshot();
+        return stats.getCount() == 0 ? 20.0 : stats.getMean();
+    }
+
+    /**
+     * Running statistics of the TPS history; safe to call from any thread
+     */
+    public DoubleRingBuffer.Stats getTpsStats() {
+        return tpsHistory.snapshot();
+    }
+
     public String getTPSColor() {
         if (currentTPS >= 19.0) return "§a"; // Green
         if (currentTPS >= 17.0) return "§e"; // Yellow
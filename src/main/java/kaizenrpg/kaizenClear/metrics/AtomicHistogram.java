@@ -0,0 +1,64 @@
+package kaizenrpg.kaizenClear.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative histogram with fixed bucket bounds that any thread can record into
+ * without locking. Reads may see a sample in its bucket but not yet in the sum;
+ * a scrape is never off by more than the samples recorded while it ran.
+ */
+public class AtomicHistogram {
+
+    private final double[] bounds;
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    /**
+     * @param bounds ascending upper bounds of the buckets; a +Inf bucket is added
+     */
+    public AtomicHistogram(double... bounds) {
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        counts[bucket].increment();
+        sum.add(value);
+    }
+
+    /**
+     * Upper bound of a bucket, {@link Double#POSITIVE_INFINITY} for the last
+     */
+    public double getBound(int bucket) {
+        return bucket < bounds.length ? bounds[bucket] : Double.POSITIVE_INFINITY;
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Samples at or below the bound of a bucket
+     */
+    public long[] cumulativeCounts() {
+        long[] cumulative = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += counts[i].sum();
+            cumulative[i] = total;
+        }
+        return cumulative;
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+}
@@ -0,0 +1,162 @@
+package kaizenrpg.kaizenClear.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registers behind the metrics endpoint, rendered as OpenMetrics text.
+ *
+ * Counters and histograms are adders that the recording thread updates in
+ * place. Values that have to be read from the server (TPS, census counts, heap)
+ * are gathered by a task on the server thread and published as one immutable
+ * list of gauges. Rendering therefore only reads atomics and never waits for,
+ * or runs anything on, the server thread.
+ */
+@Getter
+public class MetricsRegistry {
+
+    private static final String PREFIX = "kaizenclear_";
+
+    /** Server tick durations in seconds */
+    private final AtomicHistogram tickDuration = new AtomicHistogram(
+            0.005, 0.01, 0.025, 0.05, 0.075, 0.1, 0.15, 0.25, 0.5, 1.0);
+    /** Main-thread time of whole-world scans in seconds */
+    private final AtomicHistogram scanDuration = new AtomicHistogram(
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 1.0);
+    /** Database write latency in seconds */
+    private final AtomicHistogram dbWriteDuration = new AtomicHistogram(
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 5.0);
+    /** Duration of one statistics batch flush in seconds */
+    private final AtomicHistogram dbFlushDuration = new AtomicHistogram(
+            0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1.0, 5.0);
+    /** Database writes submitted but not finished */
+    private final AtomicInteger dbQueueDepth = new AtomicInteger();
+
+    @Getter(AccessLevel.NONE)
+    private final Map<String, LongAdder> removals = new ConcurrentHashMap<>();
+    @Getter(AccessLevel.NONE)
+    private volatile List<Gauge> gauges = List.of();
+
+    /**
+     * Count entities removed by a cleanup type
+     */
+    public void recordRemovals(String cleanupType, int removed) {
+        removals.computeIfAbsent(cleanupType, type -> new LongAdder()).add(removed);
+    }
+
+    /**
+     * Replace the published gauges; samples of one metric must be adjacent
+     */
+    public void publish(List<Gauge> gauges) {
+        this.gauges = List.copyOf(gauges);
+    }
+
+    public String render() {
+        StringBuilder out = new StringBuilder(8192);
+
+        String family = null;
+        for (Gauge gauge : gauges) {
+            if (!gauge.name.equals(family)) {
+                family = gauge.name;
+                header(out, family, "gauge", gauge.help);
+            }
+            sample(out, family, gauge.labels, gauge.value);
+        }
+
+        header(out, "db_queue_depth", "gauge", "Database writes submitted but not finished");
+        sample(out, "db_queue_depth", "", dbQueueDepth.get());
+
+        header(out, "removed_entities", "counter", "Entities removed, by cleanup type");
+        for (Map.Entry<String, LongAdder> entry : removals.entrySet()) {
+            sample(out, "removed_entities_total", labels("type", entry.getKey()), entry.getValue().sum());
+        }
+
+        histogram(out, "tick_duration_seconds", "Server tick duration", tickDuration);
+        histogram(out, "scan_duration_seconds", "Server thread time of cleanup scans", scanDuration);
+        histogram(out, "db_write_duration_seconds", "Database write latency", dbWriteDuration);
+        histogram(out, "db_flush_duration_seconds", "Duration of statistics batch flushes", dbFlushDuration);
+
+        out.append("# EOF\n");
+        return out.toString();
+    }
+
+    /**
+     * Format label pairs, e.g. {@code labels("world", "world_nether")}
+     */
+    public static String labels(String... pairs) {
+        StringBuilder out = new StringBuilder("{");
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (i > 0) out.append(',');
+            out.append(pairs[i]).append("=\"");
+            String value = pairs[i + 1];
+            for (int c = 0; c < value.length(); c++) {
+                char ch = value.charAt(c);
+                switch (ch) {
+                    case '\\' -> out.append("\\\\");
+                    case '"' -> out.append("\\\"");
+                    case '\n' -> out.append("\\n");
+                    default -> out.append(ch);
+                }
+            }
+            out.append('"');
+        }
+        return out.append('}').toString();
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, AtomicHistogram histogram) {
+        header(out, name, "histogram", help);
+        long[] cumulative = histogram.cumulativeCounts();
+        for (int bucket = 0; bucket < cumulative.length; bucket++) {
+            sample(out, name + "_bucket", labels("le", format(histogram.getBound(bucket))), cumulative[bucket]);
+        }
+        // Count from the buckets, so it always matches the +Inf bucket
+        sample(out, name + "_count", "", cumulative[cumulative.length - 1]);
+        sample(out, name + "_sum", "", histogram.getSum());
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(PREFIX).append(name).append(labels).append(' ').append(format(value)).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, long value) {
+        out.append(PREFIX).append(name).append(labels).append(' ').append(value).append('\n');
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        return Double.toString(value);
+    }
+
+    /**
+     * One published gauge sample
+     */
+    public static class Gauge {
+        private final String name;
+        private final String help;
+        private final String labels;
+        private final double value;
+
+        /**
+         * @param name   metric name without the plugin prefix
+         * @param labels formatted with {@link #labels(String...)}, or empty
+         */
+        public Gauge(String name, String help, String labels, double value) {
+            this.name = name;
+            this.help = help;
+            this.labels = labels;
+            this.value = value;
+        }
+    }
+}
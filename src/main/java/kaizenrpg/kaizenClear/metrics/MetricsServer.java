@@ -0,0 +1,171 @@
+package kaizenrpg.kaizenClear.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.managers.TPSMonitor;
+import kaizenrpg.kaizenClear.monitoring.GcMonitor;
+import kaizenrpg.kaizenClear.monitoring.ResponseLadder;
+import kaizenrpg.kaizenClear.monitoring.TickDurationHistogram;
+import kaizenrpg.kaizenClear.monitoring.TickRecorder;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
+import kaizenrpg.kaizenClear.tracking.EntityCensus;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link MetricsRegistry} as OpenMetrics text over the JDK's HTTP
+ * server, for Prometheus and compatible scrapers.
+ *
+ * Requests are answered on a single daemon thread from the registry alone.
+ * Values owned by the server are gathered here once a second on the server
+ * thread and published to the registry.
+ */
+public class MetricsServer {
+
+    private static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final long PUBLISH_INTERVAL = 20L; // ticks
+
+    private final KaizenClear plugin;
+    private final MetricsRegistry registry;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public MetricsServer(KaizenClear plugin, MetricsRegistry registry) {
+        this.plugin = plugin;
+        this.registry = registry;
+    }
+
+    /**
+     * Bind the endpoint and start publishing
+     * @return false if the address could not be bound
+     */
+    public boolean start() {
+        ConfigManager config = plugin.getConfigManager();
+        try {
+            server = HttpServer.create(new InetSocketAddress(config.getMetricsBind(), config.getMetricsPort()), 0);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to start metrics endpoint on " + config.getMetricsBind() + ":"
+                    + config.getMetricsPort() + ": " + e.getMessage());
+            return false;
+        }
+
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "KaizenClear-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(config.getMetricsPath(), this::handle);
+        server.start();
+
+        plugin.getTaskScheduler().runTimer(this::publish, 0L, PUBLISH_INTERVAL);
+        plugin.getLogger().info("Metrics endpoint listening on " + config.getMetricsBind() + ":"
+                + config.getMetricsPort() + config.getMetricsPath());
+        return true;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = registry.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Gather the values owned by the server into gauges
+     */
+    private void publish() {
+        List<MetricsRegistry.Gauge> gauges = new ArrayList<>();
+
+        TPSMonitor tpsMonitor = plugin.getTpsMonitor();
+        if (tpsMonitor != null) {
+            gauges.add(new MetricsRegistry.Gauge("tps", "Ticks per second, 1 minute average", "", tpsMonitor.getCurrentTPS()));
+
+            TickRecorder tickRecorder = tpsMonitor.getTickRecorder();
+            if (tickRecorder != null) {
+                String help = "Tick duration statistics over a sliding window in milliseconds";
+                for (int window = TickRecorder.FIVE_SECONDS; window <= TickRecorder.FIVE_MINUTES; window++) {
+                    TickDurationHistogram.Snapshot snapshot = tickRecorder.getSnapshot(window);
+                    String name = TickRecorder.getWindowName(window);
+                    gauges.add(new MetricsRegistry.Gauge("mspt", help, MetricsRegistry.labels("window", name, "stat", "mean"), snapshot.getMean()));
+                    gauges.add(new MetricsRegistry.Gauge("mspt", help, MetricsRegistry.labels("window", name, "stat", "p50"), snapshot.getP50()));
+                    gauges.add(new MetricsRegistry.Gauge("mspt", help, MetricsRegistry.labels("window", name, "stat", "p95"), snapshot.getP95()));
+                    gauges.add(new MetricsRegistry.Gauge("mspt", help, MetricsRegistry.labels("window", name, "stat", "p99"), snapshot.getP99()));
+                    gauges.add(new MetricsRegistry.Gauge("mspt", help, MetricsRegistry.labels("window", name, "stat", "max"), snapshot.getMax()));
+                }
+            }
+
+            ResponseLadder ladder = tpsMonitor.getResponseLadder();
+            gauges.add(new MetricsRegistry.Gauge("response_tier", "Current response ladder level, 0 when healthy", "",
+                    ladder == null ? 0 : ladder.getLevel()));
+        }
+
+        EntityCensus census = plugin.getEntityCensus();
+        List<World> worlds = plugin.getServer().getWorlds();
+        for (World world : worlds) {
+            for (EntityCategory category : EntityCategory.values()) {
+                gauges.add(new MetricsRegistry.Gauge("entities", "Entities per world and category",
+                        MetricsRegistry.labels("world", world.getName(), "category", category.name().toLowerCase(Locale.ROOT)),
+                        census.count(world, category)));
+            }
+        }
+        for (World world : worlds) {
+            gauges.add(new MetricsRegistry.Gauge("loaded_chunks", "Loaded chunks per world",
+                    MetricsRegistry.labels("world", world.getName()), census.getChunks(world)));
+        }
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        gauges.add(new MetricsRegistry.Gauge("heap_used_bytes", "Heap in use", "", heap.getUsed()));
+        gauges.add(new MetricsRegistry.Gauge("heap_max_bytes", "Maximum heap size", "", heap.getMax()));
+
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        if (gcMonitor != null) {
+            gauges.add(new MetricsRegistry.Gauge("old_gen_occupancy_percent", "Old generation use right after the last collection", "",
+                    gcMonitor.getOldGenOccupancy()));
+            gauges.add(new MetricsRegistry.Gauge("gc_pause_milliseconds", "Milliseconds spent in GC pauses during the last minute", "",
+                    gcMonitor.getPauseMillisPerMinute()));
+            gauges.add(new MetricsRegistry.Gauge("allocation_rate_megabytes", "Average allocation rate over the last minute in MB/s", "",
+                    gcMonitor.getAllocationRate()));
+        }
+
+        registry.publish(gauges);
+    }
+}
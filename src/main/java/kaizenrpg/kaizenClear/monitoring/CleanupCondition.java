@@ -0,0 +1,93 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.managers.CleanupAction;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * One compiled entry of {@code cleanup.conditions}: a trigger metric, the
+ * threshold it is compared against, the cleanup to run and the cooldown
+ * between runs. Names are resolved when the config is loaded, so checking a
+ * condition is a comparison and a timestamp check.
+ */
+@Getter
+public class CleanupCondition {
+
+    /**
+     * Metrics a condition can watch
+     */
+    public enum Trigger {
+        TPS_BELOW(false),
+        MSPT_ABOVE(true),
+        ENTITY_COUNT(true),
+        CHUNK_COUNT(true),
+        HEAP_ABOVE(true);
+
+        private final boolean above;
+
+        Trigger(boolean above) {
+            this.above = above;
+        }
+
+        /**
+         * @return the trigger, or null if the name is unknown
+         */
+        public static Trigger parse(String name) {
+            for (Trigger trigger : values()) {
+                if (trigger.getName().equals(name.toLowerCase(Locale.ROOT))) {
+                    return trigger;
+                }
+            }
+            return null;
+        }
+
+        public String getName() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Trigger trigger;
+    private final double threshold;
+    private final CleanupAction action;
+    private final long cooldownMillis;
+    private final String worldName;  // entity/chunk count of one world, null for all worlds
+    private final int window;        // MSPT window, see TickRecorder
+    private final double percentile; // MSPT percentile
+
+    @Getter(AccessLevel.NONE)
+    private long lastFired = Long.MIN_VALUE;
+
+    public CleanupCondition(Trigger trigger, double threshold, CleanupAction action, long cooldownMillis,
+                            String worldName, int window, double percentile) {
+        this.trigger = trigger;
+        this.threshold = threshold;
+        this.action = action;
+        this.cooldownMillis = cooldownMillis;
+        this.worldName = worldName;
+        this.window = window;
+        this.percentile = percentile;
+    }
+
+    public boolean matches(double value) {
+        return trigger.above ? value > threshold : value < threshold;
+    }
+
+    /**
+     * Whether the condition holds for a value and its cooldown has passed;
+     * when it fires the cooldown starts over
+     */
+    public boolean fire(double value, long nowMillis) {
+        if (!matches(value)) return false;
+        if (lastFired != Long.MIN_VALUE && nowMillis - lastFired < cooldownMillis) return false;
+        lastFired = nowMillis;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        String target = worldName == null ? "" : " in " + worldName;
+        return trigger.getName() + " " + threshold + target + " -> " + action.getName();
+    }
+}
@@ -0,0 +1,127 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.CleanupManager;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.managers.TPSMonitor;
+import kaizenrpg.kaizenClear.tracking.EntityCensus;
+import org.bukkit.World;
+
+import java.util.List;
+
+/**
+ * Checks the compiled {@code cleanup.conditions} every tick and runs the
+ * cleanup of each condition that holds and is off cooldown.
+ *
+ * Conditions only read values other components already keep: TPS from the
+ * {@link TPSMonitor}, counts from the {@link EntityCensus} and old generation
+ * occupancy from the {@link GcMonitor}. MSPT percentiles and world lookups are
+ * refreshed once a second rather than every tick. TPS and MSPT conditions are
+ * skipped while a {@link ResponseLadder} tier is active, so the two don't both
+ * answer the same lag.
+ */
+public class ConditionEngine {
+
+    private static final int REFRESH_INTERVAL = 20; // ticks
+
+    private final KaizenClear plugin;
+
+    private List<CleanupCondition> conditions;
+    private World[] worlds = new World[0];
+    private double[] mspt = new double[0];
+    private int ticks = 0;
+
+    public ConditionEngine(KaizenClear plugin) {
+        this.plugin = plugin;
+        plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+    }
+
+    private void tick() {
+        ConfigManager config = plugin.getConfigManager();
+        CleanupManager cleanupManager = plugin.getCleanupManager();
+        if (!config.isEnabled() || cleanupManager == null) return;
+
+        // Pick up conditions changed by a reload
+        if (conditions != config.getCleanupConditions()) {
+            conditions = config.getCleanupConditions();
+            worlds = new World[conditions.size()];
+            mspt = new double[conditions.size()];
+            ticks = 0;
+        }
+        if (conditions.isEmpty()) return;
+        if (ticks++ % REFRESH_INTERVAL == 0) {
+            refresh();
+        }
+
+        TPSMonitor tpsMonitor = plugin.getTpsMonitor();
+        EntityCensus census = plugin.getEntityCensus();
+        GcMonitor gcMonitor = plugin.getGcMonitor();
+        ResponseLadder ladder = tpsMonitor != null ? tpsMonitor.getResponseLadder() : null;
+        boolean ladderActive = ladder != null && ladder.getLevel() > 0;
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < conditions.size(); i++) {
+            CleanupCondition condition = conditions.get(i);
+            double value;
+            switch (condition.getTrigger()) {
+                case TPS_BELOW -> {
+                    if (tpsMonitor == null || ladderActive) continue;
+                    value = tpsMonitor.getCurrentTPS();
+                }
+                case MSPT_ABOVE -> {
+                    if (ladderActive) continue;
+                    value = mspt[i];
+                }
+                case ENTITY_COUNT -> {
+                    if (condition.getWorldName() == null) {
+                        value = census.getTotalEntities();
+                    } else if (worlds[i] != null) {
+                        value = census.getEntities(worlds[i]);
+                    } else {
+                        continue;
+                    }
+                }
+                case CHUNK_COUNT -> {
+                    if (condition.getWorldName() == null) {
+                        value = census.getTotalChunks();
+                    } else if (worlds[i] != null) {
+                        value = census.getChunks(worlds[i]);
+                    } else {
+                        continue;
+                    }
+                }
+                case HEAP_ABOVE -> {
+                    if (gcMonitor == null) continue;
+                    value = gcMonitor.getOldGenOccupancy();
+                }
+                default -> {
+                    continue;
+                }
+            }
+
+            if (condition.fire(value, now)) {
+                plugin.getLogger().info(String.format("Cleanup condition %s met (%.1f), running %s cleanup",
+                        condition.getTrigger().getName(), value, condition.getAction().getName()));
+                cleanupManager.run(condition.getAction());
+            }
+        }
+    }
+
+    /**
+     * Resolve the worlds of per-world conditions and recompute MSPT percentiles
+     */
+    private void refresh() {
+        TPSMonitor tpsMonitor = plugin.getTpsMonitor();
+        TickRecorder tickRecorder = tpsMonitor != null ? tpsMonitor.getTickRecorder() : null;
+
+        for (int i = 0; i < conditions.size(); i++) {
+            CleanupCondition condition = conditions.get(i);
+            if (condition.getWorldName() != null) {
+                worlds[i] = plugin.getServer().getWorld(condition.getWorldName());
+            }
+            if (condition.getTrigger() == CleanupCondition.Trigger.MSPT_ABOVE) {
+                mspt[i] = tickRecorder != null ? tickRecorder.getPercentile(condition.getWindow(), condition.getPercentile()) : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.CleanupManager;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.util.DoubleRingBuffer;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the garbage collector through its JMX notifications: pause times,
+ * allocation rate and how full the old generation still is right after a
+ * collection. Lag on big heaps usually starts as GC thrash, long before entity
+ * counts look alarming, and post-GC occupancy is the one heap number that
+ * tells live data from garbage.
+ *
+ * Notifications arrive on a JMX thread and only update counters; once a second
+ * the counters are folded into one-minute rings on the server thread. When
+ * {@code memory.relief} is enabled and occupancy after GC stays above the
+ * threshold for the configured time, a memory-relief cleanup is started.
+ */
+public class GcMonitor implements NotificationListener {
+
+    private static final int WINDOW_SECONDS = 60;
+
+    private final KaizenClear plugin;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final Set<String> heapPools = new HashSet<>();
+
+    // Written by the JMX notification thread
+    private final AtomicLong pauseCount = new AtomicLong();
+    private final AtomicLong pauseMicros = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong maxPauseMicros = new AtomicLong();
+    private volatile long lastHeapAfterGc = -1;
+    private volatile double oldGenOccupancy = 0;
+
+    // Per-second deltas over the last minute, folded on the server thread
+    private final DoubleRingBuffer pausesPerSecond = new DoubleRingBuffer(WINDOW_SECONDS, 1.0);
+    private final DoubleRingBuffer pauseMillisPerSecond = new DoubleRingBuffer(WINDOW_SECONDS, 1.0);
+    private final DoubleRingBuffer allocatedMegabytesPerSecond = new DoubleRingBuffer(WINDOW_SECONDS, 1.0);
+    private long foldedPauses = 0;
+    private long foldedPauseMicros = 0;
+    private long foldedAllocated = 0;
+
+    private long pressureSince = -1;
+
+    public GcMonitor(KaizenClear plugin) {
+        this.plugin = plugin;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool.getName());
+            }
+        }
+
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter emitter) {
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+
+        plugin.getTaskScheduler().runTimer(this::tick, 20L, 20L);
+    }
+
+    /**
+     * Stop listening to the collectors, so a reloaded plugin doesn't leak listeners
+     */
+    public void shutdown() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (ListenerNotFoundException ignored) {
+                // Already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) return;
+
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        Map<String, MemoryUsage> before = info.getGcInfo().getMemoryUsageBeforeGc();
+        Map<String, MemoryUsage> after = info.getGcInfo().getMemoryUsageAfterGc();
+
+        if (isPause(info.getGcName(), info.getGcAction())) {
+            long micros = info.getGcInfo().getDuration() * 1000;
+            pauseCount.incrementAndGet();
+            pauseMicros.addAndGet(micros);
+            maxPauseMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        long heapBefore = heapUsed(before);
+        long heapAfter = heapUsed(after);
+
+        // Everything the heap grew by since the previous collection was allocated in between
+        long previousAfter = lastHeapAfterGc;
+        if (previousAfter >= 0 && heapBefore > previousAfter) {
+            allocatedBytes.addAndGet(heapBefore - previousAfter);
+        }
+        lastHeapAfterGc = heapAfter;
+
+        double occupancy = oldGenOccupancy(info.getGcName(), info.getGcAction(), before, after, heapAfter);
+        if (occupancy >= 0) {
+            oldGenOccupancy = occupancy;
+        }
+    }
+
+    /**
+     * Whether a notification reports a stop-the-world pause. Concurrent cycles run
+     * alongside the server: ZGC and Shenandoah report them from a separate "Cycles"
+     * collector next to the "Pauses" one, other collectors mark them in the action.
+     */
+    static boolean isPause(String gcName, String gcAction) {
+        if (gcName.endsWith("Cycles")) return false;
+        if (gcName.endsWith("Pauses")) return true;
+        return !gcAction.contains("concurrent");
+    }
+
+    /**
+     * Whether a collector collects the old generation on every run: full and major
+     * collections, old generation and single-generation collectors. Young collections
+     * only promote into it.
+     */
+    static boolean collectsOldGen(String gcName, String gcAction) {
+        if (gcAction.contains("major")) return true;
+        String name = gcName.toLowerCase(Locale.ROOT);
+        return !(name.contains("young") || name.contains("minor") || name.contains("scavenge")
+                || name.contains("parnew") || name.equals("copy"));
+    }
+
+    /**
+     * Old generation use right after the last collection, as a percentage of its maximum
+     */
+    public double getOldGenOccupancy() {
+        return oldGenOccupancy;
+    }
+
+    /**
+     * GC pauses during the last minute
+     */
+    public int getPausesPerMinute() {
+        DoubleRingBuffer.Stats stats = pausesPerSecond.snapshot();
+        return (int) Math.round(stats.getMean() * stats.getCount());
+    }
+
+    /**
+     * Milliseconds spent in GC pauses during the last minute
+     */
+    public double getPauseMillisPerMinute() {
+        DoubleRingBuffer.Stats stats = pauseMillisPerSecond.snapshot();
+        return stats.getMean() * stats.getCount();
+    }
+
+    /**
+     * Longest pause since the server started, in milliseconds
+     */
+    public double getMaxPauseMillis() {
+        return maxPauseMicros.get() / 1000.0;
+    }
+
+    /**
+     * Average allocation rate over the last minute in MB/s
+     */
+    public double getAllocationRate() {
+        return allocatedMegabytesPerSecond.snapshot().getMean();
+    }
+
+    private void tick() {
+        long pauses = pauseCount.get();
+        long micros = pauseMicros.get();
+        long allocated = allocatedBytes.get();
+        pausesPerSecond.add(pauses - foldedPauses);
+        pauseMillisPerSecond.add((micros - foldedPauseMicros) / 1000.0);
+        allocatedMegabytesPerSecond.add((allocated - foldedAllocated) / (1024.0 * 1024.0));
+        foldedPauses = pauses;
+        foldedPauseMicros = micros;
+        foldedAllocated = allocated;
+
+        checkPressure();
+    }
+
+    private void checkPressure() {
+        ConfigManager config = plugin.getConfigManager();
+        CleanupManager cleanupManager = plugin.getCleanupManager();
+        if (oldGenOccupancy < config.getMemoryReliefThreshold() && cleanupManager != null) {
+            cleanupManager.resetMemoryRelief();
+        }
+        if (!config.isMemoryReliefEnabled() || oldGenOccupancy < config.getMemoryReliefThreshold()) {
+            pressureSince = -1;
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (pressureSince < 0) {
+            pressureSince = now;
+            return;
+        }
+        if (now - pressureSince < config.getMemoryReliefSustainSeconds() * 1000L) return;
+        if (cleanupManager == null) return;
+
+        plugin.getLogger().warning(String.format("Old generation still %.0f%% full after GC for %ds, starting memory relief cleanup",
+                oldGenOccupancy, config.getMemoryReliefSustainSeconds()));
+        cleanupManager.memoryReliefCleanup();
+        // Give the collector a full sustain period to show the effect before acting
+        // again; the next run escalates to the dense chunks
+        pressureSince = now;
+    }
+
+    /**
+     * Occupancy of the old generation pool after a collection that collected it, or
+     * of the whole heap for collectors without one (e.g. single-generation ZGC).
+     * A young collection counts only when the old pool shrank, which is a G1 mixed
+     * collection. -1 when the collection says nothing about the old generation,
+     * including the pause phases of ZGC and Shenandoah, which report usage mid-cycle.
+     */
+    static double oldGenOccupancy(String gcName, String gcAction, Map<String, MemoryUsage> before,
+                                  Map<String, MemoryUsage> after, long heapAfter) {
+        if (gcName.endsWith("Pauses")) return -1;
+
+        String oldPool = null;
+        for (String pool : after.keySet()) {
+            if (pool.contains("Old") || pool.contains("Tenured")) {
+                oldPool = pool;
+                break;
+            }
+        }
+
+        if (!collectsOldGen(gcName, gcAction)) {
+            MemoryUsage previous = oldPool == null ? null : before.get(oldPool);
+            if (previous == null || after.get(oldPool).getUsed() >= previous.getUsed()) {
+                return -1;
+            }
+        }
+
+        if (oldPool != null) {
+            MemoryUsage usage = after.get(oldPool);
+            if (usage.getMax() > 0) {
+                return usage.getUsed() * 100.0 / usage.getMax();
+            }
+        }
+
+        long max = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+        return max <= 0 ? -1 : heapAfter * 100.0 / max;
+    }
+
+    private long heapUsed(Map<String, MemoryUsage> pools) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> entry : pools.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,184 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
+import kaizenrpg.kaizenClear.tracking.EntityCensus;
+import lombok.Getter;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Attributes tick time to entity categories and chunks without timing any
+ * entity directly.
+ *
+ * Every few seconds the mean MSPT since the last sample is regressed against
+ * the server-wide entity count of each category (see {@link OnlineRegression}),
+ * which yields an estimated cost per entity of each category. Applying those
+ * costs to the per-chunk counts of the density index ranks chunks by the tick
+ * time their entities are estimated to take.
+ *
+ * The estimates need load that varies over time to separate the categories;
+ * until enough samples are in, no report is produced. Folia has no single
+ * server tick to measure, so the profiler does not run there.
+ */
+public class LagProfiler {
+
+    private static final long SAMPLE_INTERVAL = 100L; // 5 seconds
+    private static final int MIN_SAMPLES = 24;        // 2 minutes
+    private static final double FORGETTING = 0.995;   // samples fade over roughly 15 minutes
+    private static final int CANDIDATE_CHUNKS = 32;   // densest chunks per world that are costed
+    private static final double PER_THOUSAND = 1000.0;
+
+    private final KaizenClear plugin;
+    private final TickRecorder tickRecorder;
+    private final OnlineRegression regression = new OnlineRegression(EntityCategory.count(), FORGETTING);
+    private final double[] features = new double[EntityCategory.count()];
+
+    public LagProfiler(KaizenClear plugin, TickRecorder tickRecorder) {
+        this.plugin = plugin;
+        this.tickRecorder = tickRecorder;
+        plugin.getTaskScheduler().runTimer(this::sample, SAMPLE_INTERVAL, SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Whether enough samples are in for the estimates to mean anything
+     */
+    public boolean isReady() {
+        return regression.getSamples() >= MIN_SAMPLES;
+    }
+
+    public long getSamples() {
+        return regression.getSamples();
+    }
+
+    /**
+     * Estimated tick time of one entity of a category in milliseconds, never negative
+     */
+    public double getCostPerEntity(EntityCategory category) {
+        return Math.max(0, regression.getCoefficient(category.ordinal())) / PER_THOUSAND;
+    }
+
+    /**
+     * Estimated tick time not explained by entities, in milliseconds
+     */
+    public double getBaseline() {
+        return regression.getIntercept();
+    }
+
+    /**
+     * Entity categories by estimated tick time across all worlds, most expensive first
+     */
+    public List<CategoryCost> getCategoryCosts() {
+        EntityCensus census = plugin.getEntityCensus();
+        List<CategoryCost> costs = new ArrayList<>();
+        for (EntityCategory category : EntityCategory.values()) {
+            int count = 0;
+            for (World world : plugin.getServer().getWorlds()) {
+                count += census.count(world, category);
+            }
+            double perEntity = getCostPerEntity(category);
+            costs.add(new CategoryCost(category, count, perEntity, perEntity * count));
+        }
+        costs.sort(Comparator.comparingDouble(CategoryCost::getMillis).reversed());
+        return costs;
+    }
+
+    /**
+     * The {@code limit} chunks with the highest estimated tick time in enabled worlds
+     */
+    public List<ChunkCost> getTopChunks(int limit) {
+        ConfigManager config = plugin.getConfigManager();
+        ChunkDensityIndex densityIndex = plugin.getDensityIndex();
+        List<ChunkCost> costs = new ArrayList<>();
+        if (densityIndex == null) return costs;
+
+        double[] perEntity = new double[EntityCategory.count()];
+        for (EntityCategory category : EntityCategory.values()) {
+            perEntity[category.ordinal()] = getCostPerEntity(category);
+        }
+
+        for (World world : plugin.getServer().getWorlds()) {
+            if (!config.isWorldEnabled(world.getName())) continue;
+
+            for (ChunkDensityIndex.ChunkCount chunk : densityIndex.getDensestChunks(world, ChunkDensityIndex.ALL, CANDIDATE_CHUNKS)) {
+                double millis = 0;
+                double topMillis = -1;
+                EntityCategory top = EntityCategory.OTHER;
+                for (EntityCategory category : EntityCategory.values()) {
+                    double categoryMillis = perEntity[category.ordinal()]
+                            * densityIndex.count(world, chunk.getX(), chunk.getZ(), category.ordinal());
+                    millis += categoryMillis;
+                    if (categoryMillis > topMillis) {
+                        topMillis = categoryMillis;
+                        top = category;
+                    }
+                }
+                costs.add(new ChunkCost(world, chunk.getX(), chunk.getZ(), chunk.getCount(), millis, top));
+            }
+        }
+
+        costs.sort(Comparator.comparingDouble(ChunkCost::getMillis).reversed());
+        return costs.size() > limit ? new ArrayList<>(costs.subList(0, limit)) : costs;
+    }
+
+    private void sample() {
+        TickDurationHistogram.Snapshot snapshot = tickRecorder.getSnapshot(TickRecorder.FIVE_SECONDS);
+        if (snapshot.getTicks() == 0) return;
+
+        EntityCensus census = plugin.getEntityCensus();
+        for (EntityCategory category : EntityCategory.values()) {
+            int count = 0;
+            for (World world : plugin.getServer().getWorlds()) {
+                count += census.count(world, category);
+            }
+            // Per thousand entities keeps the fit well conditioned
+            features[category.ordinal()] = count / PER_THOUSAND;
+        }
+        regression.update(features, snapshot.getMean());
+    }
+
+    /**
+     * Estimated tick time of one entity category
+     */
+    @Getter
+    public static class CategoryCost {
+        private final EntityCategory category;
+        private final int entities;
+        private final double millisPerEntity;
+        private final double millis;
+
+        CategoryCost(EntityCategory category, int entities, double millisPerEntity, double millis) {
+            this.category = category;
+            this.entities = entities;
+            this.millisPerEntity = millisPerEntity;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Estimated tick time of the entities in one chunk
+     */
+    @Getter
+    public static class ChunkCost {
+        private final World world;
+        private final int x;
+        private final int z;
+        private final int entities;
+        private final double millis;
+        private final EntityCategory topCategory;
+
+        ChunkCost(World world, int x, int z, int entities, double millis, EntityCategory topCategory) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+            this.entities = entities;
+            this.millis = millis;
+            this.topCategory = topCategory;
+        }
+    }
+}
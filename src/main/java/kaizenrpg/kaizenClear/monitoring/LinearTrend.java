@@ -0,0 +1,103 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+/**
+ * Least-squares line through the last few samples of a series, used to
+ * extrapolate it a short way ahead.
+ *
+ * Samples are assumed to be evenly spaced, so x is just the sample number.
+ * {@link #fit()} is O(window) and allocates nothing; with windows of a few
+ * dozen samples taken once a second that is negligible.
+ */
+public class LinearTrend {
+
+    private final double[] samples;
+    private long written = 0;
+
+    private double slope;
+    private double intercept;
+    private double confidence;
+
+    public LinearTrend(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Window must hold at least 2 samples: " + window);
+        }
+        this.samples = new double[window];
+    }
+
+    public void add(double value) {
+        samples[(int) (written++ % samples.length)] = value;
+    }
+
+    public void clear() {
+        written = 0;
+        slope = intercept = confidence = 0;
+    }
+
+    /**
+     * Whether the window has filled up, so the fit covers its whole length
+     */
+    public boolean isReady() {
+        return written >= samples.length;
+    }
+
+    /**
+     * Refit the line over the samples currently held
+     */
+    public void fit() {
+        int n = (int) Math.min(written, samples.length);
+        if (n < 2) {
+            slope = 0;
+            intercept = n == 1 ? sample(0, n) : 0;
+            confidence = 0;
+            return;
+        }
+
+        double meanX = (n - 1) / 2.0;
+        double meanY = 0;
+        for (int i = 0; i < n; i++) {
+            meanY += sample(i, n);
+        }
+        meanY /= n;
+
+        double sxy = 0, sxx = 0, syy = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = i - meanX;
+            double dy = sample(i, n) - meanY;
+            sxy += dx * dy;
+            sxx += dx * dx;
+            syy += dy * dy;
+        }
+
+        slope = sxy / sxx;
+        intercept = meanY - slope * meanX;
+        // R^2: the share of the variation the line explains; a flat series is perfectly explained
+        confidence = syy == 0 ? 1 : (sxy * sxy) / (sxx * syy);
+    }
+
+    /**
+     * Value of the fitted line {@code steps} samples after the newest one
+     */
+    public double forecast(double steps) {
+        int n = (int) Math.min(written, samples.length);
+        return intercept + slope * (n - 1 + steps);
+    }
+
+    /**
+     * Change per sample of the fitted line
+     */
+    public double getSlope() {
+        return slope;
+    }
+
+    /**
+     * Coefficient of determination (R^2) of the fit, from 0 to 1
+     */
+    public double getConfidence() {
+        return confidence;
+    }
+
+    // i-th oldest of the n held samples
+    private double sample(int i, int n) {
+        return samples[(int) ((written - n + i) % samples.length)];
+    }
+}
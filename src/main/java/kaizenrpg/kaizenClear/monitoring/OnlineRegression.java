@@ -0,0 +1,116 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+/**
+ * Linear regression with an intercept, fitted one sample at a time by recursive
+ * least squares with exponential forgetting, so older samples fade out as the
+ * load changes.
+ *
+ * Each update is O(features^2) and allocates nothing. When a feature barely
+ * moves the covariance would grow without bound under forgetting, so
+ * forgetting is paused while the covariance trace is large.
+ */
+public class OnlineRegression {
+
+    private static final double INITIAL_COVARIANCE = 1000.0;
+    private static final double MAX_TRACE = 1e6;
+
+    private final int size;
+    private final double forgetting;
+    private final double[] weights;
+    private final double[][] covariance;
+
+    // Scratch buffers
+    private final double[] x;
+    private final double[] px;
+
+    private long samples = 0;
+
+    /**
+     * @param features   number of inputs, not counting the intercept
+     * @param forgetting weight kept by older samples per update, e.g. 0.995
+     */
+    public OnlineRegression(int features, double forgetting) {
+        this.size = features + 1;
+        this.forgetting = forgetting;
+        this.weights = new double[size];
+        this.covariance = new double[size][size];
+        this.x = new double[size];
+        this.px = new double[size];
+        reset();
+    }
+
+    public void reset() {
+        for (int i = 0; i < size; i++) {
+            weights[i] = 0;
+            for (int j = 0; j < size; j++) {
+                covariance[i][j] = i == j ? INITIAL_COVARIANCE : 0;
+            }
+        }
+        samples = 0;
+    }
+
+    /**
+     * Fit one observation
+     * @param features one value per feature
+     */
+    public void update(double[] features, double y) {
+        System.arraycopy(features, 0, x, 0, size - 1);
+        x[size - 1] = 1;
+
+        double denominator = forgetting;
+        for (int i = 0; i < size; i++) {
+            double sum = 0;
+            for (int j = 0; j < size; j++) {
+                sum += covariance[i][j] * x[j];
+            }
+            px[i] = sum;
+            denominator += x[i] * sum;
+        }
+
+        double error = y;
+        for (int i = 0; i < size; i++) {
+            error -= weights[i] * x[i];
+        }
+
+        // P = (P - k x^T P) / forgetting with k = Px / denominator; P is symmetric so x^T P = (Px)^T
+        double trace = 0;
+        for (int i = 0; i < size; i++) {
+            weights[i] += px[i] / denominator * error;
+            for (int j = 0; j < size; j++) {
+                covariance[i][j] -= px[i] * px[j] / denominator;
+            }
+            trace += covariance[i][i];
+        }
+        if (trace < MAX_TRACE) {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    covariance[i][j] /= forgetting;
+                }
+            }
+        }
+        samples++;
+    }
+
+    /**
+     * Fitted weight of a feature
+     */
+    public double getCoefficient(int feature) {
+        return weights[feature];
+    }
+
+    public double getIntercept() {
+        return weights[size - 1];
+    }
+
+    public double predict(double[] features) {
+        double y = getIntercept();
+        for (int i = 0; i < size - 1; i++) {
+            y += weights[i] * features[i];
+        }
+        return y;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+}
@@ -0,0 +1,100 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import java.util.List;
+
+/**
+ * Escalating response to lag, one tier at a time.
+ *
+ * The ladder climbs a single tier per step, and only after the current tier
+ * has been held for its dwell time, so a spike gets the lightest response that
+ * works instead of everything at once. While any tier's entry condition still
+ * holds, the held tier's actions are repeated every interval, so lag that falls
+ * back into a lower tier's range but not below the held tier's exit is still
+ * acted on. It steps down a tier only after the tier's exit condition has held
+ * for the whole healthy period; the gap between entry and exit thresholds keeps
+ * it from flapping at a boundary.
+ *
+ * Time is passed in, so the ladder has no clock or server dependencies.
+ */
+public class ResponseLadder {
+
+    private final List<ResponseTier> tiers;
+    private final long healthyMillis;
+
+    private int level = 0;             // 0 is normal, n is tiers[n - 1]
+    private long levelSince = 0;
+    private long lastAction = 0;
+    private long healthySince = -1;
+
+    /**
+     * @param tiers         in escalation order
+     * @param healthyMillis how long a tier must be healthy before stepping down
+     */
+    public ResponseLadder(List<ResponseTier> tiers, long healthyMillis) {
+        this.tiers = List.copyOf(tiers);
+        this.healthyMillis = healthyMillis;
+    }
+
+    /**
+     * Feed one measurement
+     * @return the tier whose actions should run now, or null
+     */
+    public ResponseTier update(double tps, double mspt, long nowMillis) {
+        int target = 0;
+        for (int i = 0; i < tiers.size(); i++) {
+            if (tiers.get(i).shouldEnter(tps, mspt)) {
+                target = i + 1;
+            }
+        }
+
+        if (target > level) {
+            boolean dwelled = level == 0 || nowMillis - levelSince >= tiers.get(level - 1).getDwellSeconds() * 1000L;
+            if (dwelled) {
+                level++;
+                levelSince = nowMillis;
+                lastAction = nowMillis;
+                healthySince = -1;
+                return tiers.get(level - 1);
+            }
+        }
+
+        if (level == 0) return null;
+
+        ResponseTier tier = tiers.get(level - 1);
+        if (tier.isHealthy(tps, mspt)) {
+            if (healthySince < 0) {
+                healthySince = nowMillis;
+            } else if (nowMillis - healthySince >= healthyMillis) {
+                level--;
+                levelSince = nowMillis;
+                healthySince = -1;
+            }
+            return null;
+        }
+        healthySince = -1;
+
+        if (target > 0 && nowMillis - lastAction >= tier.getIntervalSeconds() * 1000L) {
+            lastAction = nowMillis;
+            return tier;
+        }
+        return null;
+    }
+
+    /**
+     * Current tier number, 0 when no tier is active
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * The active tier, or null when no tier is active
+     */
+    public ResponseTier getCurrentTier() {
+        return level == 0 ? null : tiers.get(level - 1);
+    }
+
+    public int getTierCount() {
+        return tiers.size();
+    }
+}
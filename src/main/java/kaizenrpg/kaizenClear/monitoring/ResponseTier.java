@@ -0,0 +1,47 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.managers.CleanupAction;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One step of the {@link ResponseLadder}: when it is entered and left, how long
+ * it is held before escalating further, and which cleanups it runs.
+ *
+ * A tier is entered when MSPT reaches {@code enterMspt} or TPS drops below
+ * {@code enterTps}, and counts as healthy again only once MSPT is below
+ * {@code exitMspt} and TPS at least {@code exitTps}. A threshold of 0 is unused.
+ */
+@Getter
+public class ResponseTier {
+
+    private final String name;
+    private final double enterMspt;
+    private final double exitMspt;
+    private final double enterTps;
+    private final double exitTps;
+    private final int dwellSeconds;
+    private final int intervalSeconds;
+    private final List<CleanupAction> actions;
+
+    public ResponseTier(String name, double enterMspt, double exitMspt, double enterTps, double exitTps,
+                        int dwellSeconds, int intervalSeconds, List<CleanupAction> actions) {
+        this.name = name;
+        this.enterMspt = enterMspt;
+        this.exitMspt = exitMspt;
+        this.enterTps = enterTps;
+        this.exitTps = exitTps;
+        this.dwellSeconds = dwellSeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.actions = List.copyOf(actions);
+    }
+
+    public boolean shouldEnter(double tps, double mspt) {
+        return (enterMspt > 0 && mspt >= enterMspt) || (enterTps > 0 && tps < enterTps);
+    }
+
+    public boolean isHealthy(double tps, double mspt) {
+        return (exitMspt <= 0 || mspt < exitMspt) && (exitTps <= 0 || tps >= exitTps);
+    }
+}
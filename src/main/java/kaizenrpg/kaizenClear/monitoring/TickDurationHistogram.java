@@ -0,0 +1,189 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import lombok.Getter;
+
+/**
+ * Tick durations over several sliding time windows, kept as fixed-bucket
+ * histograms so percentiles can be read at any time.
+ *
+ * Raw samples go into a ring buffer; every window keeps its own bucket counts and
+ * a cursor to its oldest sample, and samples that age out of a window are
+ * subtracted from it again. Recording a tick allocates nothing and costs a few
+ * array updates per window.
+ *
+ * Buckets are 0.1ms wide up to 100ms and 1ms wide up to 1s, with one overflow
+ * bucket above that. Percentiles report the upper edge of their bucket.
+ *
+ * Recording and reading are synchronized, so snapshots may be taken from any thread.
+ */
+public class TickDurationHistogram {
+
+    private static final int FINE_BUCKETS = 1000;   // 0.1ms each, up to 100ms
+    private static final int COARSE_BUCKETS = 900;  // 1ms each, up to 1000ms
+    private static final int OVERFLOW_BUCKET = FINE_BUCKETS + COARSE_BUCKETS;
+    private static final int BUCKETS = OVERFLOW_BUCKET + 1;
+
+    private final long[] windowNanos;
+    private final int[][] counts;
+    private final int[] windowSizes;
+    private final long[] windowSums;
+    private final long[] windowTails;
+
+    private final int capacity;
+    private final int[] micros;
+    private final short[] buckets;
+    private final long[] times;
+    private long written = 0;
+
+    /**
+     * @param capacity  number of raw samples kept; should cover the longest window
+     * @param windowSeconds length of each window in seconds
+     */
+    public TickDurationHistogram(int capacity, int... windowSeconds) {
+        this.capacity = capacity;
+        this.micros = new int[capacity];
+        this.buckets = new short[capacity];
+        this.times = new long[capacity];
+
+        int windows = windowSeconds.length;
+        this.windowNanos = new long[windows];
+        for (int w = 0; w < windows; w++) {
+            windowNanos[w] = windowSeconds[w] * 1_000_000_000L;
+        }
+        this.counts = new int[windows][BUCKETS];
+        this.windowSizes = new int[windows];
+        this.windowSums = new long[windows];
+        this.windowTails = new long[windows];
+    }
+
+    /**
+     * Record one tick
+     * @param nowNanos {@link System#nanoTime()} when the tick ended
+     */
+    public synchronized void record(long nowNanos, double durationMillis) {
+        // Make room: the sample about to be overwritten leaves every window still holding it
+        long overwritten = written - capacity;
+        if (overwritten >= 0) {
+            for (int w = 0; w < windowNanos.length; w++) {
+                if (windowTails[w] <= overwritten) {
+                    evictOldest(w);
+                }
+            }
+        }
+
+        int value = (int) Math.min(Integer.MAX_VALUE, Math.max(0, Math.round(durationMillis * 1000)));
+        short bucket = (short) bucketOf(value);
+        int index = (int) (written % capacity);
+        micros[index] = value;
+        buckets[index] = bucket;
+        times[index] = nowNanos;
+        written++;
+
+        for (int w = 0; w < windowNanos.length; w++) {
+            counts[w][bucket]++;
+            windowSizes[w]++;
+            windowSums[w] += value;
+
+            long cutoff = nowNanos - windowNanos[w];
+            while (windowTails[w] < written && times[(int) (windowTails[w] % capacity)] <= cutoff) {
+                evictOldest(w);
+            }
+        }
+    }
+
+    /**
+     * Statistics of one window
+     * @param window index into the window lengths given to the constructor
+     */
+    public synchronized Snapshot snapshot(int window) {
+        int size = windowSizes[window];
+        if (size == 0) {
+            return new Snapshot(0, 0, 0, 0, 0, 0);
+        }
+
+        double max = windowMax(window);
+        return new Snapshot(
+                size,
+                windowSums[window] / 1000.0 / size,
+                percentile(window, 50, max),
+                percentile(window, 95, max),
+                percentile(window, 99, max),
+                max
+        );
+    }
+
+    /**
+     * A percentile of one window in milliseconds, 0 when the window is empty
+     */
+    public synchronized double getPercentile(int window, double percentile) {
+        if (windowSizes[window] == 0) return 0;
+        return percentile(window, percentile, windowMax(window));
+    }
+
+    public int getWindowCount() {
+        return windowNanos.length;
+    }
+
+    private double percentile(int window, double percentile, double max) {
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * windowSizes[window]));
+        int[] windowCounts = counts[window];
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += windowCounts[bucket];
+            if (seen >= target) {
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    private double windowMax(int window) {
+        double max = 0;
+        for (long seq = windowTails[window]; seq < written; seq++) {
+            max = Math.max(max, micros[(int) (seq % capacity)] / 1000.0);
+        }
+        return max;
+    }
+
+    private void evictOldest(int window) {
+        int index = (int) (windowTails[window] % capacity);
+        counts[window][buckets[index]]--;
+        windowSizes[window]--;
+        windowSums[window] -= micros[index];
+        windowTails[window]++;
+    }
+
+    private static int bucketOf(int micros) {
+        if (micros < 100_000) return micros / 100;
+        if (micros < 1_000_000) return FINE_BUCKETS + (micros - 100_000) / 1000;
+        return OVERFLOW_BUCKET;
+    }
+
+    private static double upperBound(int bucket) {
+        if (bucket < FINE_BUCKETS) return (bucket + 1) / 10.0;
+        if (bucket < OVERFLOW_BUCKET) return 100 + (bucket - FINE_BUCKETS + 1);
+        return Double.MAX_VALUE;
+    }
+
+    /**
+     * Tick duration statistics of one window, in milliseconds
+     */
+    @Getter
+    public static class Snapshot {
+        private final int ticks;
+        private final double mean;
+        private final double p50;
+        private final double p95;
+        private final double p99;
+        private final double max;
+
+        Snapshot(int ticks, double mean, double p50, double p95, double p99, double max) {
+            this.ticks = ticks;
+            this.mean = mean;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.metrics.AtomicHistogram;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Records the duration of every server tick, so lag shows up within a tick
+ * instead of through the 1-minute TPS average.
+ *
+ * Folia does not run a single server tick, so there the windows stay empty and
+ * every percentile reads 0.
+ */
+public class TickRecorder implements Listener {
+
+    public static final int FIVE_SECONDS = 0;
+    public static final int ONE_MINUTE = 1;
+    public static final int FIVE_MINUTES = 2;
+
+    private static final String[] WINDOW_NAMES = {"5s", "1m", "5m"};
+
+    // About 6.8 minutes of ticks at 20 TPS, enough to cover the 5 minute window
+    private static final int SAMPLE_CAPACITY = 8192;
+
+    private final TickDurationHistogram histogram = new TickDurationHistogram(SAMPLE_CAPACITY, 5, 60, 300);
+    private final AtomicHistogram metrics;
+
+    public TickRecorder(KaizenClear plugin) {
+        this.metrics = plugin.getMetrics().getTickDuration();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        histogram.record(System.nanoTime(), event.getTickDuration());
+        metrics.observe(event.getTickDuration() / 1000.0);
+    }
+
+    /**
+     * MSPT statistics of a window
+     * @param window {@link #FIVE_SECONDS}, {@link #ONE_MINUTE} or {@link #FIVE_MINUTES}
+     */
+    public TickDurationHistogram.Snapshot getSnapshot(int window) {
+        return histogram.snapshot(window);
+    }
+
+    /**
+     * An MSPT percentile of a window, 0 when no ticks were recorded
+     */
+    public double getPercentile(int window, double percentile) {
+        return histogram.getPercentile(window, percentile);
+    }
+
+    public static String getWindowName(int window) {
+        return WINDOW_NAMES[window];
+    }
+
+    /**
+     * Parse a window name (5s, 1m or 5m)
+     * @return the window, or -1 if the name is unknown
+     */
+    public static int parseWindow(String name) {
+        for (int window = 0; window < WINDOW_NAMES.length; window++) {
+            if (WINDOW_NAMES[window].equalsIgnoreCase(name)) {
+                return window;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,119 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import lombok.Getter;
+
+/**
+ * Predicts MSPT crossing a threshold before it happens, so a light cleanup can
+ * start while there is still headroom.
+ *
+ * MSPT and the entity count are each fitted with a line over the last
+ * {@code tps.predictive.window} seconds. A crossing is predicted when the MSPT
+ * line reaches the threshold within the lookahead, the fit explains at
+ * least {@code min-confidence} of the variation (R^2), and entities are growing
+ * too, which is what a cleanup can actually fix.
+ *
+ * Each prediction is scored once its lookahead has passed: a hit if MSPT did
+ * reach the threshold, a false alarm if it did not. Crossings nobody predicted
+ * count as misses. A cleanup that worked also scores as a false alarm, so the
+ * hit rate is a lower bound.
+ */
+public class TrendForecaster {
+
+    private final KaizenClear plugin;
+    private final LinearTrend msptTrend;
+    private final LinearTrend entityTrend;
+    private final int lookaheadSamples;
+    private final double minConfidence;
+
+    private long sample = 0;
+    private long predictionDeadline = -1;   // sample by which the open prediction must come true
+    private boolean predictionHit = false;
+    private boolean wasOverThreshold = false;
+
+    @Getter
+    private double lastForecast = 0;
+    @Getter
+    private int hits = 0;
+    @Getter
+    private int falseAlarms = 0;
+    @Getter
+    private int misses = 0;
+
+    public TrendForecaster(KaizenClear plugin) {
+        this.plugin = plugin;
+        ConfigManager config = plugin.getConfigManager();
+
+        double samplesPerSecond = 20.0 / config.getTpsUpdateInterval();
+        int window = Math.max(2, (int) Math.round(config.getPredictiveWindowSeconds() * samplesPerSecond));
+        this.msptTrend = new LinearTrend(window);
+        this.entityTrend = new LinearTrend(window);
+        this.lookaheadSamples = Math.max(1, (int) Math.round(config.getPredictiveLookaheadSeconds() * samplesPerSecond));
+        this.minConfidence = config.getPredictiveMinConfidence();
+    }
+
+    /**
+     * Add one sample of each series and forecast
+     * @param threshold MSPT at which the first response tier would be entered
+     * @return true when a new crossing was predicted and a light cleanup should start
+     */
+    public boolean update(double mspt, int entities, double threshold) {
+        msptTrend.add(mspt);
+        entityTrend.add(entities);
+        sample++;
+
+        boolean overThreshold = mspt >= threshold;
+        score(overThreshold);
+
+        if (!msptTrend.isReady()) return false;
+
+        msptTrend.fit();
+        entityTrend.fit();
+        lastForecast = msptTrend.forecast(lookaheadSamples);
+
+        if (overThreshold || predictionDeadline >= 0) return false;
+
+        boolean predicted = msptTrend.getSlope() > 0
+                && lastForecast >= threshold
+                && msptTrend.getConfidence() >= minConfidence
+                && entityTrend.getSlope() > 0;
+        if (predicted) {
+            predictionDeadline = sample + lookaheadSamples;
+            predictionHit = false;
+        }
+        return predicted;
+    }
+
+    /**
+     * Share of scored predictions that came true, 0 before the first one
+     */
+    public double getHitRate() {
+        int scored = hits + falseAlarms;
+        return scored == 0 ? 0 : (double) hits / scored;
+    }
+
+    private void score(boolean overThreshold) {
+        boolean crossed = overThreshold && !wasOverThreshold;
+        wasOverThreshold = overThreshold;
+
+        if (predictionDeadline >= 0) {
+            if (overThreshold) {
+                predictionHit = true;
+            }
+            if (sample >= predictionDeadline) {
+                if (predictionHit) hits++; else falseAlarms++;
+                predictionDeadline = -1;
+                logAccuracy(predictionHit ? "came true" : "did not come true");
+            }
+        } else if (crossed) {
+            misses++;
+            logAccuracy("missed a crossing");
+        }
+    }
+
+    private void logAccuracy(String outcome) {
+        plugin.getLogger().info(String.format("MSPT forecast %s (hits %d, false alarms %d, misses %d, hit rate %.0f%%)",
+                outcome, hits, falseAlarms, misses, getHitRate() * 100));
+    }
+}
@@ -0,0 +1,50 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Projectile;
+import org.bukkit.entity.Vehicle;
+
+/**
+ * Coarse entity categories used by scans and statistics.
+ * An entity is classified once per scan and the result is shared by every visitor.
+ */
+public enum EntityCategory {
+    ITEM,
+    MONSTER,
+    ANIMAL,
+    PROJECTILE,
+    VEHICLE,
+    OTHER;
+
+    private static final EntityCategory[] VALUES = values();
+
+    /**
+     * Bit of this category in a category mask
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Classify an entity, checking in the same order as the world statistics
+     */
+    public static EntityCategory of(Entity entity) {
+        if (entity instanceof Item) return ITEM;
+        if (entity instanceof Monster) return MONSTER;
+        if (entity instanceof Animals) return ANIMAL;
+        if (entity instanceof Projectile) return PROJECTILE;
+        if (entity instanceof Vehicle) return VEHICLE;
+        return OTHER;
+    }
+
+    public static EntityCategory byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -1,22 +1,29 @@
 package kaizenrpg.kaizenClear.scanners;
 
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.filters.MaterialRules;
+import kaizenrpg.kaizenClear.jfr.ClusterDetectionEvent;
+import kaizenrpg.kaizenClear.jfr.WorldScanEvent;
 import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.tracking.BypassCache;
+import kaizenrpg.kaizenClear.tracking.ChunkDensityIndex;
+import kaizenrpg.kaizenClear.tracking.EntityCensus;
+import kaizenrpg.kaizenClear.tracking.ItemRegistry;
 import lombok.Getter;
 import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.entity.*;
-import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Getter
 public class EntityScanner {
 
     private final KaizenClear plugin;
     private final ConfigManager config;
+    private final ItemClusterDetector clusterDetector = new ItemClusterDetector();
 
     public EntityScanner(KaizenClear plugin) {
         this.plugin = plugin;
@@ -37,17 +44,15 @@ public class EntityScanner {
     public List<Item> scanItems(World world, boolean checkAge) {
         List<Item> itemsToRemove = new ArrayList<>();
 
-        for (Entity entity : world.getEntities()) {
-            if (entity instanceof Item item) {
-                if (checkAge) {
-                    if (shouldRemoveItem(item)) {
-                        itemsToRemove.add(item);
-                    }
-                } else {
-                    // Force mode - only check whitelist, not age
-                    if (shouldForceRemoveItem(item)) {
-                        itemsToRemove.add(item);
-                    }
+        for (Item item : getItems(world)) {
+            if (checkAge) {
+                if (shouldRemoveItem(item)) {
+                    itemsToRemove.add(item);
+                }
+            } else {
+                // Force mode - only check whitelist, not age
+                if (shouldForceRemoveItem(item)) {
+                    itemsToRemove.add(item);
                 }
             }
         }
@@ -55,24 +60,32 @@ public class EntityScanner {
         return itemsToRemove;
     }
 
+    /**
+     * Get the dropped items of a world, from the live registry when it is running
+     */
+    public List<Item> getItems(World world) {
+        ItemRegistry registry = plugin.getItemRegistry();
+        if (registry != null) {
+            return registry.getItems(world);
+        }
+        return new ArrayList<>(world.getEntitiesByClass(Item.class));
+    }
+
     /**
      * Check if item should be force-removed (ignores age, respects whitelist only)
      */
-    private boolean shouldForceRemoveItem(Item item) {
-        ItemStack stack = item.getItemStack();
-        Material type = stack.getType();
+    public boolean shouldForceRemoveItem(Item item) {
+        Material type = item.getItemStack().getType();
+        MaterialRules rules = config.getMaterialRules();
 
         // Check whitelist - never remove whitelisted items
-        if (config.getItemWhitelist().contains(type.name())) {
+        if (rules.isWhitelisted(type)) {
             return false;
         }
 
         // Check if player has bypass permission
-        if (item.getOwner() != null) {
-            Player owner = plugin.getServer().getPlayer(item.getOwner());
-            if (owner != null && owner.hasPermission("kaizenclear.bypass")) {
-                return false;
-            }
+        if (hasBypassOwner(item)) {
+            return false;
         }
 
         return true;
@@ -82,41 +95,134 @@ public class EntityScanner {
      * Scan for item clusters (many items in a small area)
      */
     public List<Item> scanItemClusters(World world) {
-        List<Item> allItems = world.getEntitiesByClass(Item.class).stream().toList();
-        List<Item> clusteredItems = new ArrayList<>();
-        Set<Item> processed = new HashSet<>();
+        return findItemClusters(world, getItems(world));
+    }
 
-        int clusterSize = config.getItemClusterSize();
-        int clusterRadius = config.getItemClusterRadius();
+    /**
+     * Find the clustered items among an already collected item list.
+     * Synchronized because the detector buffers are shared and Folia can
+     * trigger cleanups from several region threads.
+     */
+    public synchronized List<Item> findItemClusters(World world, List<Item> allItems) {
+        ClusterDetectionEvent event = new ClusterDetectionEvent();
+        event.begin();
 
+        // Copy positions into the detector's primitive buffers through one reused Location
+        Location position = new Location(world, 0, 0, 0);
+        clusterDetector.clear();
         for (Item item : allItems) {
-            if (processed.contains(item)) continue;
-
-            // Find nearby items
-            List<Item> nearbyItems = allItems.stream()
-                    .filter(other -> !processed.contains(other))
-                    .filter(other -> other.getLocation().distance(item.getLocation()) <= clusterRadius)
-                    .collect(Collectors.toList());
-
-            // If cluster is large enough, mark for removal
-            if (nearbyItems.size() >= clusterSize) {
-                clusteredItems.addAll(nearbyItems);
-                processed.addAll(nearbyItems);
-            }
+            item.getLocation(position);
+            clusterDetector.add(position.getX(), position.getY(), position.getZ());
         }
 
+        int clustered = clusterDetector.detect(config.getItemClusterRadius(), config.getItemClusterSize());
+        List<Item> clusteredItems = new ArrayList<>(clustered);
+        for (int i = 0; i < clustered; i++) {
+            clusteredItems.add(allItems.get(clusterDetector.getClusteredIndex(i)));
+        }
+
+        event.finish(world.getName(), allItems.size(), clustered, config.getItemClusterRadius(), config.getItemClusterSize());
+
         return clusteredItems;
     }
 
+    /**
+     * Walk a world once, classifying each entity and handing it to every visitor that
+     * wants its category. When only items are wanted the live item registry is walked
+     * instead of the world's entity list.
+     */
+    public void scanWorld(World world, EntityVisitor... visitors) {
+        WorldScanEvent event = new WorldScanEvent();
+        event.begin();
+        long start = System.nanoTime();
+        int wanted = beginVisitors(world, visitors);
+
+        ItemRegistry registry = plugin.getItemRegistry();
+        int dispatched = 0;
+        if (wanted == EntityCategory.ITEM.mask() && registry != null) {
+            int[] items = new int[1];
+            registry.forEachItem(world, item -> {
+                dispatch(item, EntityCategory.ITEM, visitors);
+                items[0]++;
+            });
+            dispatched = items[0];
+        } else if (wanted != 0) {
+            dispatched = dispatchAll(world.getEntities(), wanted, visitors);
+        }
+
+        endVisitors(world, visitors);
+        long nanos = System.nanoTime() - start;
+        plugin.getMetrics().getScanDuration().observe(nanos / 1e9);
+        event.end();
+        if (event.shouldCommit()) {
+            event.finish(world.getName(), plugin.getEntityCensus().getChunks(world), dispatched, false, nanos);
+        }
+    }
+
+    /**
+     * Start a pass for every visitor
+     * @return the categories wanted by any of them
+     */
+    static int beginVisitors(World world, EntityVisitor[] visitors) {
+        int wanted = 0;
+        for (EntityVisitor visitor : visitors) {
+            visitor.begin(world);
+            wanted |= visitor.categories();
+        }
+        return wanted;
+    }
+
+    /**
+     * Finish a pass for every visitor
+     */
+    static void endVisitors(World world, EntityVisitor[] visitors) {
+        for (EntityVisitor visitor : visitors) {
+            visitor.end(world);
+        }
+    }
+
+    /**
+     * Classify each entity once and dispatch the ones in a wanted category
+     * @return the number of entities dispatched
+     */
+    static int dispatchAll(List<? extends Entity> entities, int wanted, EntityVisitor[] visitors) {
+        int dispatched = 0;
+        for (Entity entity : entities) {
+            EntityCategory category = EntityCategory.of(entity);
+            if ((wanted & category.mask()) != 0) {
+                dispatch(entity, category, visitors);
+                dispatched++;
+            }
+        }
+        return dispatched;
+    }
+
+    /**
+     * Hand one classified entity to the interested visitors: all observing visitors
+     * first, then the consuming ones until one consumes it
+     */
+    static void dispatch(Entity entity, EntityCategory category, EntityVisitor[] visitors) {
+        int bit = category.mask();
+        for (EntityVisitor visitor : visitors) {
+            if (!visitor.consumes() && (visitor.categories() & bit) != 0) {
+                visitor.visit(entity, category);
+            }
+        }
+        for (EntityVisitor visitor : visitors) {
+            if (visitor.consumes() && (visitor.categories() & bit) != 0 && visitor.visit(entity, category)) {
+                return;
+            }
+        }
+    }
+
     /**
      * Scan entities in a specific chunk
      */
     public Map<EntityType, Integer> scanChunk(Chunk chunk) {
-        Map<EntityType, Integer> entityCounts = new HashMap<>();
+        Map<EntityType, Integer> entityCounts = new EnumMap<>(EntityType.class);
 
         for (Entity entity : chunk.getEntities()) {
-            EntityType type = entity.getType();
-            entityCounts.put(type, entityCounts.getOrDefault(type, 0) + 1);
+            entityCounts.merge(entity.getType(), 1, Integer::sum);
         }
 
         return entityCounts;
@@ -129,6 +235,16 @@ public class EntityScanner {
         List<Chunk> laggyChunks = new ArrayList<>();
         int maxItemsPerChunk = config.getMaxItemsPerChunk();
 
+        ChunkDensityIndex densityIndex = plugin.getDensityIndex();
+        if (densityIndex != null) {
+            for (ChunkDensityIndex.ChunkCount count : densityIndex.getChunksOver(world, EntityCategory.ITEM.ordinal(), maxItemsPerChunk)) {
+                if (world.isChunkLoaded(count.getX(), count.getZ())) {
+                    laggyChunks.add(world.getChunkAt(count.getX(), count.getZ()));
+                }
+            }
+            return laggyChunks;
+        }
+
         for (Chunk chunk : world.getLoadedChunks()) {
             long itemCount = Arrays.stream(chunk.getEntities())
                     .filter(e -> e instanceof Item)
@@ -148,6 +264,26 @@ public class EntityScanner {
     public EntityStatistics getWorldStatistics(World world) {
         EntityStatistics stats = new EntityStatistics();
 
+        EntityCensus census = plugin.getEntityCensus();
+        if (census != null) {
+            stats.totalEntities = census.getEntities(world);
+            stats.items = census.count(world, EntityCategory.ITEM);
+            stats.monsters = census.count(world, EntityCategory.MONSTER);
+            stats.animals = census.count(world, EntityCategory.ANIMAL);
+            stats.projectiles = census.count(world, EntityCategory.PROJECTILE);
+            stats.vehicles = census.count(world, EntityCategory.VEHICLE);
+            stats.chunks = census.getChunks(world);
+            return stats;
+        }
+
+        // Folia doesn't allow walking a whole world from one thread
+        if (plugin.getTaskScheduler().isFolia()) {
+            stats.totalEntities = world.getEntityCount();
+            stats.items = plugin.getItemRegistry() != null ? plugin.getItemRegistry().size(world) : 0;
+            stats.chunks = world.getChunkCount();
+            return stats;
+        }
+
         for (Entity entity : world.getEntities()) {
             stats.totalEntities++;
 
@@ -171,33 +307,64 @@ public class EntityScanner {
     /**
      * Check if an item should be removed
      */
-    private boolean shouldRemoveItem(Item item) {
-        ItemStack stack = item.getItemStack();
-        Material type = stack.getType();
+    public boolean shouldRemoveItem(Item item) {
+        Material type = item.getItemStack().getType();
+        MaterialRules rules = config.getMaterialRules();
 
         // Check whitelist
-        if (config.getItemWhitelist().contains(type.name())) {
+        if (rules.isWhitelisted(type)) {
             return false;
         }
 
         // Check if player has bypass permission
-        if (item.getOwner() != null) {
-            Player owner = plugin.getServer().getPlayer(item.getOwner());
-            if (owner != null && owner.hasPermission("kaizenclear.bypass")) {
-                return false;
-            }
+        if (hasBypassOwner(item)) {
+            return false;
         }
 
         // Check blacklist (always remove)
-        if (config.getItemBlacklist().contains(type.name())) {
+        if (rules.isBlacklisted(type)) {
             return true;
         }
 
         // Check item age
-        int ticksLived = item.getTicksLived();
-        int maxTicks = config.getDefaultItemLifetime() * 20; // Convert seconds to ticks
+        return item.getTicksLived() >= getLifetimeTicks(item);
+    }
+
+    /**
+     * Whether an entity may be removed by targeted cleanups. Entities players
+     * clearly care about (named, ridden, tamed, leashed) are never expendable.
+     */
+    public boolean isExpendable(Entity entity) {
+        if (entity instanceof Player) return false;
+        if (entity.customName() != null) return false;
+        if (!entity.getPassengers().isEmpty() || entity.isInsideVehicle()) return false;
+        if (entity instanceof Tameable tameable && tameable.isTamed()) return false;
+        if (entity instanceof LivingEntity living && living.isLeashed()) return false;
+        if (entity instanceof Item item) return shouldForceRemoveItem(item);
+        return true;
+    }
+
+    /**
+     * Lifetime of an item in ticks, from its material rule or its world's lifetime
+     */
+    public int getLifetimeTicks(Item item) {
+        int worldTicks = config.getWorldItemLifetime(item.getWorld().getName()) * 20;
+        return config.getMaterialRules().getLifetimeTicks(item.getItemStack().getType(), worldTicks);
+    }
+
+    private boolean hasBypassOwner(Item item) {
+        UUID ownerId = item.getOwner();
+        if (ownerId == null) {
+            return false;
+        }
+
+        BypassCache bypassCache = plugin.getBypassCache();
+        if (bypassCache != null) {
+            return bypassCache.isBypassed(ownerId);
+        }
 
-        return ticksLived >= maxTicks;
+        Player owner = plugin.getServer().getPlayer(ownerId);
+        return owner != null && owner.hasPermission(BypassCache.PERMISSION);
     }
 
     @Getter
@@ -0,0 +1,48 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Receives entities from a single-pass world scan.
+ * Several visitors can share one pass; each entity is classified once and only
+ * handed to the visitors whose category mask includes it.
+ *
+ * Visitors that only observe see every entity first, whatever order they were
+ * passed in. Visitors that consume entities come after them, in the order they
+ * were passed, and the first one to consume an entity hides it from the rest.
+ */
+public interface EntityVisitor {
+
+    /**
+     * Categories this visitor wants, as a mask of {@link EntityCategory#mask()} bits
+     */
+    int categories();
+
+    /**
+     * Whether {@link #visit} may consume entities. Consuming visitors are handed
+     * each entity after every observing visitor.
+     */
+    default boolean consumes() {
+        return false;
+    }
+
+    /**
+     * Called before the first entity of a world is visited
+     */
+    default void begin(World world) {
+    }
+
+    /**
+     * Visit an entity of one of the requested categories
+     * @return true if the entity was consumed (e.g. removed) and later visitors should not see it,
+     *         ignored unless this visitor {@link #consumes()}
+     */
+    boolean visit(Entity entity, EntityCategory category);
+
+    /**
+     * Called after the last entity of a world has been visited
+     */
+    default void end(World world) {
+    }
+}
@@ -0,0 +1,183 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import kaizenrpg.kaizenClear.util.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Grid-based item cluster detection.
+ *
+ * Positions are bucketed into cubic cells whose edge equals the cluster radius,
+ * so every point within range of a query lies in one of the 27 surrounding cells.
+ * Produces the same clusters as the original pairwise scan: items are visited in
+ * insertion order, and an unprocessed item seeds a cluster with every unprocessed
+ * item within the radius (itself included) once that group reaches the minimum size.
+ *
+ * Buffers are reused between runs, so a detector should be kept per scanner
+ * rather than created per scan. Instances are not thread-safe.
+ */
+public class ItemClusterDetector {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Bits per axis in a packed cell key; y needs far fewer than x/z, and the
+    // sign bit stays clear so a key never collides with the map's empty marker
+    private static final int XZ_BITS = 25;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+
+    private final LongIntHashMap cellHeads = new LongIntHashMap(INITIAL_CAPACITY, -1);
+
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private double[] zs = new double[INITIAL_CAPACITY];
+    private int[] nextInCell = new int[INITIAL_CAPACITY];
+    private boolean[] processed = new boolean[INITIAL_CAPACITY];
+    private int[] neighbours = new int[INITIAL_CAPACITY];
+    private int[] clustered = new int[INITIAL_CAPACITY];
+
+    private int size;
+    private int clusteredCount;
+
+    /**
+     * Forget all points from the previous run
+     */
+    public void clear() {
+        size = 0;
+        clusteredCount = 0;
+    }
+
+    /**
+     * Add a point and return its index
+     */
+    public int add(double x, double y, double z) {
+        if (size == xs.length) {
+            grow(size << 1);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Run detection over the points added since the last {@link #clear()}
+     * @param radius cluster radius in blocks (must be positive)
+     * @param minSize minimum number of points that make a cluster
+     * @return number of clustered points, readable through {@link #getClusteredIndex(int)}
+     */
+    public int detect(double radius, int minSize) {
+        if (radius <= 0) {
+            throw new IllegalArgumentException("Cluster radius must be positive");
+        }
+
+        clusteredCount = 0;
+        if (size == 0) return 0;
+
+        buildGrid(radius);
+        Arrays.fill(processed, 0, size, false);
+
+        double radiusSquared = radius * radius;
+
+        for (int i = 0; i < size; i++) {
+            if (processed[i]) continue;
+
+            int found = collectNeighbours(i, radius, radiusSquared);
+            if (found >= minSize) {
+                // Cells are walked in grid order; restore insertion order
+                Arrays.sort(neighbours, 0, found);
+                for (int n = 0; n < found; n++) {
+                    int index = neighbours[n];
+                    processed[index] = true;
+                    clustered[clusteredCount++] = index;
+                }
+            }
+        }
+
+        return clusteredCount;
+    }
+
+    /**
+     * Get the point index of the n-th clustered point from the last {@link #detect} run
+     */
+    public int getClusteredIndex(int n) {
+        if (n < 0 || n >= clusteredCount) {
+            throw new IndexOutOfBoundsException(n);
+        }
+        return clustered[n];
+    }
+
+    public int getClusteredCount() {
+        return clusteredCount;
+    }
+
+    private void buildGrid(double cellSize) {
+        cellHeads.clear();
+        // Insert backwards so every cell chain is in ascending index order
+        for (int i = size - 1; i >= 0; i--) {
+            long key = cellKey(cell(xs[i], cellSize), cell(ys[i], cellSize), cell(zs[i], cellSize));
+            nextInCell[i] = cellHeads.put(key, i);
+        }
+    }
+
+    private int collectNeighbours(int origin, double cellSize, double radiusSquared) {
+        double ox = xs[origin];
+        double oy = ys[origin];
+        double oz = zs[origin];
+        int cx = cell(ox, cellSize);
+        int cy = cell(oy, cellSize);
+        int cz = cell(oz, cellSize);
+        int found = 0;
+
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    int index = cellHeads.get(cellKey(cx + dx, cy + dy, cz + dz));
+                    while (index != -1) {
+                        if (!processed[index]) {
+                            double ddx = xs[index] - ox;
+                            double ddy = ys[index] - oy;
+                            double ddz = zs[index] - oz;
+                            if (ddx * ddx + ddy * ddy + ddz * ddz <= radiusSquared) {
+                                neighbours[found++] = index;
+                            }
+                        }
+                        index = nextInCell[index];
+                    }
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private static int cell(double coordinate, double cellSize) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * Pack cell coordinates into a long. Coordinates beyond the bit range wrap,
+     * which can only merge distant cells into one bucket - the distance check
+     * still keeps results exact.
+     */
+    private static long cellKey(int cx, int cy, int cz) {
+        return ((cx & XZ_MASK) << (XZ_BITS + Y_BITS))
+                | ((cz & XZ_MASK) << Y_BITS)
+                | (cy & Y_MASK);
+    }
+
+    private void grow(int capacity) {
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        zs = Arrays.copyOf(zs, capacity);
+        nextInCell = Arrays.copyOf(nextInCell, capacity);
+        processed = Arrays.copyOf(processed, capacity);
+        neighbours = Arrays.copyOf(neighbours, capacity);
+        clustered = Arrays.copyOf(clustered, capacity);
+    }
+}
@@ -0,0 +1,193 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import kaizenrpg.kaizenClear.jfr.ClusterDetectionEvent;
+import kaizenrpg.kaizenClear.jfr.FilterEvaluationEvent;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+
+import java.util.Arrays;
+
+/**
+ * Cleanup strategies that plug into a fused world scan.
+ * Each one removes entities directly while visiting (or, for clusters, right after
+ * the pass) and counts what it removed, so no intermediate entity lists are built.
+ * Instances keep their buffers between passes and can be reused on one thread.
+ */
+public final class RemovalVisitors {
+
+    private RemovalVisitors() {
+    }
+
+    /**
+     * Base class counting the entities removed in the current world
+     */
+    @Getter
+    public abstract static class RemovalVisitor implements EntityVisitor {
+
+        private final String cleanupType;
+        private int removed;
+
+        protected RemovalVisitor(String cleanupType) {
+            this.cleanupType = cleanupType;
+        }
+
+        @Override
+        public void begin(World world) {
+            removed = 0;
+        }
+
+        protected void remove(Entity entity) {
+            entity.remove();
+            removed++;
+        }
+    }
+
+    /**
+     * Removes items past their lifetime (or every non-whitelisted item when not checking age)
+     */
+    public static class ItemAgeVisitor extends RemovalVisitor {
+
+        private final EntityScanner scanner;
+        private final boolean checkAge;
+
+        // Filter statistics of the current world, timed only while the JFR event is enabled
+        private FilterEvaluationEvent event;
+        private boolean timed;
+        private int evaluated;
+        private long filterNanos;
+
+        public ItemAgeVisitor(EntityScanner scanner, boolean checkAge) {
+            super("items");
+            this.scanner = scanner;
+            this.checkAge = checkAge;
+        }
+
+        @Override
+        public int categories() {
+            return EntityCategory.ITEM.mask();
+        }
+
+        @Override
+        public boolean consumes() {
+            return true;
+        }
+
+        @Override
+        public void begin(World world) {
+            super.begin(world);
+            event = new FilterEvaluationEvent();
+            event.begin();
+            timed = event.isEnabled();
+            evaluated = 0;
+            filterNanos = 0;
+        }
+
+        @Override
+        public boolean visit(Entity entity, EntityCategory category) {
+            Item item = (Item) entity;
+            long start = timed ? System.nanoTime() : 0;
+            boolean shouldRemove = checkAge ? scanner.shouldRemoveItem(item) : scanner.shouldForceRemoveItem(item);
+            if (timed) {
+                filterNanos += System.nanoTime() - start;
+            }
+            evaluated++;
+
+            if (shouldRemove) {
+                remove(item);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void end(World world) {
+            event.finish(world.getName(), evaluated, getRemoved(), filterNanos);
+        }
+    }
+
+    /**
+     * Collects item positions during the pass and removes clustered items at the end
+     */
+    public static class ClusterVisitor extends RemovalVisitor {
+
+        private final ConfigManager config;
+        private final ItemClusterDetector detector = new ItemClusterDetector();
+        private final Location position = new Location(null, 0, 0, 0);
+        private Item[] items = new Item[256];
+
+        public ClusterVisitor(ConfigManager config) {
+            super("clusters");
+            this.config = config;
+        }
+
+        @Override
+        public int categories() {
+            return EntityCategory.ITEM.mask();
+        }
+
+        @Override
+        public void begin(World world) {
+            super.begin(world);
+            detector.clear();
+        }
+
+        @Override
+        public boolean visit(Entity entity, EntityCategory category) {
+            entity.getLocation(position);
+            int index = detector.add(position.getX(), position.getY(), position.getZ());
+            if (index == items.length) {
+                items = Arrays.copyOf(items, index << 1);
+            }
+            items[index] = (Item) entity;
+            return false;
+        }
+
+        @Override
+        public void end(World world) {
+            ClusterDetectionEvent event = new ClusterDetectionEvent();
+            event.begin();
+            int clustered = detector.detect(config.getItemClusterRadius(), config.getItemClusterSize());
+            for (int i = 0; i < clustered; i++) {
+                Item item = items[detector.getClusteredIndex(i)];
+                if (item.isValid()) {
+                    remove(item);
+                }
+            }
+
+            event.finish(world.getName(), detector.size(), clustered, config.getItemClusterRadius(), config.getItemClusterSize());
+
+            // Don't keep removed entities reachable until the next pass
+            Arrays.fill(items, 0, detector.size(), null);
+        }
+    }
+
+    /**
+     * Removes every monster
+     */
+    public static class MonsterVisitor extends RemovalVisitor {
+
+        public MonsterVisitor() {
+            super("monster");
+        }
+
+        @Override
+        public int categories() {
+            return EntityCategory.MONSTER.mask();
+        }
+
+        @Override
+        public boolean consumes() {
+            return true;
+        }
+
+        @Override
+        public boolean visit(Entity entity, EntityCategory category) {
+            remove(entity);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.jfr.WorldScanEvent;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.scheduler.TaskHandle;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Resumable world scans that only spend a fixed amount of time per tick.
+ *
+ * Each requested sweep snapshots the world's loaded chunks and keeps a cursor into
+ * them. Every tick, queued sweeps are advanced chunk by chunk until the configured
+ * nanosecond budget is used up, and the rest continues on the next tick. The
+ * callback runs on the main thread once the sweep has visited every chunk.
+ *
+ * Paper only: Folia does not allow walking a world's chunks from one thread.
+ */
+public class TimeSlicedScanner {
+
+    private final KaizenClear plugin;
+    private final ConfigManager config;
+    private final EntityScanner scanner;
+
+    private final Deque<Sweep> pending = new ArrayDeque<>();
+    private TaskHandle task;
+
+    public TimeSlicedScanner(KaizenClear plugin, EntityScanner scanner) {
+        this.plugin = plugin;
+        this.config = plugin.getConfigManager();
+        this.scanner = scanner;
+    }
+
+    /**
+     * Incrementally collect items that should be removed
+     * @param checkAge if true, only collects items older than configured lifetime
+     */
+    public void scanItems(World world, boolean checkAge, Consumer<List<Item>> onComplete) {
+        Predicate<Item> filter = checkAge ? scanner::shouldRemoveItem : scanner::shouldForceRemoveItem;
+        scanEntities(world, Item.class, filter, onComplete);
+    }
+
+    /**
+     * Incrementally collect all entities of a type that match a filter
+     */
+    public <T extends Entity> void scanEntities(World world, Class<T> entityClass, Predicate<? super T> filter,
+                                                Consumer<List<T>> onComplete) {
+        List<T> matches = new ArrayList<>();
+
+        enqueue(new Sweep(world) {
+            @Override
+            int visit(Chunk chunk) {
+                Entity[] entities = chunk.getEntities();
+                for (Entity entity : entities) {
+                    if (entityClass.isInstance(entity)) {
+                        T typed = entityClass.cast(entity);
+                        if (filter.test(typed)) {
+                            matches.add(typed);
+                        }
+                    }
+                }
+                return entities.length;
+            }
+
+            @Override
+            void complete() {
+                onComplete.accept(matches);
+            }
+        });
+    }
+
+    /**
+     * Incrementally walk a world once, handing every entity to the visitors that want it
+     * @param onComplete runs after every visitor's {@link EntityVisitor#end(World)}
+     */
+    public void scanWorld(World world, Runnable onComplete, EntityVisitor... visitors) {
+        int wanted = 0;
+        for (EntityVisitor visitor : visitors) {
+            wanted |= visitor.categories();
+        }
+        int categories = wanted;
+
+        enqueue(new Sweep(world) {
+            @Override
+            void start() {
+                for (EntityVisitor visitor : visitors) {
+                    visitor.begin(world);
+                }
+            }
+
+            @Override
+            int visit(Chunk chunk) {
+                int dispatched = 0;
+                for (Entity entity : chunk.getEntities()) {
+                    EntityCategory category = EntityCategory.of(entity);
+                    if ((categories & category.mask()) != 0) {
+                        EntityScanner.dispatch(entity, category, visitors);
+                        dispatched++;
+                    }
+                }
+                return dispatched;
+            }
+
+            @Override
+            void complete() {
+                for (EntityVisitor visitor : visitors) {
+                    visitor.end(world);
+                }
+                onComplete.run();
+            }
+        });
+    }
+
+    /**
+     * Incrementally find chunks with more items than the configured maximum
+     */
+    public void findLaggyChunks(World world, Consumer<List<Chunk>> onComplete) {
+        // The density index already knows, no sweep needed
+        if (plugin.getDensityIndex() != null) {
+            onComplete.accept(scanner.findLaggyChunks(world));
+            return;
+        }
+
+        int maxItemsPerChunk = config.getMaxItemsPerChunk();
+        List<Chunk> laggyChunks = new ArrayList<>();
+
+        enqueue(new Sweep(world) {
+            @Override
+            int visit(Chunk chunk) {
+                Entity[] entities = chunk.getEntities();
+                int itemCount = 0;
+                for (Entity entity : entities) {
+                    if (entity instanceof Item) {
+                        itemCount++;
+                    }
+                }
+                if (itemCount > maxItemsPerChunk) {
+                    laggyChunks.add(chunk);
+                }
+                return entities.length;
+            }
+
+            @Override
+            void complete() {
+                onComplete.accept(laggyChunks);
+            }
+        });
+    }
+
+    /**
+     * Number of sweeps that have not finished yet
+     */
+    public int getPendingSweeps() {
+        return pending.size();
+    }
+
+    private void enqueue(Sweep sweep) {
+        pending.addLast(sweep);
+
+        if (task == null) {
+            task = plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+        }
+    }
+
+    private void tick() {
+        long deadline = System.nanoTime() + config.getScanTickBudgetNanos();
+
+        while (!pending.isEmpty()) {
+            Sweep sweep = pending.peekFirst();
+            long start = System.nanoTime();
+            boolean done = sweep.advance(deadline);
+            sweep.nanos += System.nanoTime() - start;
+            if (!done) {
+                return; // Budget spent, resume next tick
+            }
+
+            pending.pollFirst();
+            plugin.getMetrics().getScanDuration().observe(sweep.nanos / 1e9);
+            sweep.event.end();
+            if (sweep.event.shouldCommit()) {
+                sweep.event.finish(sweep.worldName, sweep.chunks.length, sweep.visited, true, sweep.nanos);
+            }
+            try {
+                sweep.complete();
+            } catch (Exception e) {
+                plugin.getLogger().warning("Incremental scan callback failed in " + sweep.worldName + ": " + e.getMessage());
+            }
+
+            if (System.nanoTime() >= deadline) {
+                return;
+            }
+        }
+
+        // Nothing left to do, stop ticking until the next request
+        task.cancel();
+        task = null;
+    }
+
+    /**
+     * One pass over the chunks that were loaded in a world when the sweep started
+     */
+    private abstract static class Sweep {
+
+        private final String worldName;
+        private final Chunk[] chunks;
+        private int cursor = 0;
+        private boolean started = false;
+        private long nanos = 0; // time spent visiting, summed over ticks
+        private int visited = 0;
+        private final WorldScanEvent event = new WorldScanEvent();
+
+        Sweep(World world) {
+            this.worldName = world.getName();
+            this.chunks = world.getLoadedChunks();
+            event.begin();
+        }
+
+        /**
+         * Visit chunks until the deadline passes
+         * @return true once every chunk has been visited
+         */
+        boolean advance(long deadline) {
+            if (!started) {
+                started = true;
+                start();
+            }
+
+            // Always make progress, even when a single chunk overruns the budget
+            do {
+                if (cursor >= chunks.length) return true;
+
+                Chunk chunk = chunks[cursor];
+                chunks[cursor++] = null; // Don't keep unloaded chunks reachable
+                if (chunk.isLoaded()) {
+                    visited += visit(chunk);
+                }
+            } while (System.nanoTime() < deadline);
+
+            return cursor >= chunks.length;
+        }
+
+        /**
+         * Called right before the first chunk is visited
+         */
+        void start() {
+        }
+
+        /**
+         * @return the number of entities visited in the chunk
+         */
+        abstract int visit(Chunk chunk);
+
+        abstract void complete();
+    }
+}
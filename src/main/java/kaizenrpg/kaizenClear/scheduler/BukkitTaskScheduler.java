@@ -0,0 +1,100 @@
+package kaizenrpg.kaizenClear.scheduler;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Scheduler for Paper/Spigot, where everything world-related runs on the main thread
+ */
+public class BukkitTaskScheduler implements TaskScheduler {
+
+    private final KaizenClear plugin;
+
+    public BukkitTaskScheduler(KaizenClear plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isFolia() {
+        return false;
+    }
+
+    @Override
+    public TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks) {
+        return wrap(plugin.getServer().getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks));
+    }
+
+    @Override
+    public TaskHandle runLater(Runnable task, long delayTicks) {
+        return wrap(plugin.getServer().getScheduler().runTaskLater(plugin, task, delayTicks));
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        runOnMainThread(task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        runOnMainThread(() -> {
+            if (entity.isValid()) {
+                task.run();
+            } else if (retired != null) {
+                retired.run();
+            }
+        });
+    }
+
+    @Override
+    public TaskHandle runTimerForEntity(Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        TaskHandle[] handle = new TaskHandle[1];
+        handle[0] = runTimer(() -> {
+            if (!entity.isValid()) {
+                handle[0].cancel();
+                return;
+            }
+            task.run();
+        }, delayTicks, periodTicks);
+        return handle[0];
+    }
+
+    @Override
+    public void cancelAll() {
+        plugin.getServer().getScheduler().cancelTasks(plugin);
+    }
+
+    private void runOnMainThread(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, task);
+        }
+    }
+
+    private static TaskHandle wrap(BukkitTask task) {
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
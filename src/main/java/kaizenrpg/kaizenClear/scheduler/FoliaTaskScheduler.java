@@ -0,0 +1,101 @@
+package kaizenrpg.kaizenClear.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import kaizenrpg.kaizenClear.KaizenClear;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Scheduler for Folia, dispatching through the global, region, entity and async schedulers
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private final KaizenClear plugin;
+
+    public FoliaTaskScheduler(KaizenClear plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean isFolia() {
+        return true;
+    }
+
+    @Override
+    public TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks) {
+        // Folia rejects delays below one tick
+        return wrap(plugin.getServer().getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, scheduled -> task.run(), Math.max(1L, delayTicks), periodTicks));
+    }
+
+    @Override
+    public TaskHandle runLater(Runnable task, long delayTicks) {
+        return wrap(plugin.getServer().getGlobalRegionScheduler()
+                .runDelayed(plugin, scheduled -> task.run(), Math.max(1L, delayTicks)));
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        plugin.getServer().getGlobalRegionScheduler().execute(plugin, task);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        plugin.getServer().getAsyncScheduler().runNow(plugin, scheduled -> task.run());
+    }
+
+    @Override
+    public void runAtChunk(World world, int chunkX, int chunkZ, Runnable task) {
+        plugin.getServer().getRegionScheduler().execute(plugin, world, chunkX, chunkZ, task);
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task, Runnable retired) {
+        ScheduledTask scheduled = entity.getScheduler().run(plugin, t -> task.run(), retired);
+        if (scheduled == null && retired != null) {
+            // Entity was already removed, the retired callback will never fire
+            retired.run();
+        }
+    }
+
+    @Override
+    public TaskHandle runTimerForEntity(Entity entity, Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask scheduled = entity.getScheduler()
+                .runAtFixedRate(plugin, t -> task.run(), null, Math.max(1L, delayTicks), periodTicks);
+        if (scheduled == null) {
+            return CANCELLED;
+        }
+        return wrap(scheduled);
+    }
+
+    @Override
+    public void cancelAll() {
+        plugin.getServer().getGlobalRegionScheduler().cancelTasks(plugin);
+        plugin.getServer().getAsyncScheduler().cancelTasks(plugin);
+    }
+
+    private static final TaskHandle CANCELLED = new TaskHandle() {
+        @Override
+        public void cancel() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return true;
+        }
+    };
+
+    private static TaskHandle wrap(ScheduledTask task) {
+        return new TaskHandle() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
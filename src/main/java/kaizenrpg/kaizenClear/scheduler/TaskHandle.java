@@ -0,0 +1,11 @@
+package kaizenrpg.kaizenClear.scheduler;
+
+/**
+ * Handle to a scheduled task, independent of the scheduler that runs it
+ */
+public interface TaskHandle {
+
+    void cancel();
+
+    boolean isCancelled();
+}
@@ -0,0 +1,76 @@
+package kaizenrpg.kaizenClear.scheduler;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+/**
+ * Scheduling layer that works on both Paper and Folia.
+ *
+ * On Folia, work is dispatched to the thread that owns the region or entity it
+ * touches, so regions are cleaned in parallel. On Paper every method maps onto
+ * the regular Bukkit scheduler, and region/entity work already on the main
+ * thread runs immediately.
+ */
+public interface TaskScheduler {
+
+    /**
+     * Create the scheduler matching the running server
+     */
+    static TaskScheduler create(KaizenClear plugin) {
+        return isFoliaServer() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    static boolean isFoliaServer() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    boolean isFolia();
+
+    /**
+     * Run a repeating task on the global (main) thread
+     */
+    TaskHandle runTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Run a task on the global (main) thread after a delay
+     */
+    TaskHandle runLater(Runnable task, long delayTicks);
+
+    /**
+     * Run a task on the global (main) thread as soon as possible
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Run a task off the server thread
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Run a task on the thread that owns a chunk
+     */
+    void runAtChunk(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Run a task on the thread that owns an entity
+     * @param retired called instead if the entity is removed before the task runs
+     */
+    void runForEntity(Entity entity, Runnable task, Runnable retired);
+
+    /**
+     * Run a repeating task on the thread that owns an entity, until it is cancelled
+     * or the entity is removed
+     */
+    TaskHandle runTimerForEntity(Entity entity, Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Cancel every task this plugin scheduled
+     */
+    void cancelAll();
+}
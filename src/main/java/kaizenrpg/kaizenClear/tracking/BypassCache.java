@@ -0,0 +1,127 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.scheduler.TaskHandle;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Online players holding the bypass permission, so item scans can check an
+ * owner with one set lookup instead of a player lookup and permission check.
+ *
+ * Players are checked on join and world change, and every online player is
+ * re-checked periodically to pick up permission changes made in between.
+ * Offline owners never bypass, same as before the cache existed.
+ */
+public class BypassCache implements Listener {
+
+    public static final String PERMISSION = "kaizenclear.bypass";
+
+    private final KaizenClear plugin;
+    private final Set<UUID> bypassOwners = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private TaskHandle task;
+    private long intervalTicks;
+
+    public BypassCache(KaizenClear plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        refreshAll();
+        schedule();
+    }
+
+    /**
+     * Re-check every online player and pick up a changed refresh interval after a reload
+     */
+    public void reload() {
+        refreshAll();
+        if (plugin.getConfigManager().getBypassRefreshInterval() * 20L != intervalTicks) {
+            task.cancel();
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        intervalTicks = plugin.getConfigManager().getBypassRefreshInterval() * 20L;
+        task = plugin.getTaskScheduler().runTimer(this::refreshAll, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Whether items owned by this player are immune to cleanup
+     */
+    public boolean isBypassed(UUID owner) {
+        if (bypassOwners.contains(owner)) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Re-check the permission of every online player
+     */
+    public void refreshAll() {
+        bypassOwners.removeIf(uuid -> plugin.getServer().getPlayer(uuid) == null);
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            refresh(player);
+        }
+    }
+
+    /**
+     * Re-check the permission of one player
+     */
+    public void refresh(Player player) {
+        if (player.hasPermission(PERMISSION)) {
+            bypassOwners.add(player.getUniqueId());
+        } else {
+            bypassOwners.remove(player.getUniqueId());
+        }
+    }
+
+    public int size() {
+        return bypassOwners.size();
+    }
+
+    /**
+     * Lookups that found a bypassing owner
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Lookups for owners without bypass
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Permission plugins may grant permissions per world
+        refresh(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        bypassOwners.remove(event.getPlayer().getUniqueId());
+    }
+}
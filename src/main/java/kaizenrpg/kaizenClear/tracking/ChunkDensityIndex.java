@@ -0,0 +1,454 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
+import kaizenrpg.kaizenClear.util.ChunkKeys;
+import kaizenrpg.kaizenClear.util.LongIntHashMap;
+import lombok.Getter;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-chunk entity counts by {@link EntityCategory}, kept up to date from entity
+ * add and remove events (through the {@link EntityTracker}) so density questions
+ * never have to walk chunks.
+ *
+ * Each entity is counted in its home chunk: the chunk it was in when it was
+ * added. Entities wander, so a few chunks are re-counted every tick and any
+ * entity found outside its home chunk is moved to the chunk it is actually in.
+ * On Paper the re-count cycles through every loaded chunk; on Folia it cycles
+ * through the indexed chunks, each on its own region thread.
+ */
+public class ChunkDensityIndex {
+
+    /**
+     * Pseudo-category for queries over all entities in a chunk
+     */
+    public static final int ALL = -1;
+
+    private static final int CATEGORIES = EntityCategory.count();
+
+    private final KaizenClear plugin;
+    private final Map<UUID, WorldDensity> worlds = new ConcurrentHashMap<>();
+    private final Deque<ReconcilePass> reconcileQueue = new ArrayDeque<>();
+
+    // Per-category counts above which a chunk is marked dirty, null when nobody is listening
+    private volatile int[] dirtyThresholds;
+
+    public ChunkDensityIndex(KaizenClear plugin) {
+        this.plugin = plugin;
+
+        // Folia doesn't allow walking a world from one thread, reconciliation picks them up instead
+        if (!plugin.getTaskScheduler().isFolia()) {
+            for (World world : plugin.getServer().getWorlds()) {
+                for (Entity entity : world.getEntities()) {
+                    add(entity);
+                }
+            }
+        }
+
+        plugin.getTaskScheduler().runTimer(this::reconcileTick, 20L, 1L);
+    }
+
+    /**
+     * Number of entities of a category counted in a chunk
+     * @param category an {@link EntityCategory} ordinal, or {@link #ALL}
+     */
+    public int count(World world, int chunkX, int chunkZ, int category) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null ? 0 : density.count(ChunkKeys.pack(chunkX, chunkZ), category);
+    }
+
+    /**
+     * Number of entities of a category counted in a world
+     * @param category an {@link EntityCategory} ordinal, or {@link #ALL}
+     */
+    public int total(World world, int category) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null ? 0 : density.total(category);
+    }
+
+    /**
+     * Chunks with more than {@code threshold} entities of a category
+     * @param category an {@link EntityCategory} ordinal, or {@link #ALL}
+     */
+    public List<ChunkCount> getChunksOver(World world, int category, int threshold) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null ? new ArrayList<>() : density.over(category, threshold);
+    }
+
+    /**
+     * The {@code limit} chunks with the most entities of a category, densest first
+     * @param category an {@link EntityCategory} ordinal, or {@link #ALL}
+     */
+    public List<ChunkCount> getDensestChunks(World world, int category, int limit) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null || limit <= 0 ? new ArrayList<>() : density.top(category, limit);
+    }
+
+    /**
+     * Number of chunks with at least one counted entity
+     */
+    public int getIndexedChunks(World world) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null ? 0 : density.chunkCount();
+    }
+
+    /**
+     * Re-count a chunk from its actual entities. Must run on the chunk's thread.
+     */
+    public void reconcile(Chunk chunk) {
+        WorldDensity density = density(chunk.getWorld());
+        long key = ChunkKeys.pack(chunk.getX(), chunk.getZ());
+        int[] thresholds = dirtyThresholds;
+        for (Entity entity : chunk.getEntities()) {
+            density.add(entity.getEntityId(), key, EntityCategory.of(entity).ordinal(), thresholds);
+        }
+    }
+
+    /**
+     * Start marking chunks dirty when a category count grows past its threshold
+     * @param thresholds per {@link EntityCategory} ordinal, 0 for categories to ignore;
+     *                   null stops tracking
+     */
+    public void setDirtyThresholds(int[] thresholds) {
+        this.dirtyThresholds = thresholds == null ? null : thresholds.clone();
+        if (thresholds == null) {
+            for (WorldDensity density : worlds.values()) {
+                density.clearDirty();
+            }
+        }
+    }
+
+    /**
+     * Take up to {@code max} dirty chunk keys, oldest first
+     * @return number of keys written to {@code out}
+     * @see ChunkKeys
+     */
+    public int drainDirtyChunks(World world, long[] out, int max) {
+        WorldDensity density = worlds.get(world.getUID());
+        return density == null ? 0 : density.drainDirty(out, Math.min(max, out.length));
+    }
+
+    void add(Entity entity) {
+        Location location = entity.getLocation();
+        long key = ChunkKeys.ofBlock(location.getBlockX(), location.getBlockZ());
+        density(entity.getWorld()).add(entity.getEntityId(), key, EntityCategory.of(entity).ordinal(), dirtyThresholds);
+    }
+
+    void remove(Entity entity) {
+        // Check every world, an entity may already report its portal destination
+        int id = entity.getEntityId();
+        for (WorldDensity density : worlds.values()) {
+            density.remove(id);
+        }
+    }
+
+    void removeWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    private WorldDensity density(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldDensity());
+    }
+
+    private void reconcileTick() {
+        int budget = plugin.getConfigManager().getDensityReconcileChunksPerTick();
+
+        while (budget > 0) {
+            if (reconcileQueue.isEmpty()) {
+                startReconcileCycle();
+                if (reconcileQueue.isEmpty()) return;
+            }
+
+            ReconcilePass pass = reconcileQueue.peekFirst();
+            if (pass.cursor >= pass.keys.length) {
+                reconcileQueue.pollFirst();
+                // Start the next cycle on the next tick at the earliest
+                if (reconcileQueue.isEmpty()) return;
+                continue;
+            }
+
+            long key = pass.keys[pass.cursor++];
+            World world = pass.world;
+            int chunkX = ChunkKeys.x(key);
+            int chunkZ = ChunkKeys.z(key);
+            plugin.getTaskScheduler().runAtChunk(world, chunkX, chunkZ, () -> {
+                if (world.isChunkLoaded(chunkX, chunkZ)) {
+                    reconcile(world.getChunkAt(chunkX, chunkZ));
+                }
+            });
+            budget--;
+        }
+    }
+
+    private void startReconcileCycle() {
+        boolean folia = plugin.getTaskScheduler().isFolia();
+        for (World world : plugin.getServer().getWorlds()) {
+            long[] keys;
+            if (folia) {
+                keys = density(world).chunkKeys();
+            } else {
+                Chunk[] chunks = world.getLoadedChunks();
+                keys = new long[chunks.length];
+                for (int i = 0; i < chunks.length; i++) {
+                    keys[i] = ChunkKeys.pack(chunks[i].getX(), chunks[i].getZ());
+                }
+            }
+            if (keys.length > 0) {
+                reconcileQueue.addLast(new ReconcilePass(world, keys));
+            }
+        }
+    }
+
+    private static class ReconcilePass {
+        private final World world;
+        private final long[] keys;
+        private int cursor = 0;
+
+        ReconcilePass(World world, long[] keys) {
+            this.world = world;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Entity count of one chunk, as returned by density queries
+     */
+    @Getter
+    public static class ChunkCount {
+        private final int x;
+        private final int z;
+        private final int count;
+
+        ChunkCount(long key, int count) {
+            this.x = ChunkKeys.x(key);
+            this.z = ChunkKeys.z(key);
+            this.count = count;
+        }
+    }
+
+    /**
+     * Counters of one world. Chunk slots are recycled through a free list rather
+     * than compacted, so an entity's home can be stored as its slot: a slot stays
+     * allocated while any entity is homed in it.
+     */
+    private static class WorldDensity {
+
+        private static final int INITIAL_CHUNKS = 64;
+
+        private final LongIntHashMap slotByChunk = new LongIntHashMap(INITIAL_CHUNKS, -1);
+        // Entity id -> (home slot << 3) | category
+        private final LongIntHashMap homeById = new LongIntHashMap(1024, -1);
+        private final int[] worldTotals = new int[CATEGORIES];
+
+        private long[] chunkKeys = new long[INITIAL_CHUNKS];
+        private int[] counts = new int[INITIAL_CHUNKS * CATEGORIES];
+        private int[] totals = new int[INITIAL_CHUNKS];
+        private int[] freeSlots = new int[16];
+        private int freeCount = 0;
+        private int slotLimit = 0;
+
+        private final LongIntHashMap dirtySet = new LongIntHashMap(16, -1);
+        private long[] dirtyQueue = new long[16];
+        private int dirtyCount = 0;
+
+        synchronized void add(int entityId, long chunkKey, int category, int[] thresholds) {
+            int home = homeById.get(entityId);
+            if (home != -1) {
+                int slot = home >>> 3;
+                if (chunkKeys[slot] == chunkKey && (home & 7) == category) return;
+                unhome(home);
+            }
+
+            int slot = slotFor(chunkKey);
+            int count = ++counts[slot * CATEGORIES + category];
+            totals[slot]++;
+            worldTotals[category]++;
+            homeById.put(entityId, slot << 3 | category);
+
+            if (thresholds != null && thresholds[category] > 0 && count > thresholds[category]) {
+                markDirty(chunkKey);
+            }
+        }
+
+        synchronized int drainDirty(long[] out, int max) {
+            int taken = Math.min(max, dirtyCount);
+            System.arraycopy(dirtyQueue, 0, out, 0, taken);
+            System.arraycopy(dirtyQueue, taken, dirtyQueue, 0, dirtyCount - taken);
+            dirtyCount -= taken;
+            for (int i = 0; i < taken; i++) {
+                dirtySet.remove(out[i]);
+            }
+            return taken;
+        }
+
+        synchronized void clearDirty() {
+            dirtySet.clear();
+            dirtyCount = 0;
+        }
+
+        synchronized void remove(int entityId) {
+            int home = homeById.remove(entityId);
+            if (home != -1) {
+                unhome(home);
+            }
+        }
+
+        synchronized int count(long chunkKey, int category) {
+            int slot = slotByChunk.get(chunkKey);
+            if (slot == -1) return 0;
+            return category == ALL ? totals[slot] : counts[slot * CATEGORIES + category];
+        }
+
+        synchronized int total(int category) {
+            if (category != ALL) return worldTotals[category];
+
+            int sum = 0;
+            for (int total : worldTotals) {
+                sum += total;
+            }
+            return sum;
+        }
+
+        synchronized int chunkCount() {
+            return slotByChunk.size();
+        }
+
+        synchronized long[] chunkKeys() {
+            long[] keys = new long[slotByChunk.size()];
+            int index = 0;
+            for (int slot = 0; slot < slotLimit; slot++) {
+                if (totals[slot] > 0) {
+                    keys[index++] = chunkKeys[slot];
+                }
+            }
+            return keys;
+        }
+
+        synchronized List<ChunkCount> over(int category, int threshold) {
+            List<ChunkCount> result = new ArrayList<>();
+            for (int slot = 0; slot < slotLimit; slot++) {
+                int value = valueOf(slot, category);
+                if (value > threshold) {
+                    result.add(new ChunkCount(chunkKeys[slot], value));
+                }
+            }
+            return result;
+        }
+
+        synchronized List<ChunkCount> top(int category, int limit) {
+            // Min-heap of the densest slots seen so far
+            int[] heap = new int[Math.min(limit, slotByChunk.size())];
+            int size = 0;
+
+            for (int slot = 0; slot < slotLimit; slot++) {
+                int value = valueOf(slot, category);
+                if (value <= 0) continue;
+
+                if (size < heap.length) {
+                    heap[size] = slot;
+                    siftUp(heap, size++, category);
+                } else if (size > 0 && value > valueOf(heap[0], category)) {
+                    heap[0] = slot;
+                    siftDown(heap, size, category);
+                }
+            }
+
+            List<ChunkCount> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                result.add(new ChunkCount(chunkKeys[heap[i]], valueOf(heap[i], category)));
+            }
+            result.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+            return result;
+        }
+
+        private void markDirty(long chunkKey) {
+            if (dirtySet.put(chunkKey, 1) != -1) return;
+
+            if (dirtyCount == dirtyQueue.length) {
+                dirtyQueue = Arrays.copyOf(dirtyQueue, dirtyCount << 1);
+            }
+            dirtyQueue[dirtyCount++] = chunkKey;
+        }
+
+        private int valueOf(int slot, int category) {
+            return category == ALL ? totals[slot] : counts[slot * CATEGORIES + category];
+        }
+
+        private void siftUp(int[] heap, int index, int category) {
+            int slot = heap[index];
+            int value = valueOf(slot, category);
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (valueOf(heap[parent], category) <= value) break;
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = slot;
+        }
+
+        private void siftDown(int[] heap, int size, int category) {
+            int slot = heap[0];
+            int value = valueOf(slot, category);
+            int index = 0;
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) break;
+                if (child + 1 < size && valueOf(heap[child + 1], category) < valueOf(heap[child], category)) {
+                    child++;
+                }
+                if (valueOf(heap[child], category) >= value) break;
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = slot;
+        }
+
+        private void unhome(int home) {
+            int slot = home >>> 3;
+            int category = home & 7;
+            counts[slot * CATEGORIES + category]--;
+            worldTotals[category]--;
+            if (--totals[slot] == 0) {
+                slotByChunk.remove(chunkKeys[slot]);
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+                }
+                freeSlots[freeCount++] = slot;
+            }
+        }
+
+        private int slotFor(long chunkKey) {
+            int slot = slotByChunk.get(chunkKey);
+            if (slot != -1) return slot;
+
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                if (slotLimit == chunkKeys.length) {
+                    int capacity = slotLimit << 1;
+                    chunkKeys = Arrays.copyOf(chunkKeys, capacity);
+                    counts = Arrays.copyOf(counts, capacity * CATEGORIES);
+                    totals = Arrays.copyOf(totals, capacity);
+                }
+                slot = slotLimit++;
+            }
+
+            chunkKeys[slot] = chunkKey;
+            slotByChunk.put(chunkKey, slot);
+            return slot;
+        }
+    }
+}
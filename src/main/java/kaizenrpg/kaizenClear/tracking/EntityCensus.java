@@ -0,0 +1,155 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.scanners.EntityCategory;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live per-world entity counts by {@link EntityCategory} and loaded chunk counts,
+ * so monitoring and statistics read them without touching a single entity.
+ *
+ * Entities are counted per category by the {@link ChunkDensityIndex}, which is fed
+ * by the shared {@link EntityTracker} and corrects itself by re-counting a few
+ * chunks every tick; chunks are counted here from load and unload events. Once a
+ * minute each world's total is checked against the server's own count, and
+ * entities the index hasn't seen (on Folia, those that existed before the plugin
+ * started) are reported under {@link EntityCategory#OTHER}.
+ */
+public class EntityCensus implements Listener {
+
+    private static final long VERIFY_INTERVAL = 1200L; // 1 minute
+
+    private final KaizenClear plugin;
+    private final ChunkDensityIndex densityIndex;
+    private final Map<UUID, WorldCounts> worlds = new ConcurrentHashMap<>();
+
+    public EntityCensus(KaizenClear plugin) {
+        this.plugin = plugin;
+        this.densityIndex = plugin.getDensityIndex();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        for (World world : plugin.getServer().getWorlds()) {
+            seed(world);
+        }
+
+        plugin.getTaskScheduler().runTimer(this::verify, VERIFY_INTERVAL, VERIFY_INTERVAL);
+    }
+
+    /**
+     * Number of entities of a category in a world
+     */
+    public int count(World world, EntityCategory category) {
+        int count = densityIndex.total(world, category.ordinal());
+        if (category == EntityCategory.OTHER) {
+            WorldCounts counts = worlds.get(world.getUID());
+            count += counts == null ? 0 : counts.unattributed;
+        }
+        return count;
+    }
+
+    /**
+     * Number of entities in a world
+     */
+    public int getEntities(World world) {
+        WorldCounts counts = worlds.get(world.getUID());
+        return densityIndex.total(world, ChunkDensityIndex.ALL) + (counts == null ? 0 : counts.unattributed);
+    }
+
+    /**
+     * Number of loaded chunks in a world
+     */
+    public int getChunks(World world) {
+        WorldCounts counts = worlds.get(world.getUID());
+        return counts == null ? 0 : Math.max(0, counts.chunks.get());
+    }
+
+    /**
+     * Number of entities in all worlds
+     */
+    public int getTotalEntities() {
+        int total = 0;
+        for (World world : plugin.getServer().getWorlds()) {
+            total += getEntities(world);
+        }
+        return total;
+    }
+
+    /**
+     * Number of loaded chunks in all worlds
+     */
+    public int getTotalChunks() {
+        int total = 0;
+        for (WorldCounts counts : worlds.values()) {
+            total += Math.max(0, counts.chunks.get());
+        }
+        return total;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        counts(event.getWorld()).chunks.incrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        counts(event.getWorld()).chunks.decrementAndGet();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent event) {
+        seed(event.getWorld());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worlds.remove(event.getWorld().getUID());
+    }
+
+    private WorldCounts counts(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldCounts());
+    }
+
+    private void seed(World world) {
+        WorldCounts counts = new WorldCounts();
+        counts.chunks.set(world.getChunkCount());
+        worlds.put(world.getUID(), counts);
+        attribute(world, counts);
+    }
+
+    private void verify() {
+        for (World world : plugin.getServer().getWorlds()) {
+            WorldCounts counts = counts(world);
+            counts.chunks.set(world.getChunkCount());
+            attribute(world, counts);
+        }
+    }
+
+    /**
+     * Book the entities the server counts but the index doesn't under OTHER.
+     * Never negative, so no category can drop below what the index has seen.
+     */
+    private void attribute(World world, WorldCounts counts) {
+        int drift = world.getEntityCount() - densityIndex.total(world, ChunkDensityIndex.ALL);
+        if (drift != counts.unattributed && plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Entity census of " + world.getName() + " is off by " + drift + " from the server's count");
+        }
+        counts.unattributed = Math.max(0, drift);
+    }
+
+    private static class WorldCounts {
+        private final AtomicInteger chunks = new AtomicInteger();
+        private volatile int unattributed;
+    }
+}
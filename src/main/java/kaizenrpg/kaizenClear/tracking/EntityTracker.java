@@ -0,0 +1,48 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import com.destroystokyo.paper.event.entity.EntityAddToWorldEvent;
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import kaizenrpg.kaizenClear.KaizenClear;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * The one listener for entity add and remove events, handing each entity to the
+ * {@link ChunkDensityIndex} and removed items to the {@link ItemRegistry}.
+ * The {@link EntityCensus} reads its counts from the density index, so every
+ * entity event is handled once no matter how many trackers use it.
+ */
+public class EntityTracker implements Listener {
+
+    private final ChunkDensityIndex densityIndex;
+    private final ItemRegistry itemRegistry;
+
+    public EntityTracker(KaizenClear plugin) {
+        this.densityIndex = plugin.getDensityIndex();
+        this.itemRegistry = plugin.getItemRegistry();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityAdd(EntityAddToWorldEvent event) {
+        densityIndex.add(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        Entity entity = event.getEntity();
+        densityIndex.remove(entity);
+        if (entity instanceof Item item) {
+            itemRegistry.untrack(item);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        densityIndex.removeWorld(event.getWorld());
+    }
+}
@@ -0,0 +1,223 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import com.destroystokyo.paper.event.entity.EntityRemoveFromWorldEvent;
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.managers.CleanupManager;
+import kaizenrpg.kaizenClear.managers.ConfigManager;
+import kaizenrpg.kaizenClear.scanners.EntityScanner;
+import kaizenrpg.kaizenClear.scheduler.TaskHandle;
+import kaizenrpg.kaizenClear.util.LongIntHashMap;
+import kaizenrpg.kaizenClear.util.TimingWheel;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Removes items the tick their lifetime ends instead of waiting for the next
+ * scheduled age scan.
+ *
+ * Every item is filed in a {@link TimingWheel} under the tick it expires when it
+ * spawns or loads, and dropped from it when it leaves the world. Each tick only
+ * the due entries are touched. An item's age is checked again when it comes
+ * due, so merges that made it younger just reschedule it. At most
+ * {@code items.expiry-max-per-tick} items are removed per tick; the rest wait
+ * for the next tick.
+ *
+ * Paper only: the wheel is shared by all worlds and must be advanced from one thread.
+ */
+public class ItemExpiryManager implements Listener {
+
+    private static final long STATS_FLUSH_INTERVAL = 1200L; // 1 minute
+
+    private final KaizenClear plugin;
+    private final ConfigManager config;
+    private final EntityScanner scanner;
+    private final CleanupManager cleanupManager;
+
+    private final TimingWheel<Item> wheel;
+    private final LongIntHashMap handlesById = new LongIntHashMap(256, -1);
+    private final Deque<Item> due = new ArrayDeque<>();
+    private final Map<UUID, Integer> pendingStats = new HashMap<>();
+
+    private final TaskHandle tickTask;
+    private final TaskHandle statsTask;
+    private long totalExpired = 0;
+
+    public ItemExpiryManager(KaizenClear plugin) {
+        this.plugin = plugin;
+        this.config = plugin.getConfigManager();
+        this.cleanupManager = plugin.getCleanupManager();
+        this.scanner = cleanupManager.getScanner();
+        this.wheel = new TimingWheel<>(Bukkit.getCurrentTick());
+
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        scheduleLoadedItems();
+
+        tickTask = plugin.getTaskScheduler().runTimer(this::tick, 1L, 1L);
+        statsTask = plugin.getTaskScheduler().runTimer(this::flushStats, STATS_FLUSH_INTERVAL, STATS_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Re-file every loaded item, e.g. after lifetimes changed on reload
+     */
+    public void rescheduleAll() {
+        wheel.clear();
+        handlesById.clear();
+        due.clear();
+        scheduleLoadedItems();
+    }
+
+    /**
+     * Stop expiring items and save what has not been recorded yet
+     */
+    public void shutdown() {
+        HandlerList.unregisterAll(this);
+        tickTask.cancel();
+        statsTask.cancel();
+        flushStats();
+        wheel.clear();
+        handlesById.clear();
+        due.clear();
+    }
+
+    /**
+     * Number of items waiting for their lifetime to end
+     */
+    public int getScheduledCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Number of due items waiting for removal budget
+     */
+    public int getDueCount() {
+        return due.size();
+    }
+
+    public long getTotalExpired() {
+        return totalExpired;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        schedule(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item item) {
+                schedule(item);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item item) {
+                unschedule(item);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityRemove(EntityRemoveFromWorldEvent event) {
+        if (event.getEntity() instanceof Item item) {
+            unschedule(item);
+        }
+    }
+
+    private void scheduleLoadedItems() {
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Item item : world.getEntitiesByClass(Item.class)) {
+                schedule(item);
+            }
+        }
+    }
+
+    private void schedule(Item item) {
+        // Whitelisted items never expire
+        if (config.getMaterialRules().isWhitelisted(item.getItemStack().getType())) return;
+
+        int remaining = scanner.getLifetimeTicks(item) - item.getTicksLived();
+        scheduleIn(item, remaining);
+    }
+
+    private void scheduleIn(Item item, int ticks) {
+        int id = item.getEntityId();
+        int previous = handlesById.get(id);
+        if (previous != -1) {
+            wheel.cancel(previous);
+        }
+        handlesById.put(id, wheel.schedule(item, wheel.getCurrentTick() + Math.max(1, ticks)));
+    }
+
+    private void unschedule(Item item) {
+        int handle = handlesById.remove(item.getEntityId());
+        if (handle != -1) {
+            wheel.cancel(handle);
+        }
+    }
+
+    private void tick() {
+        wheel.advance(Bukkit.getCurrentTick(), item -> {
+            handlesById.remove(item.getEntityId());
+            due.addLast(item);
+        });
+
+        int budget = config.getExpiryMaxPerTick();
+        Item item;
+        while (budget > 0 && (item = due.pollFirst()) != null) {
+            if (!item.isValid() || handlesById.containsKey(item.getEntityId())) continue;
+
+            int lifetime = scanner.getLifetimeTicks(item);
+            int remaining = lifetime - item.getTicksLived();
+            if (remaining > 0) {
+                // Became younger (e.g. merged into by a fresh item) or lifetime changed
+                scheduleIn(item, remaining);
+                continue;
+            }
+
+            World world = item.getWorld();
+            if (!config.isWorldEnabled(world.getName()) || !scanner.shouldRemoveItem(item)) {
+                // Bypassed or disabled for now, look again after another lifetime
+                if (!config.getMaterialRules().isWhitelisted(item.getItemStack().getType())) {
+                    scheduleIn(item, lifetime);
+                }
+                continue;
+            }
+
+            item.remove();
+            budget--;
+            totalExpired++;
+            pendingStats.merge(world.getUID(), 1, Integer::sum);
+        }
+    }
+
+    private void flushStats() {
+        if (pendingStats.isEmpty()) return;
+
+        for (Map.Entry<UUID, Integer> entry : pendingStats.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world != null) {
+                cleanupManager.recordRemovals(world, "items", entry.getValue());
+            }
+        }
+        pendingStats.clear();
+    }
+}
@@ -0,0 +1,341 @@
+package kaizenrpg.kaizenClear.tracking;
+
+import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.util.ChunkKeys;
+import kaizenrpg.kaizenClear.util.LongIntHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.ItemMergeEvent;
+import org.bukkit.event.entity.ItemSpawnEvent;
+import org.bukkit.event.world.EntitiesLoadEvent;
+import org.bukkit.event.world.EntitiesUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Live registry of dropped items, kept up to date from spawn, merge, load and
+ * unload events, and removals through the {@link EntityTracker}, so scans only
+ * touch items instead of every entity in a world.
+ *
+ * Each world keeps its items in dense arrays indexed by slot, an entity id to
+ * slot map, and an intrusive per-chunk list over the same slots. The chunk an
+ * item is filed under is the one it was in when it was registered.
+ *
+ * On Folia the events arrive from several region threads, so each world's
+ * structure is guarded by its own monitor.
+ */
+public class ItemRegistry implements Listener {
+
+    private final KaizenClear plugin;
+    private final Map<UUID, WorldItems> worlds = new ConcurrentHashMap<>();
+
+    public ItemRegistry(KaizenClear plugin) {
+        this.plugin = plugin;
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+
+        // Pick up items that already exist (e.g. after /reload)
+        int seeded = 0;
+        for (World world : plugin.getServer().getWorlds()) {
+            for (Item item : world.getEntitiesByClass(Item.class)) {
+                track(item);
+                seeded++;
+            }
+        }
+
+        if (plugin.getConfigManager().isDebugMode()) {
+            plugin.getLogger().info("Item registry seeded with " + seeded + " items");
+        }
+    }
+
+    /**
+     * Number of tracked items in a world
+     */
+    public int size(World world) {
+        WorldItems items = worlds.get(world.getUID());
+        return items == null ? 0 : items.size();
+    }
+
+    /**
+     * Number of tracked items filed under a chunk
+     */
+    public int countInChunk(World world, int chunkX, int chunkZ) {
+        WorldItems items = worlds.get(world.getUID());
+        return items == null ? 0 : items.countInChunk(ChunkKeys.pack(chunkX, chunkZ));
+    }
+
+    /**
+     * Visit every live tracked item in a world.
+     * Items removed while iterating are unregistered once the visit completes.
+     */
+    public void forEachItem(World world, Consumer<Item> action) {
+        WorldItems items = worlds.get(world.getUID());
+        if (items != null) {
+            items.forEach(action);
+        }
+    }
+
+    /**
+     * Visit every live tracked item filed under a chunk
+     */
+    public void forEachItemInChunk(World world, int chunkX, int chunkZ, Consumer<Item> action) {
+        WorldItems items = worlds.get(world.getUID());
+        if (items != null) {
+            items.forEachInChunk(ChunkKeys.pack(chunkX, chunkZ), action);
+        }
+    }
+
+    /**
+     * Copy the live tracked items filed under a chunk into a new list
+     */
+    public List<Item> getItemsInChunk(World world, int chunkX, int chunkZ) {
+        List<Item> result = new ArrayList<>(countInChunk(world, chunkX, chunkZ));
+        forEachItemInChunk(world, chunkX, chunkZ, result::add);
+        return result;
+    }
+
+    /**
+     * Snapshot the keys of all chunks that currently have tracked items
+     * @see ChunkKeys
+     */
+    public long[] getChunkKeys(World world) {
+        WorldItems items = worlds.get(world.getUID());
+        return items == null ? new long[0] : items.chunkKeys();
+    }
+
+    /**
+     * Copy the live tracked items of a world into a new list
+     */
+    public List<Item> getItems(World world) {
+        List<Item> result = new ArrayList<>(size(world));
+        forEachItem(world, result::add);
+        return result;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemSpawn(ItemSpawnEvent event) {
+        track(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onItemMerge(ItemMergeEvent event) {
+        // The merged item is removed right after this event
+        untrack(event.getEntity());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesLoad(EntitiesLoadEvent event) {
+        long key = ChunkKeys.pack(event.getChunk().getX(), event.getChunk().getZ());
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item item) {
+                worldItems(item.getWorld()).add(item, key);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntitiesUnload(EntitiesUnloadEvent event) {
+        for (Entity entity : event.getEntities()) {
+            if (entity instanceof Item item) {
+                untrack(item);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worlds.remove(event.getWorld().getUID());
+    }
+
+    private void track(Item item) {
+        Location location = item.getLocation();
+        long key = ChunkKeys.ofBlock(location.getBlockX(), location.getBlockZ());
+        worldItems(item.getWorld()).add(item, key);
+    }
+
+    void untrack(Item item) {
+        // Check every world, an item may already report its portal destination
+        int id = item.getEntityId();
+        for (WorldItems items : worlds.values()) {
+            items.remove(id);
+        }
+    }
+
+    private WorldItems worldItems(World world) {
+        return worlds.computeIfAbsent(world.getUID(), uid -> new WorldItems());
+    }
+
+    /**
+     * Items of one world. Removal swaps the last slot into the freed one, so it is
+     * deferred while an iteration is running.
+     */
+    private static class WorldItems {
+
+        private static final int INITIAL_CAPACITY = 64;
+
+        private final LongIntHashMap slotById = new LongIntHashMap(INITIAL_CAPACITY, -1);
+        private final LongIntHashMap chunkHeads = new LongIntHashMap(INITIAL_CAPACITY, -1);
+        private final LongIntHashMap chunkCounts = new LongIntHashMap(INITIAL_CAPACITY, -1);
+
+        private Item[] items = new Item[INITIAL_CAPACITY];
+        private int[] ids = new int[INITIAL_CAPACITY];
+        private long[] chunkKeys = new long[INITIAL_CAPACITY];
+        private int[] nextInChunk = new int[INITIAL_CAPACITY];
+        private int[] prevInChunk = new int[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private int iterating = 0;
+        private int[] deferredRemovals = new int[16];
+        private int deferredCount = 0;
+
+        synchronized void add(Item item, long chunkKey) {
+            int id = item.getEntityId();
+            if (slotById.containsKey(id)) return;
+
+            if (size == items.length) {
+                grow(size << 1);
+            }
+
+            int slot = size++;
+            items[slot] = item;
+            ids[slot] = id;
+            slotById.put(id, slot);
+            link(slot, chunkKey);
+        }
+
+        synchronized void remove(int id) {
+            if (iterating > 0) {
+                if (deferredCount == deferredRemovals.length) {
+                    deferredRemovals = Arrays.copyOf(deferredRemovals, deferredCount << 1);
+                }
+                deferredRemovals[deferredCount++] = id;
+                return;
+            }
+
+            int slot = slotById.remove(id);
+            if (slot == -1) return;
+
+            unlink(slot);
+
+            int last = --size;
+            if (slot != last) {
+                // Move the last item into the hole and repoint its chunk links
+                long lastChunk = chunkKeys[last];
+                unlink(last);
+                items[slot] = items[last];
+                ids[slot] = ids[last];
+                slotById.put(ids[slot], slot);
+                link(slot, lastChunk);
+            }
+            items[last] = null;
+        }
+
+        synchronized void forEach(Consumer<Item> action) {
+            iterating++;
+            try {
+                // Items added during the visit land past the bound and are skipped
+                int bound = size;
+                for (int slot = 0; slot < bound; slot++) {
+                    Item item = items[slot];
+                    if (item.isValid()) {
+                        action.accept(item);
+                    }
+                }
+            } finally {
+                finishIteration();
+            }
+        }
+
+        synchronized void forEachInChunk(long chunkKey, Consumer<Item> action) {
+            iterating++;
+            try {
+                int slot = chunkHeads.get(chunkKey);
+                while (slot != -1) {
+                    Item item = items[slot];
+                    if (item.isValid()) {
+                        action.accept(item);
+                    }
+                    slot = nextInChunk[slot];
+                }
+            } finally {
+                finishIteration();
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int countInChunk(long chunkKey) {
+            return Math.max(0, chunkCounts.get(chunkKey));
+        }
+
+        synchronized long[] chunkKeys() {
+            long[] keys = new long[chunkHeads.size()];
+            int[] index = {0};
+            chunkHeads.forEach((key, head) -> keys[index[0]++] = key);
+            return keys;
+        }
+
+        private void finishIteration() {
+            if (--iterating == 0 && deferredCount > 0) {
+                int count = deferredCount;
+                deferredCount = 0;
+                for (int i = 0; i < count; i++) {
+                    remove(deferredRemovals[i]);
+                }
+            }
+        }
+
+        private void link(int slot, long chunkKey) {
+            int head = chunkHeads.put(chunkKey, slot);
+            chunkKeys[slot] = chunkKey;
+            prevInChunk[slot] = -1;
+            nextInChunk[slot] = head;
+            if (head != -1) {
+                prevInChunk[head] = slot;
+            }
+            chunkCounts.addTo(chunkKey, 1);
+        }
+
+        private void unlink(int slot) {
+            long chunkKey = chunkKeys[slot];
+            int prev = prevInChunk[slot];
+            int next = nextInChunk[slot];
+
+            if (prev != -1) {
+                nextInChunk[prev] = next;
+            } else if (next != -1) {
+                chunkHeads.put(chunkKey, next);
+            } else {
+                chunkHeads.remove(chunkKey);
+            }
+            if (next != -1) {
+                prevInChunk[next] = prev;
+            }
+
+            if (chunkCounts.addTo(chunkKey, -1) <= 0) {
+                chunkCounts.remove(chunkKey);
+            }
+        }
+
+        private void grow(int capacity) {
+            items = Arrays.copyOf(items, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            chunkKeys = Arrays.copyOf(chunkKeys, capacity);
+            nextInChunk = Arrays.copyOf(nextInChunk, capacity);
+            prevInChunk = Arrays.copyOf(prevInChunk, capacity);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package kaizenrpg.kaizenClear.util;
+
+/**
+ * Packs chunk coordinates into a single long, using the same layout as Paper's
+ * {@code Chunk#getChunkKey()}.
+ */
+public final class ChunkKeys {
+
+    private ChunkKeys() {
+    }
+
+    public static long pack(int chunkX, int chunkZ) {
+        return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) key;
+    }
+
+    public static int z(long key) {
+        return (int) (key >> 32);
+    }
+
+    /**
+     * Key of the chunk containing a block position
+     */
+    public static long ofBlock(int blockX, int blockZ) {
+        return pack(blockX >> 4, blockZ >> 4);
+    }
+}
@@ -0,0 +1,205 @@
+package kaizenrpg.kaizenClear.util;
+
+import lombok.Getter;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Fixed-size history of doubles with a running sum, min, max and exponentially
+ * weighted moving average, all updated in O(1) per sample.
+ *
+ * Min and max are kept with monotonic queues of sample sequence numbers, so
+ * evicting the oldest sample never needs a rescan. The running sum carries a
+ * Neumaier compensation term so adding and subtracting samples of very
+ * different sizes does not drift, without ever rescanning the window.
+ *
+ * One thread writes; any thread may read. Readers use a sequence lock: the
+ * writer bumps {@code version} to odd before changing anything and back to even
+ * afterwards, and a read that saw an odd or changed version is simply retried.
+ * Writing never allocates or blocks.
+ */
+public class DoubleRingBuffer {
+
+    private final int capacity;
+    private final double alpha;
+    private final double[] values;
+
+    // Monotonic queues of sequence numbers, oldest first
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private int minHead, minSize;
+    private int maxHead, maxSize;
+
+    private volatile long version = 0;
+    private long written = 0;
+    private double sum = 0;
+    private double compensation = 0;
+    private double ewma = 0;
+
+    /**
+     * @param capacity number of samples kept
+     * @param alpha    EWMA weight of the newest sample, between 0 and 1
+     */
+    public DoubleRingBuffer(int capacity, double alpha) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be in (0, 1]: " + alpha);
+        }
+        this.capacity = capacity;
+        this.alpha = alpha;
+        this.values = new double[capacity];
+        this.minQueue = new long[capacity];
+        this.maxQueue = new long[capacity];
+    }
+
+    /**
+     * Append a sample, evicting the oldest one when full. Writer thread only.
+     */
+    public void add(double value) {
+        long v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+
+        long seq = written;
+        int index = (int) (seq % capacity);
+        if (seq >= capacity) {
+            accumulate(-values[index]);
+            long evicted = seq - capacity;
+            if (minSize > 0 && minQueue[minHead] == evicted) {
+                minHead = (minHead + 1) % capacity;
+                minSize--;
+            }
+            if (maxSize > 0 && maxQueue[maxHead] == evicted) {
+                maxHead = (maxHead + 1) % capacity;
+                maxSize--;
+            }
+        }
+
+        values[index] = value;
+        written = seq + 1;
+        accumulate(value);
+        ewma = seq == 0 ? value : ewma + alpha * (value - ewma);
+
+        while (minSize > 0 && valueAt(minQueue[(minHead + minSize - 1) % capacity]) >= value) {
+            minSize--;
+        }
+        minQueue[(minHead + minSize++) % capacity] = seq;
+
+        while (maxSize > 0 && valueAt(maxQueue[(maxHead + maxSize - 1) % capacity]) <= value) {
+            maxSize--;
+        }
+        maxQueue[(maxHead + maxSize++) % capacity] = seq;
+
+        version = v + 2;
+    }
+
+    /**
+     * Forget every sample. Writer thread only.
+     */
+    public void clear() {
+        long v = version;
+        version = v + 1;
+        VarHandle.storeStoreFence();
+
+        written = 0;
+        sum = 0;
+        compensation = 0;
+        ewma = 0;
+        minHead = minSize = 0;
+        maxHead = maxSize = 0;
+
+        version = v + 2;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Consistent view of the buffer's statistics, safe to call from any thread
+     */
+    public Stats snapshot() {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                long seq = written;
+                int count = (int) Math.min(seq, capacity);
+                double total = sum + compensation;
+                double average = ewma;
+                double latest = seq == 0 ? 0 : values[(int) ((seq - 1) % capacity)];
+                double min = minSize == 0 ? 0 : values[(int) (minQueue[minHead % capacity] % capacity)];
+                double max = maxSize == 0 ? 0 : values[(int) (maxQueue[maxHead % capacity] % capacity)];
+
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    return new Stats(count, count == 0 ? 0 : total / count, min, max, average, latest);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Copy the samples, oldest first, into {@code out}; safe to call from any thread
+     * @return the number of samples copied, at most {@code out.length}
+     */
+    public int copyTo(double[] out) {
+        while (true) {
+            long before = version;
+            if ((before & 1) == 0) {
+                long seq = written;
+                int count = (int) Math.min(Math.min(seq, capacity), out.length);
+                for (int i = 0; i < count; i++) {
+                    out[i] = values[(int) ((seq - count + i) % capacity)];
+                }
+
+                VarHandle.loadLoadFence();
+                if (version == before) {
+                    return count;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Neumaier summation: keep the low-order bits lost by each addition
+     */
+    private void accumulate(double value) {
+        double total = sum + value;
+        if (Math.abs(sum) >= Math.abs(value)) {
+            compensation += (sum - total) + value;
+        } else {
+            compensation += (value - total) + sum;
+        }
+        sum = total;
+    }
+
+    private double valueAt(long seq) {
+        return values[(int) (seq % capacity)];
+    }
+
+    /**
+     * Statistics of the samples held at one moment
+     */
+    @Getter
+    public static class Stats {
+        private final int count;
+        private final double mean;
+        private final double min;
+        private final double max;
+        private final double ewma;
+        private final double latest;
+
+        Stats(int count, double mean, double min, double max, double ewma, double latest) {
+            this.count = count;
+            this.mean = mean;
+            this.min = min;
+            this.max = max;
+            this.ewma = ewma;
+            this.latest = latest;
+        }
+    }
+}
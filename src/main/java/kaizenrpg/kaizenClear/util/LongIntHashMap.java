@@ -0,0 +1,192 @@
+package kaizenrpg.kaizenClear.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values.
+ * Used for packed cell and chunk keys on hot paths where boxing a
+ * {@code HashMap<Long, Integer>} would allocate per lookup.
+ */
+public class LongIntHashMap {
+
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public LongIntHashMap() {
+        this(16, -1);
+    }
+
+    /**
+     * Get the value for a key, or the configured missing value
+     */
+    public int get(long key) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY_KEY) return missingValue;
+            if (current == key) return values[slot];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != missingValue;
+    }
+
+    /**
+     * Store a value, returning the previous value or the missing value
+     */
+    public int put(long key, int value) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size >= resizeAt) {
+                    rehash(keys.length << 1);
+                }
+                return missingValue;
+            }
+            if (current == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Add a delta to the value of a key (missing keys start at zero)
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int current = get(key);
+        int updated = (current == missingValue ? 0 : current) + delta;
+        put(key, updated);
+        return updated;
+    }
+
+    /**
+     * Remove a key, returning its value or the missing value
+     */
+    public int remove(long key) {
+        if (key == EMPTY_KEY) {
+            throw new IllegalArgumentException("Reserved key");
+        }
+        int slot = mix(key) & mask;
+        while (true) {
+            long current = keys[slot];
+            if (current == EMPTY_KEY) return missingValue;
+            if (current == key) {
+                int previous = values[slot];
+                shiftKeys(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries while keeping the allocated table
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        size = 0;
+    }
+
+    /**
+     * Visit every entry. The map must not be modified while iterating.
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY_KEY) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private void shiftKeys(int slot) {
+        // Backward-shift deletion keeps probe chains intact without tombstones
+        int gap = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            long key = keys[current];
+            if (key == EMPTY_KEY) {
+                keys[gap] = EMPTY_KEY;
+                return;
+            }
+            int ideal = mix(key) & mask;
+            if (((current - ideal) & mask) >= ((current - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[current];
+                gap = current;
+            }
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY_KEY);
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int needed = (int) Math.ceil(Math.max(4, expectedSize) / LOAD_FACTOR);
+        return Integer.highestOneBit(needed - 1) << 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
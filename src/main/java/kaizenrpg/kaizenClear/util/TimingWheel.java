@@ -0,0 +1,223 @@
+package kaizenrpg.kaizenClear.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel keyed by tick.
+ *
+ * Four levels of 64 slots each cover deadlines up to 2^24 ticks (about 9.7 days)
+ * ahead; later deadlines wait in the top level and are re-filed when it cascades.
+ * Level 0 holds entries due within 64 ticks, one slot per tick. Whenever a lower
+ * level wraps around, the next slot of the level above is spread back down.
+ * Advancing one tick only touches the entries that are due (plus the occasional
+ * cascade), no matter how many entries are scheduled.
+ *
+ * Entries live in pooled arrays linked per slot, and handles are reused once an
+ * entry has fired or been cancelled. Not thread safe.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    private Object[] values;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] slots;
+
+    private int freeHead = NONE;
+    private int allocated = 0;
+    private int size = 0;
+    private long currentTick;
+
+    public TimingWheel(long startTick) {
+        this(startTick, 256);
+    }
+
+    public TimingWheel(long startTick, int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        this.values = new Object[capacity];
+        this.deadlines = new long[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.slots = new int[capacity];
+        this.currentTick = startTick;
+        Arrays.fill(heads, NONE);
+    }
+
+    /**
+     * Schedule a value to fire at a tick. Deadlines that are not in the future fire
+     * on the next advance.
+     * @return handle for {@link #cancel(int)}, valid until the entry fires or is cancelled
+     */
+    public int schedule(T value, long deadline) {
+        int node = allocate();
+        values[node] = value;
+        deadlines[node] = Math.max(deadline, currentTick + 1);
+        file(node);
+        size++;
+        return node;
+    }
+
+    /**
+     * Remove a scheduled entry
+     * @return the entry's value, or null if the handle is not scheduled
+     */
+    @SuppressWarnings("unchecked")
+    public T cancel(int handle) {
+        if (handle < 0 || handle >= allocated || slots[handle] == NONE) {
+            return null;
+        }
+
+        T value = (T) values[handle];
+        unfile(handle);
+        release(handle);
+        size--;
+        return value;
+    }
+
+    /**
+     * Deadline of a scheduled entry
+     */
+    public long getDeadline(int handle) {
+        return deadlines[handle];
+    }
+
+    /**
+     * Advance to a tick, handing every entry that became due to the action in
+     * deadline order. The action may schedule and cancel entries.
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(long tick, Consumer<? super T> action) {
+        while (currentTick < tick) {
+            long now = ++currentTick;
+
+            // Spread higher levels down first so entries due now reach level 0
+            if ((now & SLOT_MASK) == 0) {
+                int level = 1;
+                while (level < LEVELS && ((now >>> (SLOT_BITS * level)) & SLOT_MASK) == 0) {
+                    level++;
+                }
+                for (int l = Math.min(level, LEVELS - 1); l >= 1; l--) {
+                    cascade(l, (int) ((now >>> (SLOT_BITS * l)) & SLOT_MASK));
+                }
+            }
+
+            int slot = (int) (now & SLOT_MASK);
+            int node;
+            while ((node = heads[slot]) != NONE) {
+                T value = (T) values[node];
+                unfile(node);
+                release(node);
+                size--;
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * Tick the wheel has been advanced to
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(values, 0, allocated, null);
+        freeHead = NONE;
+        allocated = 0;
+        size = 0;
+    }
+
+    private void cascade(int level, int index) {
+        int slot = level * SLOTS + index;
+        int node = heads[slot];
+        heads[slot] = NONE;
+
+        while (node != NONE) {
+            int following = next[node];
+            file(node);
+            node = following;
+        }
+    }
+
+    private void file(int node) {
+        long delta = deadlines[node] - currentTick;
+        long target = delta < MAX_SPAN ? deadlines[node] : currentTick + MAX_SPAN - 1;
+
+        int level = 0;
+        while (level < LEVELS - 1 && target - currentTick >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = level * SLOTS + (int) ((target >>> (SLOT_BITS * level)) & SLOT_MASK);
+
+        int head = heads[slot];
+        next[node] = head;
+        prev[node] = NONE;
+        if (head != NONE) {
+            prev[head] = node;
+        }
+        heads[slot] = node;
+        slots[node] = slot;
+    }
+
+    private void unfile(int node) {
+        int before = prev[node];
+        int after = next[node];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            heads[slots[node]] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+        slots[node] = NONE;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int node = freeHead;
+            freeHead = next[node];
+            return node;
+        }
+
+        if (allocated == values.length) {
+            int capacity = allocated << 1;
+            values = Arrays.copyOf(values, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int node) {
+        values[node] = null;
+        slots[node] = NONE;
+        next[node] = freeHead;
+        freeHead = node;
+    }
+}
@@ -0,0 +1,99 @@
+package kaizenrpg.kaizenClear.database;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LocalStatisticsStore
+ */
+class LocalStatisticsStoreTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("history").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static StatisticsRow.Cleanup cleanup(String world, String type, int removed, long timestamp) {
+        return new StatisticsRow.Cleanup(world, type, removed, timestamp, 0);
+    }
+
+    @Test
+    @DisplayName("Removals should be summed per cleanup type across worlds")
+    void testQueryByType() throws IOException {
+        try (LocalStatisticsStore store = new LocalStatisticsStore(directory, 1024 * 1024)) {
+            store.append(cleanup("world", "items", 10, START));
+            store.append(cleanup("world_nether", "items", 5, START + 1000));
+            store.append(cleanup("world", "monster", 3, START + 2000));
+            store.append(cleanup("world", "items", 100, START + 2 * HOUR));
+            store.flush();
+
+            LocalStatisticsStore.History history = store.query(START, START + HOUR);
+            assertEquals(18, history.getRemoved());
+            assertEquals(Map.of("items", 15L, "monster", 3L), history.getRemovedByType());
+        }
+    }
+
+    @Test
+    @DisplayName("Type names should map to the same ids after reopening")
+    void testNamesSurviveReopen() throws IOException {
+        try (LocalStatisticsStore store = new LocalStatisticsStore(directory, 1024 * 1024)) {
+            store.append(cleanup("world", "items", 10, START));
+            store.flush();
+        }
+
+        try (LocalStatisticsStore store = new LocalStatisticsStore(directory, 1024 * 1024)) {
+            // A new name must not take an id already used in names.txt
+            store.append(cleanup("world", "clusters", 4, START + 1000));
+            store.append(cleanup("world", "items", 1, START + 2000));
+            store.flush();
+
+            assertEquals(Map.of("items", 11L, "clusters", 4L), store.query(START, START + HOUR).getRemovedByType());
+        }
+    }
+
+    @Test
+    @DisplayName("Sealed days should be evicted once the history outgrows its size")
+    void testEviction() throws IOException {
+        try (LocalStatisticsStore store = new LocalStatisticsStore(directory, 1)) {
+            // Three days of hourly samples, the last day stays open
+            for (int i = 0; i < 72; i++) {
+                long timestamp = START + i * HOUR;
+                store.append(new StatisticsRow.Server(20.0, 100 + i, 50, 1L << 30, 4L << 30, timestamp, 0));
+                store.append(cleanup("world", "items", 1, timestamp));
+            }
+            store.flush();
+
+            LocalStatisticsStore.History history = store.query(Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(24, history.getSamples());
+            assertEquals(24, history.getRemoved());
+            assertEquals(100 + 71, history.getMaxEntities());
+            assertEquals(0, store.query(START, START + 47 * HOUR).getSamples());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package kaizenrpg.kaizenClear.database;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for StatisticsSpool
+ */
+class StatisticsSpoolTest {
+
+    // Header plus four records
+    private static final long SMALL = 64 + 4 * StatisticsSpool.RECORD_SIZE;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("statistics", ".spool").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private static StatisticsRow.Cleanup cleanup(String world, int removed) {
+        return new StatisticsRow.Cleanup(world, "items", removed, 1000L + removed, 0);
+    }
+
+    @Test
+    @DisplayName("Rows should come back in order with all fields")
+    void testRoundTrip() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            spool.append(cleanup("world_nether", 42));
+            spool.append(new StatisticsRow.Server(19.5, 1200, 300, 512L << 20, 4096L << 20, 5000L, 0));
+
+            List<StatisticsRow> rows = new ArrayList<>();
+            assertEquals(2, spool.peek(10, rows));
+
+            StatisticsRow.Cleanup first = (StatisticsRow.Cleanup) rows.get(0);
+            assertEquals("world_nether", first.world);
+            assertEquals("items", first.type);
+            assertEquals(42, first.removed);
+            assertEquals(1042L, first.timestamp);
+
+            StatisticsRow.Server second = (StatisticsRow.Server) rows.get(1);
+            assertEquals(19.5, second.tps, 0.0001);
+            assertEquals(1200, second.entityCount);
+            assertEquals(300, second.chunkCount);
+            assertEquals(512L << 20, second.memoryUsed);
+            assertEquals(4096L << 20, second.memoryMax);
+            assertEquals(5000L, second.timestamp);
+        }
+    }
+
+    @Test
+    @DisplayName("Peek should not remove, remove should")
+    void testPeekAndRemove() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            for (int i = 1; i <= 3; i++) {
+                spool.append(cleanup("world", i));
+            }
+
+            List<StatisticsRow> rows = new ArrayList<>();
+            assertEquals(2, spool.peek(2, rows));
+            assertEquals(3, spool.size());
+
+            spool.remove(2);
+            rows.clear();
+            spool.peek(10, rows);
+            assertEquals(1, rows.size());
+            assertEquals(3, ((StatisticsRow.Cleanup) rows.get(0)).removed);
+
+            spool.remove(1);
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Rows should survive reopening the file")
+    void testReopen() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            spool.append(cleanup("world", 1));
+            spool.append(cleanup("world", 2));
+            spool.remove(1);
+        }
+
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            assertEquals(1, spool.size());
+            List<StatisticsRow> rows = new ArrayList<>();
+            spool.peek(10, rows);
+            assertEquals(2, ((StatisticsRow.Cleanup) rows.get(0)).removed);
+        }
+    }
+
+    @Test
+    @DisplayName("A full spool should reuse replayed space before dropping anything")
+    void testReuseReplayedSpace() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, SMALL)) {
+            for (int i = 1; i <= 4; i++) {
+                spool.append(cleanup("world", i));
+            }
+            spool.remove(2);
+
+            spool.append(cleanup("world", 5));
+            spool.append(cleanup("world", 6));
+            assertEquals(0, spool.getDropped());
+
+            List<StatisticsRow> rows = new ArrayList<>();
+            spool.peek(10, rows);
+            assertEquals(4, rows.size());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i + 3, ((StatisticsRow.Cleanup) rows.get(i)).removed);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A full spool without replayed rows should drop the oldest")
+    void testDropOldest() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, SMALL)) {
+            for (int i = 1; i <= 5; i++) {
+                spool.append(cleanup("world", i));
+            }
+
+            assertEquals(1, spool.getDropped());
+            List<StatisticsRow> rows = new ArrayList<>();
+            spool.peek(10, rows);
+            assertEquals(4, rows.size());
+            assertEquals(2, ((StatisticsRow.Cleanup) rows.get(0)).removed);
+            assertEquals(5, ((StatisticsRow.Cleanup) rows.get(3)).removed);
+        }
+    }
+
+    @Test
+    @DisplayName("Rows should only be visible to a reopened spool once forced")
+    void testUncommittedRowsInvisible() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            spool.append(cleanup("world", 1));
+            spool.append(cleanup("world", 2));
+            spool.force();
+            spool.append(cleanup("world", 3));
+
+            // As if the server crashed now
+            try (StatisticsSpool reopened = new StatisticsSpool(file, 1024 * 1024)) {
+                assertEquals(2, reopened.size());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("A torn header slot should fall back to the previous positions")
+    void testTornHeader() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            spool.append(cleanup("world", 1));
+            spool.force();
+            spool.append(cleanup("world", 2));
+        }
+
+        // Damage the write position of the newest slot
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            long first = StatisticsSpool.SLOT_OFFSET;
+            long second = StatisticsSpool.SLOT_OFFSET + StatisticsSpool.SLOT_SIZE;
+            raw.seek(first);
+            int firstSequence = raw.readInt();
+            raw.seek(second);
+            int secondSequence = raw.readInt();
+            raw.seek((secondSequence - firstSequence > 0 ? second : first) + 16);
+            raw.writeLong(12345);
+        }
+
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            assertEquals(1, spool.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening with a smaller maximum should keep the newest rows")
+    void testResize() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, SMALL)) {
+            for (int i = 1; i <= 4; i++) {
+                spool.append(cleanup("world", i));
+            }
+            spool.remove(1);
+            spool.append(cleanup("world", 5));
+        }
+
+        try (StatisticsSpool spool = new StatisticsSpool(file, 64 + 2 * StatisticsSpool.RECORD_SIZE)) {
+            assertEquals(2, spool.getDropped());
+            List<StatisticsRow> rows = new ArrayList<>();
+            spool.peek(10, rows);
+            assertEquals(2, rows.size());
+            assertEquals(4, ((StatisticsRow.Cleanup) rows.get(0)).removed);
+            assertEquals(5, ((StatisticsRow.Cleanup) rows.get(1)).removed);
+        }
+    }
+
+    @Test
+    @DisplayName("Long names should be truncated to their slot")
+    void testTruncation() throws IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(file, 1024 * 1024)) {
+            spool.append(cleanup("w".repeat(100), 1));
+            List<StatisticsRow> rows = new ArrayList<>();
+            spool.peek(1, rows);
+            assertEquals(64, ((StatisticsRow.Cleanup) rows.get(0)).world.length());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package kaizenrpg.kaizenClear.database;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import kaizenrpg.kaizenClear.KaizenClear;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for StatisticsWriter against a mocked MySQL connection
+ */
+class StatisticsWriterTest {
+
+    private KaizenClear plugin;
+    private DatabaseManager databaseManager;
+    private PreparedStatement cleanupStatement;
+    private PreparedStatement serverStatement;
+    private File spoolFile;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockBukkit.mock();
+        plugin = MockBukkit.load(KaizenClear.class);
+        spoolFile = new File(plugin.getKaizenDataFolder(), "statistics.spool");
+        spoolFile.delete();
+
+        cleanupStatement = mock(PreparedStatement.class);
+        serverStatement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(startsWith("INSERT INTO cleanup_stats"))).thenReturn(cleanupStatement);
+        when(connection.prepareStatement(startsWith("INSERT INTO server_stats"))).thenReturn(serverStatement);
+
+        databaseManager = mock(DatabaseManager.class);
+        when(databaseManager.getType()).thenReturn(DatabaseManager.DatabaseType.MYSQL);
+        when(databaseManager.isConnected()).thenReturn(true);
+        when(databaseManager.getConnection()).thenReturn(connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+        spoolFile.delete();
+    }
+
+    private static StatisticsRow.Cleanup cleanup(String world, String type, int removed) {
+        return new StatisticsRow.Cleanup(world, type, removed, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    private static StatisticsRow.Server server() {
+        return new StatisticsRow.Server(19.5, 1000, 200, 1L << 30, 4L << 30, System.currentTimeMillis(), System.nanoTime());
+    }
+
+    private List<StatisticsRow> spooled() throws IOException {
+        List<StatisticsRow> rows = new ArrayList<>();
+        try (StatisticsSpool spool = new StatisticsSpool(spoolFile, plugin.getConfigManager().getDatabaseSpoolMaxSize() * 1024L * 1024L)) {
+            spool.peek(Integer.MAX_VALUE, rows);
+        }
+        return rows;
+    }
+
+    @Test
+    @DisplayName("Cleanup rows of the same world and type should be merged per flush")
+    void testMerge() throws SQLException {
+        StatisticsWriter writer = new StatisticsWriter(plugin, databaseManager, null, "test");
+        writer.offer(cleanup("world", "items", 10));
+        writer.offer(cleanup("world", "monster", 3));
+        writer.offer(cleanup("world", "items", 5));
+        writer.offer(cleanup("world_nether", "items", 2));
+        writer.shutdown(5000);
+
+        verify(cleanupStatement, times(3)).addBatch();
+        verify(cleanupStatement).setInt(4, 15);
+        verify(cleanupStatement).setInt(4, 3);
+        verify(cleanupStatement).setInt(4, 2);
+    }
+
+    @Test
+    @DisplayName("Only the table that failed to write should be spooled")
+    void testPartialFailure() throws SQLException, IOException {
+        when(serverStatement.executeBatch()).thenThrow(new BatchUpdateException("Communications link failure", "08S01", 0, new int[0], null));
+
+        StatisticsWriter writer = new StatisticsWriter(plugin, databaseManager, null, "test");
+        writer.offer(cleanup("world", "items", 10));
+        writer.offer(server());
+        writer.shutdown(5000);
+
+        verify(cleanupStatement).executeBatch();
+        List<StatisticsRow> rows = spooled();
+        assertEquals(1, rows.size());
+        assertInstanceOf(StatisticsRow.Server.class, rows.get(0));
+    }
+
+    @Test
+    @DisplayName("Rows the database rejects should be dropped without spooling or stopping the flush")
+    void testRejectedRowsDropped() throws SQLException, IOException {
+        when(cleanupStatement.executeBatch())
+                .thenThrow(new BatchUpdateException("Duplicate entry", "23000", 1062, new int[]{1, Statement.EXECUTE_FAILED}, null));
+
+        StatisticsWriter writer = new StatisticsWriter(plugin, databaseManager, null, "test");
+        writer.offer(cleanup("world", "items", 10));
+        writer.offer(cleanup("world", "monster", 3));
+        writer.offer(server());
+        writer.shutdown(5000);
+
+        verify(serverStatement).executeBatch();
+        assertTrue(spooled().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Spooled rows should be replayed as they were spooled")
+    void testReplay() throws SQLException, IOException {
+        try (StatisticsSpool spool = new StatisticsSpool(spoolFile, plugin.getConfigManager().getDatabaseSpoolMaxSize() * 1024L * 1024L)) {
+            spool.append(cleanup("world", "items", 10));
+            spool.append(cleanup("world", "items", 5));
+        }
+
+        StatisticsWriter writer = new StatisticsWriter(plugin, databaseManager, null, "test");
+        // Merged rows were spooled already, replaying must not merge them again
+        verify(cleanupStatement, timeout(5000).times(2)).addBatch();
+        writer.shutdown(5000);
+
+        verify(cleanupStatement).setInt(4, 10);
+        verify(cleanupStatement).setInt(4, 5);
+        assertTrue(spooled().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Constraint and data errors should be told apart from connection errors")
+    void testDataErrors() {
+        assertTrue(StatisticsWriter.isDataError(new BatchUpdateException("Duplicate entry", "23000", 1062, new int[0], null)));
+        assertTrue(StatisticsWriter.isDataError(new BatchUpdateException("Data too long", "22001", 1406, new int[0], null)));
+        assertTrue(StatisticsWriter.isDataError(new BatchUpdateException(new int[0],
+                new SQLIntegrityConstraintViolationException("Duplicate entry"))));
+        assertFalse(StatisticsWriter.isDataError(new BatchUpdateException("Communications link failure", "08S01", 0, new int[0], null)));
+        assertFalse(StatisticsWriter.isDataError(new SQLTransientConnectionException("Connection is not available")));
+    }
+}
@@ -0,0 +1,149 @@
+package kaizenrpg.kaizenClear.database;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TimeSeries
+ */
+class TimeSeriesTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_700_000_000_000L;
+
+    private File directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("timeseries").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static List<long[]> scanAll(TimeSeries series) throws IOException {
+        List<long[]> samples = new ArrayList<>();
+        series.scan(Long.MIN_VALUE, Long.MAX_VALUE, (timestamp, values) ->
+                samples.add(new long[]{timestamp, values[0], values[1]}));
+        return samples;
+    }
+
+    @Test
+    @DisplayName("Samples should come back with negative deltas intact")
+    void testRoundTrip() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            series.append(START, 2000, 5);
+            series.append(START + 1000, 1950, -3);
+            series.append(START + 500, 2000, Long.MAX_VALUE);
+
+            List<long[]> samples = scanAll(series);
+            assertEquals(3, samples.size());
+            assertArrayEquals(new long[]{START + 1000, 1950, -3}, samples.get(1));
+            assertArrayEquals(new long[]{START + 500, 2000, Long.MAX_VALUE}, samples.get(2));
+        }
+    }
+
+    @Test
+    @DisplayName("Small deltas should take a few bytes per sample")
+    void testCompact() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            for (int i = 0; i < 1000; i++) {
+                series.append(START + i * 300_000L, 2000 - i % 3, 1500 + i % 7);
+            }
+            // The first sample carries the full timestamp
+            assertTrue(series.getDiskUsage() < 1000 * 6, "used " + series.getDiskUsage());
+        }
+    }
+
+    @Test
+    @DisplayName("Summaries should match the samples in range across segments")
+    void testSummarize() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            // Three days of hourly samples make three segments
+            for (int i = 0; i < 72; i++) {
+                series.append(START + i * HOUR, i, 100 - i);
+            }
+
+            TimeSeries.Summary summary = series.summarize(START + 10 * HOUR, START + 50 * HOUR);
+            assertEquals(41, summary.getCount());
+            assertEquals(10, summary.getMin(0));
+            assertEquals(50, summary.getMax(0));
+            assertEquals(30.0, summary.getMean(0), 0.0001);
+            assertEquals(50, summary.getMin(1));
+
+            assertEquals(72, series.summarize(Long.MIN_VALUE, Long.MAX_VALUE).getCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Reopening should continue the open segment")
+    void testReopen() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            for (int i = 0; i < 30; i++) {
+                series.append(START + i * HOUR, i, i);
+            }
+        }
+
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            series.append(START + 30 * HOUR, 30, 30);
+            List<long[]> samples = scanAll(series);
+            assertEquals(31, samples.size());
+            assertArrayEquals(new long[]{START + 30 * HOUR, 30, 30}, samples.get(30));
+            assertEquals(31, series.summarize(Long.MIN_VALUE, Long.MAX_VALUE).getCount());
+        }
+    }
+
+    @Test
+    @DisplayName("A record cut off by a crash should be dropped on open")
+    void testTruncatedRecord() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            series.append(START, 1, 1);
+            series.append(START + 1000, 1000, 1000);
+        }
+        File segment = new File(directory, "00000000.seg");
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            series.append(START + 2000, 2, 2);
+            List<long[]> samples = scanAll(series);
+            assertEquals(2, samples.size());
+            assertArrayEquals(new long[]{START + 2000, 2, 2}, samples.get(1));
+        }
+    }
+
+    @Test
+    @DisplayName("Deleting should remove the oldest sealed segment only")
+    void testDeleteOldest() throws IOException {
+        try (TimeSeries series = new TimeSeries(directory, 2)) {
+            for (int i = 0; i < 48; i++) {
+                series.append(START + i * HOUR, i, 0);
+            }
+
+            assertEquals(START, series.getOldestSealed());
+            assertTrue(series.deleteOldest());
+            assertFalse(series.deleteOldest());
+
+            List<long[]> samples = scanAll(series);
+            assertEquals(24, samples.size());
+            assertEquals(24, samples.get(0)[1]);
+        }
+    }
+}
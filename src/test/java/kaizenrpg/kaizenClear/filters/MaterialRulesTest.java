@@ -0,0 +1,89 @@
+package kaizenrpg.kaizenClear.filters;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import org.bukkit.Material;
+import org.junit.jupiter.api.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MaterialRules
+ */
+class MaterialRulesTest {
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    @DisplayName("Exact names should match case-insensitively")
+    void testExactNames() {
+        MaterialRules rules = MaterialRules.compile(List.of("diamond", "minecraft:elytra"), List.of("DIRT"), Map.of(), null);
+
+        assertTrue(rules.isWhitelisted(Material.DIAMOND));
+        assertTrue(rules.isWhitelisted(Material.ELYTRA));
+        assertTrue(rules.isBlacklisted(Material.DIRT));
+        assertFalse(rules.isWhitelisted(Material.DIRT));
+        assertFalse(rules.isBlacklisted(Material.STONE));
+    }
+
+    @Test
+    @DisplayName("Wildcards should match every material with the pattern")
+    void testWildcards() {
+        MaterialRules rules = MaterialRules.compile(List.of("*_SHULKER_BOX"), List.of("DIAMOND_*"), Map.of(), null);
+
+        assertFalse(rules.isWhitelisted(Material.SHULKER_BOX));
+        assertTrue(rules.isWhitelisted(Material.RED_SHULKER_BOX));
+        assertTrue(rules.isWhitelisted(Material.BLUE_SHULKER_BOX));
+        assertTrue(rules.isBlacklisted(Material.DIAMOND_SWORD));
+        assertFalse(rules.isBlacklisted(Material.DIAMOND));
+    }
+
+    @Test
+    @DisplayName("Whitelist should win over blacklist")
+    void testWhitelistWins() {
+        MaterialRules rules = MaterialRules.compile(List.of("DIAMOND_SWORD"), List.of("DIAMOND_*"), Map.of(), null);
+
+        assertTrue(rules.isWhitelisted(Material.DIAMOND_SWORD));
+        assertFalse(rules.isBlacklisted(Material.DIAMOND_SWORD));
+        assertTrue(rules.isBlacklisted(Material.DIAMOND_PICKAXE));
+    }
+
+    @Test
+    @DisplayName("Exact lifetimes should override pattern lifetimes")
+    void testLifetimePrecedence() {
+        Map<String, Integer> lifetimes = new LinkedHashMap<>();
+        lifetimes.put("RED_SHULKER_BOX", 60);
+        lifetimes.put("*_SHULKER_BOX", 900);
+
+        MaterialRules rules = MaterialRules.compile(List.of(), List.of(), lifetimes, null);
+
+        assertEquals(60 * 20, rules.getLifetimeTicks(Material.RED_SHULKER_BOX, 6000));
+        assertEquals(900 * 20, rules.getLifetimeTicks(Material.BLUE_SHULKER_BOX, 6000));
+        assertEquals(6000, rules.getLifetimeTicks(Material.DIRT, 6000));
+        assertFalse(rules.hasLifetime(Material.DIRT));
+    }
+
+    @Test
+    @DisplayName("Unknown entries should be ignored")
+    void testUnknownEntriesIgnored() {
+        MaterialRules rules = assertDoesNotThrow(() -> MaterialRules.compile(
+                List.of("NOT_A_MATERIAL", "#kaizenclear:missing", "*_NOTHING"), List.of(), Map.of("NOTHING_*_HERE", 30), null));
+
+        for (Material material : Material.values()) {
+            if (material.name().startsWith("LEGACY_")) continue;
+            assertFalse(rules.isWhitelisted(material));
+            assertFalse(rules.hasLifetime(material));
+        }
+    }
+}
@@ -3,8 +3,14 @@ package kaizenrpg.kaizenClear.managers;
 import be.seeseemelk.mockbukkit.MockBukkit;
 import be.seeseemelk.mockbukkit.ServerMock;
 import kaizenrpg.kaizenClear.KaizenClear;
+import kaizenrpg.kaizenClear.monitoring.ResponseTier;
 import org.junit.jupiter.api.*;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -81,4 +87,24 @@ class ConfigManagerTest {
         assertDoesNotThrow(() -> configManager.loadConfig(),
                 "Config loading with validation should not throw exceptions");
     }
+
+    @Test
+    @DisplayName("Configs without response tiers should fall back to the thresholds")
+    void testResponseTierFallback() throws IOException {
+        // A config from before the response ladder, the shipped tiers must not apply
+        File configFile = new File(plugin.getKaizenDataFolder(), "config.yml");
+        Files.writeString(configFile.toPath(), """
+                tps:
+                  warning-threshold: 17.0
+                  critical-threshold: 14.0
+                """);
+        configManager.loadConfig();
+
+        List<ResponseTier> tiers = configManager.getResponseTiers();
+        assertEquals(2, tiers.size());
+        assertEquals(17.0, tiers.get(0).getEnterTps());
+        assertEquals(List.of(CleanupAction.ITEMS), tiers.get(0).getActions());
+        assertEquals(14.0, tiers.get(1).getEnterTps());
+        assertEquals(List.of(CleanupAction.EMERGENCY), tiers.get(1).getActions());
+    }
 }
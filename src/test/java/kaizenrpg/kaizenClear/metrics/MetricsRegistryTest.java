@@ -0,0 +1,78 @@
+package kaizenrpg.kaizenClear.metrics;
+
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MetricsRegistry
+ */
+class MetricsRegistryTest {
+
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    @DisplayName("Output should end with the OpenMetrics EOF marker")
+    void testEof() {
+        assertTrue(registry.render().endsWith("# EOF\n"));
+    }
+
+    @Test
+    @DisplayName("Histogram buckets should be cumulative and match the count")
+    void testHistogram() {
+        AtomicHistogram histogram = registry.getScanDuration();
+        histogram.observe(0.0001);
+        histogram.observe(0.003);
+        histogram.observe(0.003);
+        histogram.observe(10);
+
+        String text = registry.render();
+        assertTrue(text.contains("# TYPE kaizenclear_scan_duration_seconds histogram\n"));
+        assertTrue(text.contains("kaizenclear_scan_duration_seconds_bucket{le=\"5.0E-4\"} 1\n"));
+        assertTrue(text.contains("kaizenclear_scan_duration_seconds_bucket{le=\"0.005\"} 3\n"));
+        assertTrue(text.contains("kaizenclear_scan_duration_seconds_bucket{le=\"1.0\"} 3\n"));
+        assertTrue(text.contains("kaizenclear_scan_duration_seconds_bucket{le=\"+Inf\"} 4\n"));
+        assertTrue(text.contains("kaizenclear_scan_duration_seconds_count 4\n"));
+        assertEquals(10.0061, histogram.getSum(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Removals should add up per cleanup type")
+    void testRemovalCounter() {
+        registry.recordRemovals("items", 5);
+        registry.recordRemovals("items", 7);
+        registry.recordRemovals("monsters", 1);
+
+        String text = registry.render();
+        assertTrue(text.contains("# TYPE kaizenclear_removed_entities counter\n"));
+        assertTrue(text.contains("kaizenclear_removed_entities_total{type=\"items\"} 12\n"));
+        assertTrue(text.contains("kaizenclear_removed_entities_total{type=\"monsters\"} 1\n"));
+    }
+
+    @Test
+    @DisplayName("Published gauges should share one header per metric")
+    void testGauges() {
+        registry.publish(List.of(
+                new MetricsRegistry.Gauge("entities", "Entities", MetricsRegistry.labels("world", "world"), 10),
+                new MetricsRegistry.Gauge("entities", "Entities", MetricsRegistry.labels("world", "world_nether"), 3)
+        ));
+
+        String text = registry.render();
+        assertEquals(text.indexOf("# TYPE kaizenclear_entities gauge"), text.lastIndexOf("# TYPE kaizenclear_entities gauge"));
+        assertTrue(text.contains("kaizenclear_entities{world=\"world\"} 10.0\n"));
+        assertTrue(text.contains("kaizenclear_entities{world=\"world_nether\"} 3.0\n"));
+    }
+
+    @Test
+    @DisplayName("Label values should be escaped")
+    void testLabelEscaping() {
+        assertEquals("{world=\"a\\\"b\\\\c\\nd\"}", MetricsRegistry.labels("world", "a\"b\\c\nd"));
+    }
+}
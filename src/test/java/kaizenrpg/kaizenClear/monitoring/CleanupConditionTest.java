@@ -0,0 +1,64 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.managers.CleanupAction;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for CleanupCondition
+ */
+class CleanupConditionTest {
+
+    @Test
+    @DisplayName("Trigger names should parse case-insensitively")
+    void testParseTrigger() {
+        assertEquals(CleanupCondition.Trigger.TPS_BELOW, CleanupCondition.Trigger.parse("tps_below"));
+        assertEquals(CleanupCondition.Trigger.HEAP_ABOVE, CleanupCondition.Trigger.parse("HEAP_ABOVE"));
+        assertNull(CleanupCondition.Trigger.parse("tps_above"));
+    }
+
+    @Test
+    @DisplayName("Action names should parse with or without the cleanup_ prefix")
+    void testParseAction() {
+        assertEquals(CleanupAction.ITEMS, CleanupAction.parse("cleanup_items"));
+        assertEquals(CleanupAction.CLUSTERS, CleanupAction.parse("clusters"));
+        assertEquals(CleanupAction.EMERGENCY, CleanupAction.parse("emergency"));
+        assertNull(CleanupAction.parse("cleanup_everything"));
+    }
+
+    @Test
+    @DisplayName("Below triggers should match under the threshold, above triggers over it")
+    void testMatches() {
+        CleanupCondition tps = condition(CleanupCondition.Trigger.TPS_BELOW, 17.0, 0);
+        assertTrue(tps.matches(16.9));
+        assertFalse(tps.matches(17.0));
+
+        CleanupCondition entities = condition(CleanupCondition.Trigger.ENTITY_COUNT, 5000, 0);
+        assertTrue(entities.matches(5001));
+        assertFalse(entities.matches(5000));
+    }
+
+    @Test
+    @DisplayName("A condition should not fire again until its cooldown has passed")
+    void testCooldown() {
+        CleanupCondition condition = condition(CleanupCondition.Trigger.MSPT_ABOVE, 50, 120_000);
+
+        assertTrue(condition.fire(60, 1_000));
+        assertFalse(condition.fire(60, 60_000));
+        assertTrue(condition.fire(60, 121_000));
+    }
+
+    @Test
+    @DisplayName("A condition that does not hold should not start its cooldown")
+    void testNoMatchKeepsCooldown() {
+        CleanupCondition condition = condition(CleanupCondition.Trigger.MSPT_ABOVE, 50, 120_000);
+
+        assertFalse(condition.fire(40, 1_000));
+        assertTrue(condition.fire(60, 2_000));
+    }
+
+    private static CleanupCondition condition(CleanupCondition.Trigger trigger, double threshold, long cooldownMillis) {
+        return new CleanupCondition(trigger, threshold, CleanupAction.ITEMS, cooldownMillis, null, TickRecorder.FIVE_SECONDS, 95);
+    }
+}
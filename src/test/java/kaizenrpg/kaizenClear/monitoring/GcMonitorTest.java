@@ -0,0 +1,62 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for GcMonitor
+ */
+class GcMonitorTest {
+
+    @Test
+    @DisplayName("ZGC and Shenandoah cycles should not count as pauses")
+    void testCyclesAreNotPauses() {
+        assertFalse(GcMonitor.isPause("ZGC Cycles", "end of GC cycle"));
+        assertFalse(GcMonitor.isPause("ZGC Major Cycles", "end of GC cycle"));
+        assertFalse(GcMonitor.isPause("Shenandoah Cycles", "end of GC cycle"));
+        assertTrue(GcMonitor.isPause("ZGC Pauses", "end of GC pause"));
+        assertTrue(GcMonitor.isPause("Shenandoah Pauses", "end of GC pause"));
+    }
+
+    @Test
+    @DisplayName("Other collectors should be classified by action")
+    void testClassifiedByAction() {
+        assertTrue(GcMonitor.isPause("G1 Young Generation", "end of minor GC"));
+        assertTrue(GcMonitor.isPause("G1 Old Generation", "end of major GC"));
+        assertFalse(GcMonitor.isPause("Some Collector", "end of concurrent cycle"));
+    }
+
+    private static final long MB = 1024 * 1024;
+
+    private static Map<String, MemoryUsage> pools(long eden, long old) {
+        return Map.of("G1 Eden Space", new MemoryUsage(0, eden * MB, 512 * MB, -1),
+                "G1 Old Gen", new MemoryUsage(0, old * MB, 1024 * MB, 1024 * MB));
+    }
+
+    @Test
+    @DisplayName("A young collection should not change old generation occupancy")
+    void testYoungCollectionIgnored() {
+        assertEquals(-1.0, GcMonitor.oldGenOccupancy("G1 Young Generation", "end of minor GC",
+                pools(400, 500), pools(0, 520), 520 * MB), 0.0);
+        assertEquals(-1.0, GcMonitor.oldGenOccupancy("PS Scavenge", "end of minor GC",
+                pools(400, 500), pools(0, 520), 520 * MB), 0.0);
+        assertEquals(-1.0, GcMonitor.oldGenOccupancy("ZGC Major Pauses", "end of GC pause",
+                pools(400, 500), pools(0, 300), 300 * MB), 0.0);
+    }
+
+    @Test
+    @DisplayName("Major and mixed collections should sample old generation occupancy")
+    void testOldCollectionSampled() {
+        assertEquals(25.0, GcMonitor.oldGenOccupancy("G1 Old Generation", "end of major GC",
+                pools(400, 900), pools(0, 256), 256 * MB), 1e-9);
+        // A G1 mixed collection is reported as young but shrinks the old generation
+        assertEquals(50.0, GcMonitor.oldGenOccupancy("G1 Young Generation", "end of minor GC",
+                pools(400, 900), pools(0, 512), 512 * MB), 1e-9);
+        assertTrue(GcMonitor.collectsOldGen("ZGC Major Cycles", "end of GC cycle"));
+        assertFalse(GcMonitor.collectsOldGen("ZGC Minor Cycles", "end of GC cycle"));
+    }
+}
@@ -0,0 +1,69 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LinearTrend
+ */
+class LinearTrendTest {
+
+    @Test
+    @DisplayName("A straight line should be fitted and extrapolated exactly")
+    void testStraightLine() {
+        LinearTrend trend = new LinearTrend(10);
+        for (int i = 0; i < 25; i++) {
+            trend.add(20 + 2 * i);
+        }
+        trend.fit();
+
+        assertTrue(trend.isReady());
+        assertEquals(2.0, trend.getSlope(), 1e-9);
+        assertEquals(1.0, trend.getConfidence(), 1e-9);
+        // Newest sample is 68, so 5 samples later the line is at 78
+        assertEquals(78.0, trend.forecast(5), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Noise without a trend should give low confidence")
+    void testNoise() {
+        LinearTrend trend = new LinearTrend(8);
+        double[] values = {30, 10, 30, 10, 10, 30, 10, 30};
+        for (double value : values) {
+            trend.add(value);
+        }
+        trend.fit();
+
+        assertEquals(0.0, trend.getSlope(), 1e-9);
+        assertTrue(trend.getConfidence() < 0.1);
+    }
+
+    @Test
+    @DisplayName("Fit should only use samples inside the window")
+    void testWindow() {
+        LinearTrend trend = new LinearTrend(4);
+        for (int i = 0; i < 10; i++) {
+            trend.add(100 - i * 10);
+        }
+        for (int i = 0; i < 4; i++) {
+            trend.add(5);
+        }
+        trend.fit();
+
+        assertEquals(0.0, trend.getSlope(), 1e-9);
+        assertEquals(5.0, trend.forecast(10), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Too few samples should not be ready")
+    void testNotReady() {
+        LinearTrend trend = new LinearTrend(5);
+        trend.add(1);
+        trend.add(2);
+        assertFalse(trend.isReady());
+
+        trend.fit();
+        assertEquals(1.0, trend.getSlope(), 1e-9);
+    }
+}
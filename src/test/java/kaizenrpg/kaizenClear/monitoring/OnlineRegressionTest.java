@@ -0,0 +1,69 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for OnlineRegression
+ */
+class OnlineRegressionTest {
+
+    @Test
+    @DisplayName("Coefficients of a noisy linear relation should be recovered")
+    void testRecoversCoefficients() {
+        OnlineRegression regression = new OnlineRegression(2, 0.999);
+        Random random = new Random(3);
+        double[] features = new double[2];
+
+        for (int i = 0; i < 2000; i++) {
+            features[0] = random.nextDouble() * 4;
+            features[1] = random.nextDouble() * 2;
+            double y = 5 + 0.5 * features[0] + 3 * features[1] + random.nextGaussian() * 0.1;
+            regression.update(features, y);
+        }
+
+        assertEquals(0.5, regression.getCoefficient(0), 0.05);
+        assertEquals(3.0, regression.getCoefficient(1), 0.05);
+        assertEquals(5.0, regression.getIntercept(), 0.1);
+        assertEquals(2000, regression.getSamples());
+    }
+
+    @Test
+    @DisplayName("Forgetting should follow a relation that changes")
+    void testTracksChange() {
+        OnlineRegression regression = new OnlineRegression(1, 0.98);
+        Random random = new Random(5);
+        double[] features = new double[1];
+
+        for (int i = 0; i < 500; i++) {
+            features[0] = random.nextDouble() * 10;
+            regression.update(features, 1 * features[0]);
+        }
+        for (int i = 0; i < 500; i++) {
+            features[0] = random.nextDouble() * 10;
+            regression.update(features, 4 * features[0]);
+        }
+
+        assertEquals(4.0, regression.getCoefficient(0), 0.05);
+    }
+
+    @Test
+    @DisplayName("A constant feature should not make the fit diverge")
+    void testConstantFeature() {
+        OnlineRegression regression = new OnlineRegression(2, 0.99);
+        Random random = new Random(9);
+        double[] features = {1.0, 0};
+
+        for (int i = 0; i < 20_000; i++) {
+            features[1] = random.nextDouble();
+            regression.update(features, 2 + 6 * features[1]);
+        }
+
+        assertEquals(6.0, regression.getCoefficient(1), 0.05);
+        assertTrue(Double.isFinite(regression.getCoefficient(0)));
+        assertEquals(8.0, regression.predict(new double[]{1.0, 1.0}), 0.05);
+    }
+}
@@ -0,0 +1,116 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import kaizenrpg.kaizenClear.managers.CleanupAction;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ResponseLadder
+ */
+class ResponseLadderTest {
+
+    private static final double TPS = 20.0;
+
+    private ResponseLadder ladder;
+
+    @BeforeEach
+    void setUp() {
+        ladder = new ResponseLadder(List.of(
+                new ResponseTier("light", 50, 40, 0, 0, 10, 30, List.of(CleanupAction.ITEMS)),
+                new ResponseTier("heavy", 100, 70, 0, 0, 10, 30, List.of(CleanupAction.EMERGENCY))
+        ), 20_000);
+    }
+
+    @Test
+    @DisplayName("Escalation should climb one tier at a time after the dwell time")
+    void testGradualEscalation() {
+        assertEquals("light", ladder.update(TPS, 150, 0).getName());
+        assertEquals(1, ladder.getLevel());
+
+        // Still dwelling in the first tier
+        assertNull(ladder.update(TPS, 150, 5_000));
+        assertEquals(1, ladder.getLevel());
+
+        assertEquals("heavy", ladder.update(TPS, 150, 10_000).getName());
+        assertEquals(2, ladder.getLevel());
+    }
+
+    @Test
+    @DisplayName("Actions should repeat every interval while the tier still applies")
+    void testRepeat() {
+        ladder.update(TPS, 60, 0);
+        assertNull(ladder.update(TPS, 60, 29_000));
+        assertEquals("light", ladder.update(TPS, 60, 30_000).getName());
+        assertNull(ladder.update(TPS, 60, 31_000));
+    }
+
+    @Test
+    @DisplayName("Between exit and entry thresholds the tier should hold without repeating")
+    void testHysteresis() {
+        ladder.update(TPS, 60, 0);
+        for (long t = 1_000; t <= 120_000; t += 1_000) {
+            assertNull(ladder.update(TPS, 45, t));
+        }
+        assertEquals(1, ladder.getLevel());
+    }
+
+    @Test
+    @DisplayName("Lag back in a lower tier's range should keep repeating the held tier")
+    void testRepeatBelowHeldTier() {
+        ResponseLadder overlapping = new ResponseLadder(List.of(
+                new ResponseTier("light", 45, 35, 0, 0, 10, 30, List.of(CleanupAction.ITEMS)),
+                new ResponseTier("moderate", 60, 45, 0, 0, 10, 30, List.of(CleanupAction.CLUSTERS))
+        ), 20_000);
+        overlapping.update(TPS, 70, 0);
+        assertEquals("moderate", overlapping.update(TPS, 70, 10_000).getName());
+
+        // 50ms enters light but is not below moderate's exit, so moderate holds
+        for (long t = 11_000; t < 40_000; t += 1_000) {
+            assertNull(overlapping.update(TPS, 50, t));
+        }
+        assertEquals("moderate", overlapping.update(TPS, 50, 40_000).getName());
+        assertEquals(2, overlapping.getLevel());
+    }
+
+    @Test
+    @DisplayName("De-escalation should wait for a sustained healthy period")
+    void testSustainedDeescalation() {
+        ladder.update(TPS, 150, 0);
+        ladder.update(TPS, 150, 10_000);
+        assertEquals(2, ladder.getLevel());
+
+        ladder.update(TPS, 30, 11_000);
+        ladder.update(TPS, 30, 25_000);
+        // A relapse restarts the healthy period
+        ladder.update(TPS, 80, 26_000);
+        ladder.update(TPS, 30, 27_000);
+        ladder.update(TPS, 30, 46_000);
+        assertEquals(2, ladder.getLevel());
+
+        ladder.update(TPS, 30, 47_000);
+        assertEquals(1, ladder.getLevel());
+
+        ladder.update(TPS, 30, 48_000);
+        ladder.update(TPS, 30, 68_000);
+        assertEquals(0, ladder.getLevel());
+        assertNull(ladder.getCurrentTier());
+    }
+
+    @Test
+    @DisplayName("Low TPS should enter a tier on its own")
+    void testTpsEntry() {
+        ResponseLadder tpsLadder = new ResponseLadder(List.of(
+                new ResponseTier("tps", 0, 0, 18, 19, 0, 60, List.of(CleanupAction.ITEMS))
+        ), 10_000);
+
+        assertNull(tpsLadder.update(19.5, 0, 0));
+        assertNotNull(tpsLadder.update(17.0, 0, 1_000));
+        // 18.5 is neither low enough to re-enter nor healthy
+        tpsLadder.update(18.5, 0, 2_000);
+        tpsLadder.update(18.5, 0, 30_000);
+        assertEquals(1, tpsLadder.getLevel());
+    }
+}
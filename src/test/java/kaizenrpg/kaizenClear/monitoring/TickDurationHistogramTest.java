@@ -0,0 +1,89 @@
+package kaizenrpg.kaizenClear.monitoring;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TickDurationHistogram
+ */
+class TickDurationHistogramTest {
+
+    private static final long TICK = 50_000_000L;
+
+    @Test
+    @DisplayName("Percentiles should be read from the recorded durations")
+    void testPercentiles() {
+        TickDurationHistogram histogram = new TickDurationHistogram(1024, 60);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * TICK, i);
+        }
+
+        TickDurationHistogram.Snapshot snapshot = histogram.snapshot(0);
+        assertEquals(100, snapshot.getTicks());
+        assertEquals(50.5, snapshot.getMean(), 0.001);
+        // Percentiles report the upper edge of their 0.1ms bucket
+        assertEquals(50.1, snapshot.getP50(), 0.001);
+        assertEquals(95.1, snapshot.getP95(), 0.001);
+        assertEquals(99.1, snapshot.getP99(), 0.001);
+        assertEquals(100.0, snapshot.getMax(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Empty windows should read 0")
+    void testEmptyWindow() {
+        TickDurationHistogram histogram = new TickDurationHistogram(64, 5);
+        assertEquals(0.0, histogram.getPercentile(0, 95), 0.001);
+        assertEquals(0, histogram.snapshot(0).getTicks());
+    }
+
+    @Test
+    @DisplayName("Ticks older than a window should leave it")
+    void testWindowEviction() {
+        TickDurationHistogram histogram = new TickDurationHistogram(4096, 5, 60);
+
+        // 10 seconds of slow ticks, then 10 seconds of fast ones
+        long now = 0;
+        for (int i = 0; i < 200; i++) {
+            histogram.record(now += TICK, 200);
+        }
+        for (int i = 0; i < 200; i++) {
+            histogram.record(now += TICK, 10);
+        }
+
+        assertEquals(100, histogram.snapshot(0).getTicks());
+        assertEquals(10.0, histogram.getPercentile(0, 99), 0.1);
+        assertEquals(10.0, histogram.snapshot(0).getMax(), 0.001);
+
+        assertEquals(400, histogram.snapshot(1).getTicks());
+        assertEquals(200.0, histogram.getPercentile(1, 95), 1.0);
+    }
+
+    @Test
+    @DisplayName("Overwritten samples should leave every window")
+    void testRingOverwrite() {
+        TickDurationHistogram histogram = new TickDurationHistogram(100, 300);
+
+        long now = 0;
+        for (int i = 0; i < 100; i++) {
+            histogram.record(now += TICK, 500);
+        }
+        for (int i = 0; i < 100; i++) {
+            histogram.record(now += TICK, 1);
+        }
+
+        TickDurationHistogram.Snapshot snapshot = histogram.snapshot(0);
+        assertEquals(100, snapshot.getTicks());
+        assertEquals(1.0, snapshot.getMax(), 0.001);
+        assertEquals(1.0, snapshot.getMean(), 0.001);
+    }
+
+    @Test
+    @DisplayName("Very long ticks should land in the overflow bucket")
+    void testOverflow() {
+        TickDurationHistogram histogram = new TickDurationHistogram(64, 60);
+        histogram.record(TICK, 2500);
+
+        assertEquals(2500.0, histogram.getPercentile(0, 50), 0.001);
+    }
+}
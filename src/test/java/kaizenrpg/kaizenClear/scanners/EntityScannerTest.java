@@ -0,0 +1,118 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import kaizenrpg.kaizenClear.scanners.RemovalVisitors.MonsterVisitor;
+import org.bukkit.entity.Animals;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Monster;
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for the fused visitor pass of EntityScanner
+ */
+class EntityScannerTest {
+
+    private List<Entity> entities;
+
+    @BeforeEach
+    void setUp() {
+        // Every method of these entities is a no-op, remove() included
+        entities = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Class<?> type = switch (i % 3) {
+                case 0 -> Item.class;
+                case 1 -> Monster.class;
+                default -> Animals.class;
+            };
+            entities.add((Entity) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> method.getReturnType() == boolean.class ? false : null));
+        }
+    }
+
+    /**
+     * Counts the entities it sees per category without consuming any
+     */
+    private static class CountingVisitor implements EntityVisitor {
+        private final int[] counts = new int[EntityCategory.count()];
+
+        @Override
+        public int categories() {
+            return EntityCategory.ITEM.mask() | EntityCategory.MONSTER.mask() | EntityCategory.ANIMAL.mask();
+        }
+
+        @Override
+        public boolean visit(Entity entity, EntityCategory category) {
+            counts[category.ordinal()]++;
+            return false;
+        }
+    }
+
+    /**
+     * The same begin, dispatch and end steps scanWorld runs over a world's entity list
+     */
+    private void pass(EntityVisitor... visitors) {
+        int wanted = EntityScanner.beginVisitors(null, visitors);
+        EntityScanner.dispatchAll(entities, wanted, visitors);
+        EntityScanner.endVisitors(null, visitors);
+    }
+
+    @Test
+    @DisplayName("Observing visitors should see consumed entities whatever the order")
+    void testObserversSeeEverything() {
+        CountingVisitor before = new CountingVisitor();
+        MonsterVisitor monsters = new MonsterVisitor();
+        CountingVisitor after = new CountingVisitor();
+        pass(before, monsters, after);
+
+        int expected = (entities.size() + 1) / 3;
+        assertEquals(expected, monsters.getRemoved());
+        assertEquals(expected, before.counts[EntityCategory.MONSTER.ordinal()]);
+        assertArrayEquals(before.counts, after.counts);
+    }
+
+    @Test
+    @DisplayName("The first consuming visitor should hide an entity from the others")
+    void testFirstConsumerWins() {
+        MonsterVisitor first = new MonsterVisitor();
+        MonsterVisitor second = new MonsterVisitor();
+        pass(first, second);
+
+        assertEquals((entities.size() + 1) / 3, first.getRemoved());
+        assertEquals(0, second.getRemoved());
+    }
+
+    @Test
+    @DisplayName("A fused pass should not allocate per entity once warmed up")
+    void testSteadyStateAllocation() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Per-thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Per-thread allocation counters are not available");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        EntityVisitor[] visitors = {new CountingVisitor(), new MonsterVisitor(), new CountingVisitor()};
+
+        // Warm up so the JIT settles
+        for (int run = 0; run < 20; run++) {
+            pass(visitors);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        int runs = 10;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int run = 0; run < runs; run++) {
+            pass(visitors);
+        }
+        long perRun = (threads.getThreadAllocatedBytes(threadId) - before) / runs;
+
+        assertTrue(perRun < 1024, "A pass over " + entities.size() + " entities allocated " + perRun + " bytes");
+    }
+}
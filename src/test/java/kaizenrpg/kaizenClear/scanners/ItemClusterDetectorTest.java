@@ -0,0 +1,207 @@
+package kaizenrpg.kaizenClear.scanners;
+
+import org.junit.jupiter.api.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests for ItemClusterDetector
+ */
+class ItemClusterDetectorTest {
+
+    private ItemClusterDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new ItemClusterDetector();
+    }
+
+    @Test
+    @DisplayName("Empty input should produce no clusters")
+    void testEmptyInput() {
+        assertEquals(0, detector.detect(5, 20));
+    }
+
+    @Test
+    @DisplayName("Stacked items should form a single cluster")
+    void testStackedItemsCluster() {
+        for (int i = 0; i < 25; i++) {
+            detector.add(100.5, 64, -200.5);
+        }
+
+        assertEquals(25, detector.detect(5, 20));
+    }
+
+    @Test
+    @DisplayName("Groups below the cluster size should be ignored")
+    void testSmallGroupIgnored() {
+        for (int i = 0; i < 19; i++) {
+            detector.add(i * 0.1, 64, 0);
+        }
+
+        assertEquals(0, detector.detect(5, 20));
+    }
+
+    @Test
+    @DisplayName("Items exactly on the radius should be included")
+    void testRadiusIsInclusive() {
+        detector.add(0, 64, 0);
+        detector.add(5, 64, 0);
+        detector.add(0, 69, 0);
+        detector.add(0, 64, -5);
+
+        assertEquals(4, detector.detect(5, 4));
+    }
+
+    @Test
+    @DisplayName("Random scatter should match the pairwise scan")
+    void testMatchesPairwiseOnScatter() {
+        Random random = new Random(42);
+        assertMatchesReference(randomPoints(random, 2000, 60, 0), 5, 20);
+        assertMatchesReference(randomPoints(random, 2000, 30, 0), 3, 8);
+    }
+
+    @Test
+    @DisplayName("Dense farms should match the pairwise scan")
+    void testMatchesPairwiseOnDenseGroups() {
+        Random random = new Random(7);
+        assertMatchesReference(randomPoints(random, 3000, 12, 0), 5, 20);
+        assertMatchesReference(randomPoints(random, 3000, 40, 4), 5, 20);
+    }
+
+    @Test
+    @DisplayName("Negative coordinates and cell borders should match the pairwise scan")
+    void testMatchesPairwiseAcrossCellBorders() {
+        List<double[]> points = new ArrayList<>();
+        for (int x = -12; x <= 12; x++) {
+            for (int z = -12; z <= 12; z += 3) {
+                points.add(new double[]{x * 2.5, 64, z * 2.5});
+            }
+        }
+        assertMatchesReference(points, 5, 6);
+        assertMatchesReference(points, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Detector should be reusable between runs")
+    void testReuseBetweenRuns() {
+        Random random = new Random(99);
+        List<double[]> first = randomPoints(random, 500, 20, 0);
+        List<double[]> second = randomPoints(random, 800, 25, 2);
+
+        assertMatchesReference(first, 4, 10);
+        assertMatchesReference(second, 4, 10);
+        assertMatchesReference(first, 4, 10);
+    }
+
+    @Test
+    @DisplayName("Reused detector should not allocate once warmed up")
+    void testSteadyStateAllocation() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Per-thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Per-thread allocation counters are not available");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Random random = new Random(1234);
+        double[] coords = new double[20_000 * 3];
+        for (int i = 0; i < coords.length; i += 3) {
+            coords[i] = (random.nextDouble() - 0.5) * 200;
+            coords[i + 1] = 64 + random.nextDouble() * 8;
+            coords[i + 2] = (random.nextDouble() - 0.5) * 200;
+        }
+
+        // Warm up so buffers reach their final size and the JIT settles
+        assertTrue(detectAll(coords) > 0, "Test data should contain clusters");
+        for (int run = 0; run < 20; run++) {
+            detectAll(coords);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        int runs = 10;
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int run = 0; run < runs; run++) {
+            detectAll(coords);
+        }
+        long perRun = (threads.getThreadAllocatedBytes(threadId) - before) / runs;
+
+        assertTrue(perRun < 1024, "Cluster detection allocated " + perRun + " bytes per run");
+    }
+
+    private int detectAll(double[] coords) {
+        detector.clear();
+        for (int i = 0; i < coords.length; i += 3) {
+            detector.add(coords[i], coords[i + 1], coords[i + 2]);
+        }
+        return detector.detect(5, 20);
+    }
+
+    private void assertMatchesReference(List<double[]> points, double radius, int minSize) {
+        detector.clear();
+        for (double[] point : points) {
+            detector.add(point[0], point[1], point[2]);
+        }
+
+        int count = detector.detect(radius, minSize);
+        List<Integer> actual = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            actual.add(detector.getClusteredIndex(i));
+        }
+
+        assertEquals(pairwiseClusters(points, radius, minSize), actual,
+                "Grid detection should return the same items in the same order as the pairwise scan");
+    }
+
+    /**
+     * The original O(n^2) algorithm from EntityScanner, kept as the reference
+     */
+    private static List<Integer> pairwiseClusters(List<double[]> points, double radius, int minSize) {
+        List<Integer> clustered = new ArrayList<>();
+        Set<Integer> processed = new HashSet<>();
+
+        for (int i = 0; i < points.size(); i++) {
+            if (processed.contains(i)) continue;
+
+            List<Integer> nearby = new ArrayList<>();
+            for (int j = 0; j < points.size(); j++) {
+                if (!processed.contains(j) && distance(points.get(i), points.get(j)) <= radius) {
+                    nearby.add(j);
+                }
+            }
+
+            if (nearby.size() >= minSize) {
+                clustered.addAll(nearby);
+                processed.addAll(nearby);
+            }
+        }
+
+        return clustered;
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double dx = a[0] - b[0];
+        double dy = a[1] - b[1];
+        double dz = a[2] - b[2];
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private static List<double[]> randomPoints(Random random, int count, double spread, double heightSpread) {
+        List<double[]> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new double[]{
+                    (random.nextDouble() - 0.5) * spread,
+                    64 + random.nextDouble() * heightSpread,
+                    (random.nextDouble() - 0.5) * spread
+            });
+        }
+        return points;
+    }
+}
@@ -0,0 +1,126 @@
+package kaizenrpg.kaizenClear.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for DoubleRingBuffer
+ */
+class DoubleRingBufferTest {
+
+    @Test
+    @DisplayName("Empty buffer should report no samples")
+    void testEmpty() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(10, 0.5);
+        DoubleRingBuffer.Stats stats = buffer.snapshot();
+        assertEquals(0, stats.getCount());
+        assertEquals(0.0, stats.getMean(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Statistics should match a full recomputation over the window")
+    void testMatchesRecomputation() {
+        int capacity = 37;
+        DoubleRingBuffer buffer = new DoubleRingBuffer(capacity, 0.2);
+        double[] all = new double[2000];
+        Random random = new Random(7);
+
+        double ewma = 0;
+        for (int n = 0; n < all.length; n++) {
+            all[n] = random.nextInt(5) == 0 ? 20.0 : random.nextDouble() * 20;
+            buffer.add(all[n]);
+            ewma = n == 0 ? all[n] : ewma + 0.2 * (all[n] - ewma);
+
+            int from = Math.max(0, n + 1 - capacity);
+            double sum = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+            for (int i = from; i <= n; i++) {
+                sum += all[i];
+                min = Math.min(min, all[i]);
+                max = Math.max(max, all[i]);
+            }
+
+            DoubleRingBuffer.Stats stats = buffer.snapshot();
+            assertEquals(n + 1 - from, stats.getCount());
+            assertEquals(sum / stats.getCount(), stats.getMean(), 1e-9);
+            assertEquals(min, stats.getMin(), 0.0);
+            assertEquals(max, stats.getMax(), 0.0);
+            assertEquals(ewma, stats.getEwma(), 1e-9);
+            assertEquals(all[n], stats.getLatest(), 0.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Evicting a huge sample should not wipe out the small ones added since")
+    void testCompensatedSum() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(4, 0.5);
+        buffer.add(1e16);
+        for (int i = 0; i < 4; i++) {
+            buffer.add(1);
+        }
+
+        assertEquals(1.0, buffer.snapshot().getMean(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Copied history should be oldest first")
+    void testCopyTo() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(4, 1.0);
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(i);
+        }
+
+        double[] out = new double[10];
+        assertEquals(4, buffer.copyTo(out));
+        assertArrayEquals(new double[]{3, 4, 5, 6}, Arrays.copyOf(out, 4));
+
+        double[] small = new double[2];
+        assertEquals(2, buffer.copyTo(small));
+        assertArrayEquals(new double[]{5, 6}, small);
+    }
+
+    @Test
+    @DisplayName("Clearing should forget every sample")
+    void testClear() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(3, 0.5);
+        buffer.add(5);
+        buffer.add(1);
+        buffer.clear();
+        buffer.add(2);
+
+        DoubleRingBuffer.Stats stats = buffer.snapshot();
+        assertEquals(1, stats.getCount());
+        assertEquals(2.0, stats.getMin(), 0.0);
+        assertEquals(2.0, stats.getMax(), 0.0);
+        assertEquals(2.0, stats.getEwma(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Readers on other threads should only see consistent snapshots")
+    void testConcurrentReads() throws InterruptedException {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(16, 0.5);
+        Thread writer = new Thread(() -> {
+            // Every window holds equal values, so min, max and mean must agree
+            for (int i = 0; i < 200_000; i++) {
+                buffer.add(i / 16);
+            }
+        });
+        writer.start();
+
+        boolean consistent = true;
+        while (writer.isAlive()) {
+            DoubleRingBuffer.Stats stats = buffer.snapshot();
+            if (stats.getCount() == 16 && stats.getMax() - stats.getMin() > 1) {
+                consistent = false;
+            }
+            if (stats.getMean() < stats.getMin() - 1e-9 || stats.getMean() > stats.getMax() + 1e-9) {
+                consistent = false;
+            }
+        }
+        writer.join();
+        assertTrue(consistent);
+    }
+}
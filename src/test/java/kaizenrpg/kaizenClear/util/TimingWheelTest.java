@@ -0,0 +1,130 @@
+package kaizenrpg.kaizenClear.util;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TimingWheel
+ */
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Entries should fire exactly on their deadline")
+    void testFiresOnDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule("a", 5);
+        wheel.schedule("b", 64);
+        wheel.schedule("c", 5000);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(4, fired::add);
+        assertTrue(fired.isEmpty());
+
+        wheel.advance(5, fired::add);
+        assertEquals(List.of("a"), fired);
+
+        wheel.advance(63, fired::add);
+        assertEquals(1, fired.size());
+        wheel.advance(64, fired::add);
+        assertEquals(List.of("a", "b"), fired);
+
+        wheel.advance(4999, fired::add);
+        assertEquals(2, fired.size());
+        wheel.advance(5000, fired::add);
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertTrue(wheel.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Past deadlines should fire on the next tick")
+    void testPastDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        wheel.schedule("late", 10);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(101, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+
+    @Test
+    @DisplayName("Cancelled entries should not fire")
+    void testCancel() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        int handle = wheel.schedule("a", 300);
+        wheel.schedule("b", 300);
+
+        assertEquals("a", wheel.cancel(handle));
+        assertNull(wheel.cancel(handle), "Cancelling twice should be a no-op");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(400, fired::add);
+        assertEquals(List.of("b"), fired);
+    }
+
+    @Test
+    @DisplayName("Deadlines beyond the wheel span should still fire on time")
+    void testBeyondSpan() {
+        long deadline = (1L << 24) + 12345;
+        TimingWheel<String> wheel = new TimingWheel<>(7);
+        wheel.schedule("far", deadline);
+
+        List<Long> firedAt = new ArrayList<>();
+        wheel.advance(deadline - 1, value -> firedAt.add(wheel.getCurrentTick()));
+        assertTrue(firedAt.isEmpty());
+
+        wheel.advance(deadline + 10, value -> firedAt.add(wheel.getCurrentTick()));
+        assertEquals(List.of(deadline), firedAt);
+    }
+
+    @Test
+    @DisplayName("Random schedules should fire exactly like a reference map")
+    void testMatchesReference() {
+        Random random = new Random(2024);
+        TimingWheel<Integer> wheel = new TimingWheel<>(1000, 16);
+        Map<Integer, Long> expected = new HashMap<>();
+        Map<Integer, Integer> handles = new HashMap<>();
+        int nextId = 0;
+
+        for (int round = 0; round < 3000; round++) {
+            int adds = random.nextInt(20);
+            for (int i = 0; i < adds; i++) {
+                long delay = switch (random.nextInt(4)) {
+                    case 0 -> random.nextInt(64);
+                    case 1 -> random.nextInt(4096);
+                    case 2 -> random.nextInt(300_000);
+                    default -> random.nextInt(3);
+                };
+                long deadline = wheel.getCurrentTick() + delay;
+                int id = nextId++;
+                handles.put(id, wheel.schedule(id, deadline));
+                expected.put(id, Math.max(deadline, wheel.getCurrentTick() + 1));
+            }
+
+            if (!handles.isEmpty() && random.nextInt(3) == 0) {
+                Integer id = handles.keySet().iterator().next();
+                assertEquals(id, wheel.cancel(handles.remove(id)));
+                expected.remove(id);
+            }
+
+            long target = wheel.getCurrentTick() + 1 + random.nextInt(random.nextInt(10) == 0 ? 5000 : 40);
+            wheel.advance(target, id -> {
+                Long deadline = expected.remove(id);
+                assertNotNull(deadline, "Entry fired twice or after being cancelled");
+                assertEquals(deadline.longValue(), wheel.getCurrentTick(), "Entry fired at the wrong tick");
+                handles.remove(id);
+            });
+
+            for (long deadline : expected.values()) {
+                assertTrue(deadline > wheel.getCurrentTick(), "Due entry did not fire");
+            }
+            assertEquals(expected.size(), wheel.size());
+        }
+    }
+}